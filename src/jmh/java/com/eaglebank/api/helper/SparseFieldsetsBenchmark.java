@@ -0,0 +1,108 @@
+package com.eaglebank.api.helper;
+
+import com.eaglebank.api.beans.AccountDetailsResponse;
+import com.eaglebank.api.beans.AccountType;
+import com.eaglebank.api.beans.Transaction;
+import com.eaglebank.api.beans.TransactionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares serializing large account and transaction lists in full against a sparse fieldset.
+ * - full: the default writer, every property of every element.
+ * - sparse: SparseFieldsets with accountNumber,balance (accounts) or id,amount,type (transactions).
+ * The payload size of each variant is printed once per trial ("bytes: ..."). Time per call is
+ * the CPU cost; for allocation, run with the GC profiler (jmh { profilers = ['gc'] }).
+ * Run with: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SparseFieldsetsBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private List<AccountDetailsResponse> accounts;
+    private List<Transaction> transactions;
+    private ObjectWriter fullAccounts;
+    private ObjectWriter fullTransactions;
+    private SparseFieldsets.Selection sparseAccounts;
+    private SparseFieldsets.Selection sparseTransactions;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Same defaults as the application's mapper (ISO-8601 dates, JavaTimeModule)
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        SparseFieldsets sparseFieldsets = new SparseFieldsets(objectMapper);
+
+        Instant now = Instant.now();
+        accounts = new ArrayList<>(size);
+        transactions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            AccountDetailsResponse account = new AccountDetailsResponse();
+            account.setAccountNumber(String.format("01%06d", i));
+            account.setSortCode("10-10-10");
+            account.setName("Account " + i);
+            account.setAccountType(AccountType.PERSONAL);
+            account.setBalance(BigDecimal.valueOf(i, 2));
+            account.setCurrency("GBP");
+            account.setCreatedTimestamp(now);
+            account.setUpdatedTimestamp(now);
+            accounts.add(account);
+
+            Transaction transaction = new Transaction();
+            transaction.setId("tan-" + Long.toHexString(Double.doubleToLongBits(i)) + "0123456789abcdef");
+            transaction.setAccountId(1L);
+            transaction.setAmount(BigDecimal.valueOf(i, 2));
+            transaction.setCurrency("GBP");
+            transaction.setType(i % 2 == 0 ? TransactionType.deposit : TransactionType.withdrawal);
+            transaction.setReference("Payment reference " + i);
+            transaction.setCreatedTimestamp(now);
+            transactions.add(transaction);
+        }
+
+        fullAccounts = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, AccountDetailsResponse.class));
+        fullTransactions = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Transaction.class));
+        sparseAccounts = sparseFieldsets.select(AccountDetailsResponse.class, "accountNumber,balance");
+        sparseTransactions = sparseFieldsets.select(Transaction.class, "id,amount,type");
+
+        System.out.printf("%nbytes: accounts full=%d sparse=%d, transactions full=%d sparse=%d%n",
+                accountsFull().length, accountsSparse().length, transactionsFull().length, transactionsSparse().length);
+    }
+
+    @Benchmark
+    public byte[] accountsFull() throws Exception {
+        return fullAccounts.writeValueAsBytes(accounts);
+    }
+
+    @Benchmark
+    public byte[] accountsSparse() {
+        return sparseAccounts.write(accounts);
+    }
+
+    @Benchmark
+    public byte[] transactionsFull() throws Exception {
+        return fullTransactions.writeValueAsBytes(transactions);
+    }
+
+    @Benchmark
+    public byte[] transactionsSparse() {
+        return sparseTransactions.write(transactions);
+    }
+}
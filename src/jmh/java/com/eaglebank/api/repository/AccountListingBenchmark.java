@@ -0,0 +1,93 @@
+package com.eaglebank.api.repository;
+
+import com.eaglebank.api.EagleBankApiApplication;
+import com.eaglebank.api.beans.Account;
+import com.eaglebank.api.beans.AccountDetailsResponse;
+import com.eaglebank.api.beans.AccountType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the cost of listing a user's accounts (GET /v1/accounts) against H2.
+ * - entities: the previous path, findAllByUserId (managed Account entities registered in
+ *   the persistence context), then AccountDetailsResponse.fromEntity for each.
+ * - projection: the current path, findDetailsByUserId selecting straight into the DTOs.
+ * For the allocation comparison, run with the GC profiler (jmh { profilers = ['gc'] })
+ * and compare gc.alloc.rate.norm (bytes per call).
+ * Run with: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AccountListingBenchmark {
+
+    private static final Long USER_ID = 1L;
+
+    @Param({"100", "500"})
+    public int accounts;
+
+    private ConfigurableApplicationContext context;
+    private AccountRepository accountRepository;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EagleBankApiApplication.class)
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:listing-benchmark",
+                        "spring.jpa.show-sql=false",
+                        "app.demo-users.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        accountRepository = context.getBean(AccountRepository.class);
+
+        Instant now = Instant.now();
+        List<Account> rows = new ArrayList<>();
+        for (int i = 0; i < accounts; i++) {
+            Account account = new Account();
+            account.setUserId(USER_ID);
+            account.setAccountNumber(String.format("09%06d", i));
+            account.setSortCode("10-10-10");
+            account.setName("Account " + i);
+            account.setAccountType(AccountType.PERSONAL);
+            account.setBalance(BigDecimal.valueOf(i));
+            account.setCurrency("GBP");
+            account.setCreatedTimestamp(now);
+            account.setUpdatedTimestamp(now);
+            rows.add(account);
+        }
+        accountRepository.saveAll(rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<AccountDetailsResponse> entities() {
+        return accountRepository.findAllByUserId(USER_ID).stream()
+                .map(AccountDetailsResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<AccountDetailsResponse> projection() {
+        return accountRepository.findDetailsByUserId(USER_ID);
+    }
+}
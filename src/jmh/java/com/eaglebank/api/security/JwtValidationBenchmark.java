@@ -0,0 +1,78 @@
+package com.eaglebank.api.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+
+import java.lang.reflect.Field;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request cost of JWT validation in JwtAuthenticationFilter.
+ * - perRequestKeyDoubleParse: the previous path, which rebuilt the signing key and
+ *   parser and verified the token twice (validateToken + getUsernameFromJwt).
+ * - cachedParserSingleParse: the current path, a single parseClaims call on the
+ *   parser built once at startup.
+ * Run with: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtValidationBenchmark {
+
+    private String base64Secret;
+    private JwtTokenProvider provider;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        String rawSecret = "ThisIsAMuchLongerAndMoreSecureSecretKeyForJWTAuthenticationInSpring357ThatExceedsThe256BitMinimumRequirement";
+        base64Secret = Base64.getEncoder().encodeToString(rawSecret.getBytes());
+
+        provider = new JwtTokenProvider();
+        setField(provider, "jwtSecret", base64Secret);
+        setField(provider, "jwtExpirationMs", 3600000L);
+        provider.init();
+
+        User principal = new User("user@example.com", "password", List.of());
+        token = provider.generateToken(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Benchmark
+    public String perRequestKeyDoubleParse() {
+        // 1. validateToken: new key, new parser, full verification
+        Jwts.parser().verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret))).build().parse(token);
+        // 2. getUsernameFromJwt: new key, new parser, full verification again
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload()
+                .getSubject();
+    }
+
+    @Benchmark
+    public String cachedParserSingleParse() {
+        Optional<Claims> claims = provider.parseClaims(token);
+        return claims.map(Claims::getSubject).orElse(null);
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,91 @@
+package com.eaglebank.api.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of renewing an access token in AuthController.
+ * - login: AuthenticationManager path with a BCrypt (cost 10) password check,
+ *   then JWT and refresh token issuance.
+ * - refresh: single-use refresh token redemption and rotation, a principal lookup
+ *   (served by the user cache in the application), then JWT issuance.
+ * Run with: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RefreshVsLoginBenchmark {
+
+    private static final String EMAIL = "user@example.com";
+    private static final String PASSWORD = "guest";
+
+    private JwtTokenProvider provider;
+    private DaoAuthenticationProvider authenticationProvider;
+    private UserDetailsService userDetailsService;
+    private RefreshTokenStore refreshTokenStore;
+    private String refreshToken;
+
+    @Setup
+    public void setUp() throws Exception {
+        String rawSecret = "ThisIsAMuchLongerAndMoreSecureSecretKeyForJWTAuthenticationInSpring357ThatExceedsThe256BitMinimumRequirement";
+
+        provider = new JwtTokenProvider();
+        setField(provider, "jwtSecret", Base64.getEncoder().encodeToString(rawSecret.getBytes()));
+        setField(provider, "jwtExpirationMs", 180000L);
+        provider.init();
+
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(10);
+        UserDetails user = new AuthenticatedUser(1L, EMAIL, passwordEncoder.encode(PASSWORD),
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        userDetailsService = username -> user;
+
+        authenticationProvider = new DaoAuthenticationProvider(userDetailsService);
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
+
+        refreshTokenStore = new RefreshTokenStore(Duration.ofHours(24), 100_000, new SimpleMeterRegistry());
+        refreshToken = refreshTokenStore.issue(EMAIL);
+    }
+
+    @Benchmark
+    public String login() {
+        Authentication authentication = authenticationProvider.authenticate(
+                new UsernamePasswordAuthenticationToken(EMAIL, PASSWORD));
+        refreshTokenStore.consume(refreshTokenStore.issue(authentication.getName())); // keep the store size stable
+        return provider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public String refresh() {
+        RefreshTokenStore.RefreshSession session = refreshTokenStore.consume(refreshToken).orElseThrow();
+        UserDetails user = userDetailsService.loadUserByUsername(session.username());
+        String jwt = provider.generateToken(
+                UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+        refreshToken = refreshTokenStore.issue(user.getUsername());
+        return jwt;
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
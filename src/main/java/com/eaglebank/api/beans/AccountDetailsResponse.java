@@ -18,6 +18,24 @@ public class AccountDetailsResponse {
     private Instant createdTimestamp;
     private Instant updatedTimestamp;
 
+    public AccountDetailsResponse() {}
+
+    /**
+     * All-fields constructor, used by the JPQL constructor expressions in AccountRepository
+     * to select rows straight into the DTO without materializing Account entities.
+     */
+    public AccountDetailsResponse(String accountNumber, String sortCode, String name, AccountType accountType,
+                                  BigDecimal balance, String currency, Instant createdTimestamp, Instant updatedTimestamp) {
+        this.accountNumber = accountNumber;
+        this.sortCode = sortCode;
+        this.name = name;
+        this.accountType = accountType;
+        this.balance = balance;
+        this.currency = currency;
+        this.createdTimestamp = createdTimestamp;
+        this.updatedTimestamp = updatedTimestamp;
+    }
+
     // Static factory method to create DTO from Entity
     public static AccountDetailsResponse fromEntity(Account account) {
         AccountDetailsResponse dto = new AccountDetailsResponse();
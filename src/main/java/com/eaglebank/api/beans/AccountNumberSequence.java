@@ -0,0 +1,38 @@
+package com.eaglebank.api.beans;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * JPA Entity holding the next unreserved value of a named number sequence.
+ * AccountNumberAllocator reserves whole blocks from it under a row lock, so
+ * every application node draws from disjoint ranges.
+ */
+@Entity
+@Table(name = "account_number_sequence")
+public class AccountNumberSequence {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private long nextValue;
+
+    // Default constructor required by JPA
+    public AccountNumberSequence() {}
+
+    public AccountNumberSequence(String name, long nextValue) {
+        this.name = name;
+        this.nextValue = nextValue;
+    }
+
+    // Getters and Setters
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public long getNextValue() { return nextValue; }
+    public void setNextValue(long nextValue) { this.nextValue = nextValue; }
+}
@@ -0,0 +1,22 @@
+package com.eaglebank.api.beans;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for a balance as of a point in time (GET /v1/accounts/{accountId}/balance?at={instant}).
+ * @param accountNumber The account number.
+ * @param at The point in time asked for.
+ * @param balance The balance at that time, in the account's currency (zero before its first transaction).
+ * @param currency The account's currency.
+ * @param transactionId The last transaction applied by then, or null if there was none.
+ * @param sequence That transaction's position in the account's ledger, or 0 if there was none.
+ */
+public record BalanceAtResponse(
+        String accountNumber,
+        Instant at,
+        BigDecimal balance,
+        String currency,
+        String transactionId,
+        long sequence
+) {}
@@ -4,6 +4,7 @@ import com.eaglebank.api.helper.CaseInsensitiveAccountTypeDeserializer;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 
 /**
  * DTO for the POST /v1/accounts request body.
@@ -18,6 +19,10 @@ public class CreateAccountRequest {
     @JsonDeserialize(using = CaseInsensitiveAccountTypeDeserializer.class) // Apply custom deserializer
     private AccountType accountType; // Using the AccountType enum
 
+    // Optional ISO 4217 code, GBP if omitted; must be one of the currencies with an FX rate
+    @Pattern(regexp = "[A-Z]{3}", message = "Currency must be a 3-letter ISO 4217 code.")
+    private String currency;
+
     // Getters and Setters
 
     public String getName() { return name; }
@@ -25,4 +30,7 @@ public class CreateAccountRequest {
 
     public AccountType getAccountType() { return accountType; }
     public void setAccountType(AccountType accountType) { this.accountType = accountType; }
+
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
 }
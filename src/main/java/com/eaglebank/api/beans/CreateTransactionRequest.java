@@ -18,7 +18,7 @@ public record CreateTransactionRequest(
         @DecimalMax(value = "10000.00", inclusive = true, message = "Amount cannot exceed 10,000.00.") BigDecimal amount,
 
         @NotBlank(message = "Currency is required.")
-        @Pattern(regexp = "GBP", message = "Only GBP currency is currently supported.")
+        @Pattern(regexp = "[A-Z]{3}", message = "Currency must be a 3-letter ISO 4217 code.")
         String currency,
 
         @NotBlank(message = "Transaction type is required.")
@@ -0,0 +1,23 @@
+package com.eaglebank.api.beans;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object for one day of an account's analytics
+ * (GET /v1/accounts/{accountId}/analytics/daily). Amounts are in the account's currency.
+ * @param date The calendar day.
+ * @param deposits Total deposited that day.
+ * @param withdrawals Total withdrawn that day.
+ * @param depositCount Number of deposits that day.
+ * @param withdrawalCount Number of withdrawals that day.
+ * @param closingBalance The balance at the end of the day.
+ */
+public record DailyTotals(
+        LocalDate date,
+        BigDecimal deposits,
+        BigDecimal withdrawals,
+        int depositCount,
+        int withdrawalCount,
+        BigDecimal closingBalance
+) {}
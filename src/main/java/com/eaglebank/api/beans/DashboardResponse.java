@@ -0,0 +1,27 @@
+package com.eaglebank.api.beans;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for GET /v1/dashboard: everything the home screen shows, in one response.
+ * When the latency budget runs out before every lookup has finished, the response is sent with
+ * what is ready and partial is true; the missing parts are null.
+ * @param user The authenticated user, or null if it could not be loaded in time.
+ * @param accounts The user's accounts, each with its most recent transactions.
+ * @param partial true if any part of the dashboard is missing.
+ */
+public record DashboardResponse(
+        User user,
+        List<AccountSummary> accounts,
+        boolean partial
+) {
+
+    /**
+     * One account and its most recent transactions (newest first).
+     * @param recentTransactions null if the account's history could not be loaded in time.
+     */
+    public record AccountSummary(
+            AccountDetailsResponse account,
+            List<Transaction> recentTransactions
+    ) {}
+}
@@ -0,0 +1,18 @@
+package com.eaglebank.api.beans;
+
+/**
+ * Data Transfer Object (DTO) for handling refresh requests.
+ * Carries the opaque refresh token returned by the previous login or refresh.
+ */
+public class RefreshTokenRequest {
+    private String refreshToken;
+
+    // --- Getters and Setters ---
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
@@ -15,6 +15,11 @@ public class Transaction {
     private TransactionType type;
     private String reference;
     private Instant createdTimestamp;
+    private Long sequence; // Position in the account's ledger (1, 2, 3...), assigned on save; the delta-sync watermark
+    private BigDecimal originalAmount; // Amount as requested, in originalCurrency; amount/currency are in the account's currency
+    private String originalCurrency;
+    private BigDecimal fxRate; // Rate applied from originalCurrency to currency (1 if they are the same)
+    private BigDecimal balanceAfter; // Running balance of the account once this transaction applied, assigned on save
 
     // Getters and Setters
 
@@ -41,4 +46,19 @@ public class Transaction {
 
     public Instant getCreatedTimestamp() { return createdTimestamp; }
     public void setCreatedTimestamp(Instant createdTimestamp) { this.createdTimestamp = createdTimestamp; }
+
+    public Long getSequence() { return sequence; }
+    public void setSequence(Long sequence) { this.sequence = sequence; }
+
+    public BigDecimal getOriginalAmount() { return originalAmount; }
+    public void setOriginalAmount(BigDecimal originalAmount) { this.originalAmount = originalAmount; }
+
+    public String getOriginalCurrency() { return originalCurrency; }
+    public void setOriginalCurrency(String originalCurrency) { this.originalCurrency = originalCurrency; }
+
+    public BigDecimal getFxRate() { return fxRate; }
+    public void setFxRate(BigDecimal fxRate) { this.fxRate = fxRate; }
+
+    public BigDecimal getBalanceAfter() { return balanceAfter; }
+    public void setBalanceAfter(BigDecimal balanceAfter) { this.balanceAfter = balanceAfter; }
 }
@@ -19,9 +19,9 @@ public class TransactionRequest {
     @DecimalMax(value = "10000.00", inclusive = true, message = "Amount cannot exceed 10000.00.")
     private BigDecimal amount;
 
-    // Required and restricted to "GBP"
+    // Required ISO 4217 code; converted into the account's currency if it differs
     @NotNull(message = "Currency is required.")
-    @Pattern(regexp = "GBP", message = "Currency must be 'GBP'.")
+    @Pattern(regexp = "[A-Z]{3}", message = "Currency must be a 3-letter ISO 4217 code.")
     private String currency;
 
     // Required and restricted to "deposit" or "withdrawal"
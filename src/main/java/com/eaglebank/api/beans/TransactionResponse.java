@@ -13,7 +13,8 @@ public record TransactionResponse(
         TransactionType type,
         String reference,
         Long userId,
-        Instant createdTimestamp
+        Instant createdTimestamp,
+        BigDecimal balanceAfter
 ) {
     public static TransactionResponse fromEntity(Transaction transaction) {
         return new TransactionResponse(
@@ -23,7 +24,8 @@ public record TransactionResponse(
                 transaction.getType(),
                 transaction.getReference(),
                 transaction.getUserId(),
-                transaction.getCreatedTimestamp()
+                transaction.getCreatedTimestamp(),
+                transaction.getBalanceAfter()
         );
     }
 }
@@ -0,0 +1,13 @@
+package com.eaglebank.api.beans;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for delta sync (GET /v1/accounts/{accountId}/transactions?since={watermark}).
+ * @param transactions The transactions added since the client's watermark, oldest first.
+ * @param watermark The sequence of the latest transaction of the account; the "since" of the next sync.
+ */
+public record TransactionSyncResponse(
+        List<Transaction> transactions,
+        long watermark
+) {}
@@ -15,6 +15,7 @@ package com.eaglebank.api.beans;
   "email": "nzcZx@AFvDlABtNqbsHokltXJbEBcBpie.tq"
 }
  */
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Column;
 import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
@@ -66,6 +67,16 @@ public class User {
     @NotBlank(message = "Email cannot be blank") // Added validation
     private String email;
 
+    // Password hash (e.g. "{bcrypt}$2a$10$..."). Accepted on create/update but never serialized back.
+    @Column(name = "PASSWORD_HASH")
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private String password;
+
+    // Granted role; server-assigned, so it is exposed read-only in the JSON payload
+    @Column(name = "ROLE", nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String role = "ROLE_USER";
+
     public User(){}
 
     // Constructor for creating a new user (including authentication details)
@@ -119,6 +130,22 @@ public class User {
         this.email = email;
     }
 
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
     @Override public String toString() {
         return "User{"
                 + "id="
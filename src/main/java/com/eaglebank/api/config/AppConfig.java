@@ -1,13 +1,93 @@
 package com.eaglebank.api.config;
 
+import com.eaglebank.api.security.PasswordHashingEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 @Component
 public class AppConfig {
+
+    /**
+     * BCrypt encoder with a configurable cost factor. Raising app.password-hashing.bcrypt-strength
+     * makes existing weaker hashes report upgradeEncoding() == true, so they are transparently
+     * re-hashed on the user's next successful login.
+     */
+    @Bean
+    public BCryptPasswordEncoder encodePassword(@Value("${app.password-hashing.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    /**
+     * Dedicated, bounded pool for password hashing, isolated from the Tomcat request threads.
+     * A full queue rejects new work immediately (AbortPolicy), which surfaces as HTTP 503.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashExecutor(@Value("${app.password-hashing.threads:2}") int threads,
+                                                   @Value("${app.password-hashing.queue-capacity:32}") int queueCapacity,
+                                                   MeterRegistry meterRegistry) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        // Publishes pool size, active threads and queue depth as executor.* metrics
+        new ExecutorServiceMetrics(executor, "passwordHash", Tags.empty()).bindTo(meterRegistry);
+        return executor;
+    }
+
+    /**
+     * Bounded pool for the dashboard's parallel per-account lookups. Sized to stay well within the
+     * JDBC connection pool; a full queue rejects work (AbortPolicy), and the dashboard then returns
+     * that part as missing rather than waiting.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor dashboardExecutor(@Value("${app.dashboard.threads:8}") int threads,
+                                                @Value("${app.dashboard.queue-capacity:256}") int queueCapacity,
+                                                MeterRegistry meterRegistry) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("dashboard-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "dashboard", Tags.empty()).bindTo(meterRegistry);
+        return executor;
+    }
+
+    /**
+     * Defines the PasswordEncoder used to hash and verify stored passwords.
+     * The delegating encoder writes "{bcrypt}" hashes and still verifies legacy "{noop}"
+     * hashes (which are upgraded to BCrypt on the next login). All hashing runs on the
+     * passwordHashExecutor pool.
+     */
     @Bean
-    public BCryptPasswordEncoder encodePassword() {
-        return new BCryptPasswordEncoder();
+    @Primary
+    @SuppressWarnings("deprecation") // NoOpPasswordEncoder is only used to verify legacy hashes
+    public PasswordEncoder passwordEncoder(BCryptPasswordEncoder bcryptEncoder,
+                                           @Qualifier("passwordHashExecutor") ThreadPoolExecutor passwordHashExecutor,
+                                           @Value("${app.password-hashing.timeout:PT2S}") Duration timeout,
+                                           MeterRegistry meterRegistry) {
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of(
+                "bcrypt", bcryptEncoder,
+                "noop", NoOpPasswordEncoder.getInstance()));
+        return new PasswordHashingEncoder(delegating, passwordHashExecutor, timeout, meterRegistry);
     }
 }
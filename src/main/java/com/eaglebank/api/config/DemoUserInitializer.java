@@ -0,0 +1,51 @@
+package com.eaglebank.api.config;
+
+import com.eaglebank.api.beans.Address;
+import com.eaglebank.api.beans.User;
+import com.eaglebank.api.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds the two development users documented in the README into the user table on startup,
+ * now that credentials are stored in the database rather than hardcoded.
+ * - user@example.com / guest
+ * - otheruser@example.com / password
+ * Enabled with app.demo-users.enabled=true; existing users are left untouched.
+ */
+@Component
+@ConditionalOnProperty(name = "app.demo-users.enabled", havingValue = "true")
+public class DemoUserInitializer implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DemoUserInitializer.class);
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    public DemoUserInitializer(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        createIfAbsent("Demo User", "user@example.com", "guest");
+        createIfAbsent("Other Demo User", "otheruser@example.com", "password");
+    }
+
+    private void createIfAbsent(String name, String email, String rawPassword) {
+        if (userRepository.findByEmail(email).isPresent()) {
+            return;
+        }
+        Address address = new Address("1 Eagle Street", null, null, "London", null, "EC1A 1AA");
+        User user = new User(name, address, "02071234567", email);
+        user.setPassword(passwordEncoder.encode(rawPassword));
+        userRepository.save(user);
+        logger.info("Seeded demo user {}.", email);
+    }
+}
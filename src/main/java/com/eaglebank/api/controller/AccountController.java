@@ -3,42 +3,60 @@ package com.eaglebank.api.controller;
 import com.eaglebank.api.beans.Account;
 import com.eaglebank.api.beans.AccountDetailsResponse;
 import com.eaglebank.api.beans.AccountType;
+import com.eaglebank.api.beans.BalanceAtResponse;
 import com.eaglebank.api.beans.CreateAccountRequest;
 import com.eaglebank.api.beans.CreateTransactionRequest;
+import com.eaglebank.api.beans.DailyTotals;
 import com.eaglebank.api.beans.Transaction;
 import com.eaglebank.api.beans.TransactionRequest;
 import com.eaglebank.api.beans.TransactionResponse;
+import com.eaglebank.api.beans.TransactionSyncResponse;
 import com.eaglebank.api.beans.TransactionType;
 import com.eaglebank.api.beans.UpdateAccountRequest;
-import com.eaglebank.api.beans.User;
 import com.eaglebank.api.exception.ResourceNotFoundException;
+import com.eaglebank.api.helper.ETags;
+import com.eaglebank.api.helper.SparseFieldsets;
 import com.eaglebank.api.repository.AccountRepository;
 import com.eaglebank.api.repository.TransactionRepository;
 import com.eaglebank.api.repository.UserRepository;
+import com.eaglebank.api.security.AuthenticatedUser;
+import com.eaglebank.api.service.AccountAccessResolver;
+import com.eaglebank.api.service.AccountMetadataCache;
+import com.eaglebank.api.service.AccountNumberAllocator;
+import com.eaglebank.api.service.AccountReadCoalescer;
+import com.eaglebank.api.service.FxRateTable;
 import com.eaglebank.api.service.TransactionService;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Random;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * REST Controller to manage Bank Account resources.
@@ -48,55 +66,130 @@ import java.util.stream.Collectors;
 @RequestMapping("/v1/accounts")
 public class AccountController {
 
+    // Cacheable by the client only, and always revalidated with If-None-Match before reuse
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    // A transaction is only published to the ledger once it has committed, and is never changed
+    // or taken back afterwards: the client may keep it for a year without asking again
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable();
+
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
     private final TransactionService transactionService;
-    private static final Random RANDOM = new Random();
-
-    public AccountController(AccountRepository accountRepository, UserRepository userRepository, TransactionService transactionService) {
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final AccountAccessResolver accountAccessResolver;
+    private final AccountMetadataCache accountMetadataCache;
+    private final AccountReadCoalescer accountReadCoalescer;
+    private final SparseFieldsets sparseFieldsets;
+    private final FxRateTable fxRateTable;
+
+    public AccountController(AccountRepository accountRepository, UserRepository userRepository, TransactionService transactionService,
+                             AccountNumberAllocator accountNumberAllocator, AccountAccessResolver accountAccessResolver,
+                             AccountMetadataCache accountMetadataCache, AccountReadCoalescer accountReadCoalescer,
+                             SparseFieldsets sparseFieldsets, FxRateTable fxRateTable) {
         this.accountRepository = accountRepository;
         this.userRepository = userRepository;
         this.transactionService = transactionService;
+        this.accountNumberAllocator = accountNumberAllocator;
+        this.accountAccessResolver = accountAccessResolver;
+        this.accountMetadataCache = accountMetadataCache;
+        this.accountReadCoalescer = accountReadCoalescer;
+        this.sparseFieldsets = sparseFieldsets;
+        this.fxRateTable = fxRateTable;
     }
 
 
     // --- Helper Methods (Account Generation) ---
 
     /**
-     * Helper method to get the ID of the authenticated user.
-     * @param authentication The Spring Security Authentication object.
-     * @return The ID of the authenticated user.
-     * @throws UsernameNotFoundException if the authenticated principal is not found in the UserRepository.
+     * Helper method to load an account owned by the authenticated user, with a single query.
+     * @throws ResponseStatusException 404 if the account does not exist, 403 if it belongs to a different user.
      */
-    private Long getAuthenticatedUserId(Authentication authentication) {
-        String loggedInEmail = authentication.getName();
-        User loggedInUser = userRepository.findByEmail(loggedInEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("Authenticated user not found in DB: " + loggedInEmail));
-        return loggedInUser.getId();
+    private Account getOwnedAccount(String accountNumber, Long userId) {
+        return accountAccessResolver.resolve(accountNumber, userId).orElseThrow(
+                () -> accountNotFound(accountNumber),
+                () -> accountForbidden(accountNumber));
     }
+
     /**
-     * Helper method to generate a unique 8-digit account number (simulated).
+     * Helper method to explain why an owner-scoped query found no account (404 or 403).
+     * Ownership comes from the account metadata cache, so this rarely costs a query.
      */
-    private String generateUniqueAccountNumber() {
-        // In a real system, this would involve a complex, transactional sequence
-        // to ensure uniqueness and compliance. Here, we simulate a unique 8-digit number.
-        // For simplicity and brevity, this mock generation does not guarantee true uniqueness
-        // and skips retry logic, but simulates the format.
-        return String.format("%08d", RANDOM.nextInt(100000000));
+    private ResponseStatusException accountAccessError(String accountNumber, Long userId) {
+        return accountAccessResolver.accessOf(accountNumber, userId) == AccountAccessResolver.Access.FORBIDDEN
+                ? accountForbidden(accountNumber)
+                : accountNotFound(accountNumber);
+    }
+
+    // Defaults to GBP; any other currency must be convertible, or deposits could never be applied (400 Bad Request)
+    private String accountCurrency(String requested) {
+        if (requested == null) {
+            return "GBP";
+        }
+        if (!fxRateTable.supports(requested)) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Unsupported account currency: " + requested + "."
+            );
+        }
+        return requested;
+    }
+
+    // The account does not exist in the database at all (404 Not Found)
+    private static ResponseStatusException accountNotFound(String accountNumber) {
+        return new ResponseStatusException(
+                HttpStatus.NOT_FOUND,
+                "Account with number " + accountNumber + " not found."
+        );
+    }
+
+    // The account exists, but belongs to a different user (403 Forbidden)
+    private static ResponseStatusException accountForbidden(String accountNumber) {
+        return new ResponseStatusException(
+                HttpStatus.FORBIDDEN,
+                "Access to account number " + accountNumber + " is forbidden. Account exists but belongs to a different user."
+        );
     }
 
     /**
-     * Helper method to generate a unique 6-digit sort code (simulated).
+     * Helper method to build a 304 Not Modified response for a conditional GET.
+     */
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(REVALIDATE)
+                .eTag(etag)
+                .build();
+    }
+
+    /**
+     * Helper method to build a 200 response for a list endpoint: the full list, or only the
+     * requested fields of each element (serialized with the fieldset's precomputed writer).
+     * @param selection The requested sparse fieldset, or null for the full representation.
+     */
+    private static ResponseEntity<?> listResponse(List<?> body, String etag, SparseFieldsets.Selection selection) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().cacheControl(REVALIDATE);
+        if (selection == null) {
+            return ok.eTag(etag).body(body);
+        }
+        return ok.eTag(selection.eTag(etag))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(selection.write(body));
+    }
+
+    /**
+     * Helper method to generate a 6-digit sort code (simulated).
      */
     private String generateSortCode() {
-        // Simulates a 6-digit sort code, formatted as XX-XX-XX in banking systems
-        return String.format("%02d-%02d-%02d", RANDOM.nextInt(100), RANDOM.nextInt(100), RANDOM.nextInt(100));
+        // Simulates a 6-digit sort code, formatted as XX-XX-XX in banking systems.
+        // ThreadLocalRandom avoids contention on a shared Random across request threads.
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return String.format("%02d-%02d-%02d", random.nextInt(100), random.nextInt(100), random.nextInt(100));
     }
 
     /**
      * POST /v1/accounts
-     * Creates a new bank account for the authenticated user.
-     * @param request The request DTO containing the account name and type.
+     * Creates a new bank account for the authenticated user, in GBP unless another currency with
+     * an FX rate is requested.
+     * @param request The request DTO containing the account name, type and optional currency.
      * @param authentication The Spring Security Authentication object (contains the principal/username).
      * @return ResponseEntity with the created AccountDetailsResponse and HTTP 201 Created.
      */
@@ -107,11 +200,7 @@ public class AccountController {
             Authentication authentication) {
 
         // 1. Get the authenticated user's ID
-        String loggedInEmail = authentication.getName();
-        User loggedInUser = userRepository.findByEmail(loggedInEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("Authenticated user not found in DB: " + loggedInEmail));
-
-        Long userId = loggedInUser.getId();
+        Long userId = AuthenticatedUser.requireUserId(authentication, userRepository);
 
         // 2. Prepare the new Account entity
         Instant now = Instant.now();
@@ -125,10 +214,11 @@ public class AccountController {
         newAccount.setAccountType(request.getAccountType());
 
         // Set simulated banking details
-        newAccount.setAccountNumber(generateUniqueAccountNumber());
+        // Unique by construction (reserved from the DB in blocks), so the save never needs a retry
+        newAccount.setAccountNumber(accountNumberAllocator.nextAccountNumber());
         newAccount.setSortCode(generateSortCode());
         newAccount.setBalance(BigDecimal.ZERO);
-        newAccount.setCurrency("GBP"); // Default currency
+        newAccount.setCurrency(accountCurrency(request.getCurrency()));
 
         // Set timestamps
         newAccount.setCreatedTimestamp(now);
@@ -146,62 +236,84 @@ public class AccountController {
     /**
      * GET /v1/accounts
      * Retrieves all bank accounts associated with the authenticated user.
+     * Supports conditional GET: a matching If-None-Match is answered with 304 after a single
+     * aggregate query, without loading or serializing any account.
      * @param authentication The Spring Security Authentication object (contains the principal/username).
-     * @return A list of AccountDetailsResponse DTOs.
+     * @param ifNoneMatch The ETag of the client's cached copy, if any.
+     * @param fields Optional sparse fieldset (e.g. accountNumber,balance); only these properties are returned.
+     * @return A list of AccountDetailsResponse DTOs, with its ETag.
      */
     @GetMapping
-    public List<AccountDetailsResponse> getAccounts(Authentication authentication) {
-        // 1. Get the authenticated user's ID
-        String loggedInEmail = authentication.getName();
-        User loggedInUser = userRepository.findByEmail(loggedInEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("Authenticated user not found in DB: " + loggedInEmail));
-
-        Long userId = loggedInUser.getId();
+    public ResponseEntity<?> getAccounts(
+            Authentication authentication,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(value = "fields", required = false) String fields) {
+        // 1. Get the authenticated user's ID, and validate the requested fields (400 if unknown)
+        Long userId = AuthenticatedUser.requireUserId(authentication, userRepository);
+        SparseFieldsets.Selection selection = sparseFieldsets.select(AccountDetailsResponse.class, fields);
+
+        // 2. Conditional GET: compare the client's tag with the list's version marker
+        if (ifNoneMatch != null) {
+            AccountRepository.AccountListVersion version = accountRepository.findListVersionByUserId(userId);
+            String etag = ETags.ofAccountList(version.getAccountCount(), version.getLastUpdated());
+            if (selection != null) {
+                etag = selection.eTag(etag);
+            }
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
+        }
 
-        // 2. Fetch all accounts for that user ID
-        List<Account> userAccounts = accountRepository.findAllByUserId(userId);
+        // 3. Select that user's accounts straight into response DTOs (no entities to map)
+        List<AccountDetailsResponse> accounts = accountRepository.findDetailsByUserId(userId);
 
-        // 3. Map the list of Account entities to a list of AccountDetailsResponse DTOs
-        return userAccounts.stream()
-                .map(AccountDetailsResponse::fromEntity)
-                .collect(Collectors.toList());
+        // 4. Tag the response from the rows it contains
+        Instant lastUpdated = accounts.stream()
+                .map(AccountDetailsResponse::getUpdatedTimestamp)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .orElse(null);
+        return listResponse(accounts, ETags.ofAccountList(accounts.size(), lastUpdated), selection);
     }
 
     /**
      * GET /v1/accounts/{accountId}
      * Retrieves a single bank account associated with the authenticated user, or throws
      * an exception if the account is not found or not owned by the user.
+     * Supports conditional GET: a matching If-None-Match is answered with 304 after reading
+     * only the account's updatedTimestamp.
      * @param accountId The ID of the account to retrieve.
      * @param authentication The Spring Security Authentication object.
-     * @return The AccountDetailsResponse DTO.
+     * @param ifNoneMatch The ETag of the client's cached copy, if any.
+     * @return The AccountDetailsResponse DTO, with its ETag.
      */
     @GetMapping("/{accountId}")
-    public AccountDetailsResponse getAccountByNumber(@PathVariable("accountId") String accountNumber, Authentication authentication) {
-        Long userId = getAuthenticatedUserId(authentication);
-
-        // 1. Attempt to find the account by its account number AND the authenticated user's ID
-        return accountRepository.findByAccountNumberAndUserId(accountNumber, userId)
-                .map(AccountDetailsResponse::fromEntity) // If found and owned, map and return 200 OK
-                .orElseGet(() -> {
-                    // If the secure lookup failed, determine the appropriate error code.
-
-                    // 2. Check if the account exists at all (regardless of owner)
-                    if (accountRepository.findByAccountNumber(accountNumber).isPresent()) {
-                        // The account exists, but the user ID didn't match the account owner.
-                        // This is an Access Violation, resulting in a 403 Forbidden.
-                        throw new ResponseStatusException(
-                                HttpStatus.FORBIDDEN,
-                                "Access to account number " + accountNumber + " is forbidden. Account exists but belongs to a different user."
-                        );
-                    } else {
-                        // The account does not exist in the database at all.
-                        // This is a Not Found error (404).
-                        throw new ResponseStatusException(
-                                HttpStatus.NOT_FOUND,
-                                "Account with number " + accountNumber + " not found."
-                        );
-                    }
-                });
+    public ResponseEntity<AccountDetailsResponse> getAccountByNumber(
+            @PathVariable("accountId") String accountNumber,
+            Authentication authentication,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Long userId = AuthenticatedUser.requireUserId(authentication, userRepository);
+
+        // 1. Conditional GET: compare the client's tag with the account's version marker.
+        // A missing or foreign account falls through to the 404/403 handling below.
+        if (ifNoneMatch != null) {
+            Optional<Instant> updatedTimestamp = accountRepository.findUpdatedTimestampByAccountNumberAndUserId(accountNumber, userId);
+            if (updatedTimestamp.isPresent()) {
+                String etag = ETags.ofAccount(updatedTimestamp.get());
+                if (ETags.matches(ifNoneMatch, etag)) {
+                    return notModified(etag);
+                }
+            }
+        }
+
+        // 2. Select the owned account straight into the response DTO (one query shared by identical
+        // concurrent requests); only a miss needs to tell 404 Not Found from 403 Forbidden
+        AccountDetailsResponse account = accountReadCoalescer.findAccountDetails(accountNumber, userId)
+                .orElseThrow(() -> accountAccessError(accountNumber, userId));
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .eTag(ETags.ofAccount(account.getUpdatedTimestamp()))
+                .body(account);
     }
 
     /**
@@ -218,38 +330,21 @@ public class AccountController {
             @Valid @RequestBody UpdateAccountRequest request,
             Authentication authentication) {
 
-        Long userId = getAuthenticatedUserId(authentication);
-
-        // 1. Find the account by Account Number and User ID
-        Optional<Account> accountOptional = accountRepository.findByAccountNumberAndUserId(accountNumber, userId);
-
-        if (accountOptional.isEmpty()) {
-            // Account not found for this user. Determine 403 (Forbidden) or 404 (Not Found).
-            if (accountRepository.findByAccountNumber(accountNumber).isPresent()) {
-                // Account exists but belongs to someone else
-                throw new ResponseStatusException(
-                        HttpStatus.FORBIDDEN,
-                        "Access to account number " + accountNumber + " is forbidden. Account exists but belongs to a different user."
-                );
-            } else {
-                // Account does not exist at all
-                throw new ResponseStatusException(
-                        HttpStatus.NOT_FOUND,
-                        "Account with number " + accountNumber + " not found."
-                );
-            }
-        }
+        Long userId = AuthenticatedUser.requireUserId(authentication, userRepository);
+
+        // 1. Find the account and check ownership in one query (404 Not Found / 403 Forbidden)
+        Account existingAccount = getOwnedAccount(accountNumber, userId);
 
         // 2. Authorization passed, apply updates
-        Account existingAccount = accountOptional.get();
         existingAccount.setName(request.name());
         // Convert request string to enum and set on the entity
         AccountType type = AccountType.valueOf(request.accountType());
         existingAccount.setAccountType(type);
         existingAccount.setUpdatedTimestamp(Instant.now());
 
-        // 3. Save and return the updated DTO
+        // 3. Save, drop the cached metadata (the account type changed) and return the updated DTO
         Account updatedAccount = accountRepository.save(existingAccount);
+        accountMetadataCache.invalidate(accountNumber);
 
         return AccountDetailsResponse.fromEntity(updatedAccount);
     }
@@ -265,31 +360,14 @@ public class AccountController {
             @PathVariable("accountId") String accountNumber,
             Authentication authentication) {
 
-        Long userId = getAuthenticatedUserId(authentication);
-
-        // 1. Find the account by Account Number and User ID
-        Optional<Account> accountOptional = accountRepository.findByAccountNumberAndUserId(accountNumber, userId);
-
-        if (accountOptional.isEmpty()) {
-            // Account not found for this user. Determine 403 (Forbidden) or 404 (Not Found).
-            if (accountRepository.findByAccountNumber(accountNumber).isPresent()) {
-                // Account exists but belongs to someone else
-                throw new ResponseStatusException(
-                        HttpStatus.FORBIDDEN,
-                        "Access to account number " + accountNumber + " is forbidden. Account exists but belongs to a different user."
-                );
-            } else {
-                // Account does not exist at all
-                throw new ResponseStatusException(
-                        HttpStatus.NOT_FOUND,
-                        "Account with number " + accountNumber + " not found."
-                );
-            }
-        }
+        Long userId = AuthenticatedUser.requireUserId(authentication, userRepository);
 
-        // 2. Authorization passed, delete the account
-        Account accountToDelete = accountOptional.get();
+        // 1. Find the account and check ownership in one query (404 Not Found / 403 Forbidden)
+        Account accountToDelete = getOwnedAccount(accountNumber, userId);
+
+        // 2. Authorization passed, delete the account and its cached metadata
         accountRepository.delete(accountToDelete);
+        accountMetadataCache.invalidate(accountNumber);
 
         // 3. Return 204 No Content
         return ResponseEntity.noContent().build();
@@ -308,7 +386,7 @@ public class AccountController {
     public ResponseEntity<Transaction> createTransaction(
             @PathVariable("accountId") String accountNumber, // Changed to String accountNumber
             @Valid @RequestBody TransactionRequest request,Authentication authentication) {
-        Long userId = getAuthenticatedUserId(authentication);
+        Long userId = AuthenticatedUser.requireUserId(authentication, userRepository);
         // Only handle explicit Withdrawal requests for now
 
             Transaction transaction = transactionService.processTransaction(
@@ -324,35 +402,120 @@ public class AccountController {
      * Endpoint to retrieve the transaction history for a specific account.
      * GET /v1/accounts/{accountNumber}/transactions
      * Handles 404 Not Found and 403 Forbidden via TransactionService.
+     * Supports conditional GET: the ETag follows the account's ledger version, so a matching
+     * If-None-Match is answered with 304 without reading any transaction.
+     * An optional fields parameter (e.g. id,amount,type) limits each transaction to those properties.
      */
     @GetMapping("/{accountId}/transactions")
-    public ResponseEntity<List<Transaction>> getTransactionHistory(
+    public ResponseEntity<?> getTransactionHistory(
             @PathVariable("accountId") String accountNumber,
-            Authentication authentication) {
-        Long userId = getAuthenticatedUserId(authentication);
+            Authentication authentication,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(value = "fields", required = false) String fields) {
+        Long userId = AuthenticatedUser.requireUserId(authentication, userRepository);
+        SparseFieldsets.Selection selection = sparseFieldsets.select(Transaction.class, fields);
+
+        // Read the version before the rows: if a transaction lands in between, the client gets
+        // the newer rows under the older tag and simply re-fetches next time (never the reverse)
+        TransactionRepository.LedgerVersion version = transactionService.getTransactionHistoryVersion(accountNumber, userId);
+        String etag = ETags.ofTransactionHistory(version.sequence(), version.latestTransactionId());
+        // Each fieldset is its own representation, with its own tag
+        String representationTag = selection == null ? etag : selection.eTag(etag);
+        if (ETags.matches(ifNoneMatch, representationTag)) {
+            return notModified(representationTag);
+        }
+
         List<Transaction> history = transactionService.getTransactionHistory(
                 accountNumber,
                 userId
         );
-        return ResponseEntity.ok(history);
+        return listResponse(history, etag, selection);
+    }
+
+    /**
+     * Delta sync of the transaction history.
+     * GET /v1/accounts/{accountNumber}/transactions?since={watermark}
+     * Returns only the transactions added after the client's watermark (oldest first) and the
+     * new watermark to send next time; since=0 returns the whole history. A watermark beyond the
+     * ledger returns no rows and the current watermark, which the client should adopt.
+     * Handles 404 Not Found and 403 Forbidden via TransactionService.
+     */
+    @GetMapping(value = "/{accountId}/transactions", params = "since")
+    public ResponseEntity<TransactionSyncResponse> getTransactionsSince(
+            @PathVariable("accountId") String accountNumber,
+            @RequestParam("since") long since,
+            Authentication authentication) {
+        Long userId = AuthenticatedUser.requireUserId(authentication, userRepository);
+
+        TransactionSyncResponse delta = transactionService.getTransactionsSince(accountNumber, userId, since);
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .body(delta);
+    }
+
+    /**
+     * Daily analytics of an account, for charts.
+     * GET /v1/accounts/{accountNumber}/analytics/daily?from={date}&to={date}
+     * Returns one entry per day (oldest first) with the day's deposits, withdrawals, their counts
+     * and the closing balance, from incrementally maintained rollups; days without transactions
+     * carry the closing balance forward. Defaults to the last app.analytics.default-days days.
+     * Handles 400 Bad Request, 404 Not Found and 403 Forbidden via TransactionService.
+     */
+    @GetMapping("/{accountId}/analytics/daily")
+    public ResponseEntity<List<DailyTotals>> getDailyTotals(
+            @PathVariable("accountId") String accountNumber,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication authentication) {
+        Long userId = AuthenticatedUser.requireUserId(authentication, userRepository);
+
+        List<DailyTotals> days = transactionService.getDailyTotals(accountNumber, userId, from, to);
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .body(days);
+    }
+
+    /**
+     * Balance of an account as of a point in time, for audits.
+     * GET /v1/accounts/{accountNumber}/balance?at={ISO-8601 instant}
+     * Returns the running balance recorded on the last transaction applied at or before that
+     * instant (zero before the first one), found by a binary search over the account's ledger.
+     * Handles 400 Bad Request, 404 Not Found and 403 Forbidden via TransactionService.
+     */
+    @GetMapping("/{accountId}/balance")
+    public ResponseEntity<BalanceAtResponse> getBalanceAt(
+            @PathVariable("accountId") String accountNumber,
+            @RequestParam("at") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at,
+            Authentication authentication) {
+        Long userId = AuthenticatedUser.requireUserId(authentication, userRepository);
+
+        BalanceAtResponse balance = transactionService.getBalanceAt(accountNumber, userId, at);
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .body(balance);
     }
 
     /**
      * Handles GET /v1/accounts/{accountId}/transactions/{transactionId}
      * Retrieves details for a specific transaction, enforcing user ownership and transaction association.
+     * Only committed transactions can be found, so the response is marked immutable.
      */
     @GetMapping("/{accountId}/transactions/{transactionId}")
-    public ResponseEntity<Transaction> getTransactionDetails(
+    public ResponseEntity<byte[]> getTransactionDetails(
             @PathVariable("accountId") String accountNumber,
             @PathVariable("transactionId") String transactionId,
             Authentication authentication) {
-        Long userId = getAuthenticatedUserId(authentication);
+        Long userId = AuthenticatedUser.requireUserId(authentication, userRepository);
 
-        Transaction transaction = transactionService.getTransactionDetails(
+        // Pre-serialized JSON from the transaction details cache
+        byte[] transaction = transactionService.getTransactionDetailsJson(
                 accountNumber,
                 transactionId,
                 userId
         );
-        return ResponseEntity.ok(transaction);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(IMMUTABLE)
+                .body(transaction);
     }
 }
@@ -1,14 +1,23 @@
 package com.eaglebank.api.controller;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import com.eaglebank.api.beans.LoginRequest;
+import com.eaglebank.api.beans.RefreshTokenRequest;
 import com.eaglebank.api.security.JwtTokenProvider;
+import com.eaglebank.api.security.RefreshTokenStore;
+import com.eaglebank.api.security.TokenRevocationList;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -20,17 +29,31 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/auth")
 public class AuthController {
 
+    // Response header carrying the opaque refresh token, so the body stays the bare access token
+    public static final String REFRESH_TOKEN_HEADER = "X-Refresh-Token";
+
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
+    private final RefreshTokenStore refreshTokenStore;
+    private final UserDetailsService userDetailsService;
+    private final TokenRevocationList tokenRevocationList;
 
-    public AuthController(AuthenticationManager authenticationManager, JwtTokenProvider tokenProvider) {
+    public AuthController(AuthenticationManager authenticationManager, JwtTokenProvider tokenProvider,
+                          RefreshTokenStore refreshTokenStore, UserDetailsService userDetailsService,
+                          TokenRevocationList tokenRevocationList) {
         this.authenticationManager = authenticationManager;
         this.tokenProvider = tokenProvider;
+        this.refreshTokenStore = refreshTokenStore;
+        this.userDetailsService = userDetailsService;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     /**
      * Endpoint to authenticate user credentials and generate a JWT token.
      * Accessible at: POST /api/auth/login
+     * The password check runs on the dedicated password hashing pool; when that pool is
+     * saturated the request fails fast with 503 instead of holding a request thread.
+     * A refresh token is returned in the X-Refresh-Token header.
      */
     @PostMapping("/login")
     public ResponseEntity<String> authenticateUser(@RequestBody LoginRequest loginRequest) {
@@ -49,7 +72,64 @@ public class AuthController {
         // 3. Generate a JWT token for the authenticated user
         String jwt = tokenProvider.generateToken(authentication);
 
-        // 4. Return the token to the client
-        return ResponseEntity.ok(jwt);
+        // 4. Return the token to the client, with a refresh token for renewing it
+        return ResponseEntity.ok()
+                .header(REFRESH_TOKEN_HEADER, refreshTokenStore.issue(authentication.getName()))
+                .body(jwt);
+    }
+
+    /**
+     * Endpoint to exchange a refresh token for a new JWT token, without re-checking the password.
+     * Accessible at: POST /api/auth/refresh
+     * The refresh token is single use: it is rotated and the replacement is returned in the
+     * X-Refresh-Token header. The user is re-read through the cached UserDetailsService, so
+     * deleted users cannot refresh.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<String> refreshToken(@RequestBody RefreshTokenRequest refreshRequest) {
+
+        // 1. Redeem (and invalidate) the presented refresh token
+        RefreshTokenStore.RefreshSession session = refreshTokenStore.consume(refreshRequest.getRefreshToken())
+                .orElseThrow(() -> new BadCredentialsException("Invalid or expired refresh token"));
+
+        // 2. Load the user's current roles and ID
+        UserDetails user;
+        try {
+            user = userDetailsService.loadUserByUsername(session.username());
+        } catch (UsernameNotFoundException e) {
+            throw new BadCredentialsException("Invalid or expired refresh token");
+        }
+
+        // 3. Issue a new JWT token and a replacement refresh token
+        Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+        String jwt = tokenProvider.generateToken(authentication);
+
+        return ResponseEntity.ok()
+                .header(REFRESH_TOKEN_HEADER, refreshTokenStore.issue(user.getUsername()))
+                .body(jwt);
+    }
+
+    /**
+     * Endpoint to log out by revoking the caller's JWT token before it expires.
+     * Accessible at: POST /api/auth/logout (requires a valid JWT token)
+     * An optional refresh token in the body is invalidated as well, so the session cannot be renewed.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+                                       @RequestBody(required = false) RefreshTokenRequest logoutRequest) {
+
+        // 1. Revoke the presented access token until its natural expiry
+        if (authorization.startsWith("Bearer ")) {
+            tokenProvider.parseClaims(authorization.substring(7))
+                    .filter(claims -> claims.getExpiration() != null)
+                    .ifPresent(claims -> tokenRevocationList.revoke(claims.getId(), claims.getExpiration().toInstant()));
+        }
+
+        // 2. Invalidate the refresh token, if one was supplied
+        if (logoutRequest != null) {
+            refreshTokenStore.consume(logoutRequest.getRefreshToken());
+        }
+
+        return ResponseEntity.noContent().build();
     }
 }
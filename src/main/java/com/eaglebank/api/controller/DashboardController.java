@@ -0,0 +1,52 @@
+package com.eaglebank.api.controller;
+
+import com.eaglebank.api.beans.DashboardResponse;
+import com.eaglebank.api.repository.UserRepository;
+import com.eaglebank.api.security.AuthenticatedUser;
+import com.eaglebank.api.service.DashboardService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller for the home screen dashboard.
+ * Replaces GET /v1/users/{id}, GET /v1/accounts and one history request per account
+ * with a single authenticated round-trip.
+ */
+@RestController
+@RequestMapping("/v1/dashboard")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+    private final UserRepository userRepository;
+
+    public DashboardController(DashboardService dashboardService, UserRepository userRepository) {
+        this.dashboardService = dashboardService;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * GET /v1/dashboard?transactions={k}
+     * Returns the authenticated user, their accounts and the latest k transactions of each account.
+     * The response is built within a latency budget; if it runs out, the parts that are ready are
+     * returned with "partial": true and the missing ones set to null.
+     * @param transactions Recent transactions per account; defaults to app.dashboard.transactions.default.
+     * @param authentication The Spring Security Authentication object.
+     */
+    @GetMapping
+    public ResponseEntity<DashboardResponse> getDashboard(
+            @RequestParam(value = "transactions", required = false) Integer transactions,
+            Authentication authentication) {
+        Long userId = AuthenticatedUser.requireUserId(authentication, userRepository);
+
+        DashboardResponse dashboard = dashboardService.getDashboard(userId, transactions);
+        // A partial dashboard must not be reused by the client
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(dashboard);
+    }
+}
@@ -0,0 +1,58 @@
+package com.eaglebank.api.controller;
+
+import com.eaglebank.api.beans.Transaction;
+import com.eaglebank.api.repository.UserRepository;
+import com.eaglebank.api.security.AuthenticatedUser;
+import com.eaglebank.api.service.TransactionSearchService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * REST Controller for searching transactions by reference text.
+ */
+@RestController
+@RequestMapping("/v1/transactions")
+public class TransactionSearchController {
+
+    private final TransactionSearchService transactionSearchService;
+    private final UserRepository userRepository;
+
+    public TransactionSearchController(TransactionSearchService transactionSearchService, UserRepository userRepository) {
+        this.transactionSearchService = transactionSearchService;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * GET /v1/transactions/search?q={text}&accountNumber={n}&from={instant}&to={instant}&limit={k}
+     * Returns the transactions whose reference contains every word of q, newest first.
+     * Admins may omit accountNumber to search all accounts; other users must name their own account.
+     * @param q Free text, e.g. "invoice 4412".
+     * @param accountNumber Restricts the search to one account.
+     * @param from Created at or after this instant (ISO-8601).
+     * @param to Created before this instant (ISO-8601).
+     * @param limit Maximum number of results; defaults to app.search.limit.default.
+     * @param authentication The Spring Security Authentication object.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<Transaction>> searchTransactions(
+            @RequestParam("q") String q,
+            @RequestParam(value = "accountNumber", required = false) String accountNumber,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            Authentication authentication) {
+        Long userId = AuthenticatedUser.requireUserId(authentication, userRepository);
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+
+        return ResponseEntity.ok(transactionSearchService.search(q, accountNumber, from, to, limit, userId, admin));
+    }
+}
@@ -3,12 +3,16 @@ package com.eaglebank.api.controller;
 import com.eaglebank.api.beans.User;
 import com.eaglebank.api.exception.UserNotFoundException;
 import com.eaglebank.api.repository.UserRepository;
+import com.eaglebank.api.security.AuthenticatedUser;
 
 import com.eaglebank.api.service.CustomUserDetailsService;
+import com.eaglebank.api.service.UserListingService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -17,6 +21,8 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.List;
 
@@ -30,13 +36,16 @@ public class UserController {
     Logger logger = LoggerFactory.getLogger(UserController.class);
     private final UserRepository userRepository;
     private final CustomUserDetailsService customUserDetailsService;
+    private final UserListingService userListingService;
 
     /**
      * Constructor injection of the UserRepository.
      */
-    public UserController(UserRepository userRepository, CustomUserDetailsService customUserDetailsService) {
+    public UserController(UserRepository userRepository, CustomUserDetailsService customUserDetailsService,
+                          UserListingService userListingService) {
         this.userRepository = userRepository;
         this.customUserDetailsService = customUserDetailsService;
+        this.userListingService = userListingService;
     }
 
     /**
@@ -48,18 +57,15 @@ public class UserController {
      * @throws AccessDeniedException If the authorization check fails.
      */
     private void enforceSelfOrAdminAccess(Long requestedId, Authentication authentication) {
-        // 1. Get the email of the currently logged-in user (the principal name from the JWT)
-        String loggedInEmail = authentication.getName();
+        // 1. Get the internal ID of the logged-in user, carried by the JWT principal
+        // (or, as a fallback, found by email, the principal name from the JWT)
+        Long loggedInUserId = AuthenticatedUser.requireUserId(authentication, userRepository);
 
-        // 2. Find the authenticated user entity to get their internal ID
-        User loggedInUser = userRepository.findByEmail(loggedInEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("Authenticated user not found in DB: " + loggedInEmail));
-
-        // 3. Check for authorization
+        // 2. Check for authorization
         boolean isAdmin = authentication.getAuthorities().stream()
                 .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
 
-        boolean isSelf = loggedInUser.getId().equals(requestedId);
+        boolean isSelf = loggedInUserId.equals(requestedId);
 
         if (!(isSelf || isAdmin)) {
             // Unauthorized: Access denied (maps to HTTP 403 Forbidden)
@@ -69,12 +75,39 @@ public class UserController {
     // --- READ Operations ---
 
     /**
-     * GET /api/users
-     * Retrieves all users from the database.
+     * GET /v1/users?afterId={id}&limit={n}
+     * Retrieves one page of users, in ID order (keyset pagination).
+     * When the page is full, a Link header (rel="next") carries the URL of the next page.
+     * @param afterId The last user ID of the previous page; omit for the first page.
+     * @param limit The page size; defaults to app.users.page.default-size, capped at app.users.page.max-size.
      */
     @GetMapping
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public ResponseEntity<List<User>> getAllUsers(@RequestParam(value = "afterId", required = false) Long afterId,
+                                                  @RequestParam(value = "limit", required = false) Integer limit) {
+        List<User> page = userListingService.findPage(afterId, limit);
+        int pageSize = userListingService.pageSize(limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == pageSize) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("afterId", page.get(page.size() - 1).getId())
+                    .replaceQueryParam("limit", pageSize)
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page);
+    }
+
+    /**
+     * GET /v1/users/stream
+     * Streams all users as a single JSON array, written to the response as rows are read
+     * from the database, for exports that should not be paged.
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(userListingService::writeAll);
     }
 
     /**
@@ -91,7 +124,8 @@ public class UserController {
 
         // 1. Attempt to find the user first. If not found, throw UserNotFoundException
         // to be caught by the global handler (returning 404 with JSON body).
-        User user = userRepository.findById(id)
+        // Loaded read-only: the entity is only serialized, never modified.
+        User user = userRepository.findReadOnlyById(id)
                 .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + id));
 
         // 2. If the user exists, now enforce the authorization check.
@@ -114,6 +148,8 @@ public class UserController {
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED) // Set response status to 201 CREATED
     public User createUser(@Valid @RequestBody User user) { // ADDED @Valid
+        // Store only the hash of the supplied password
+        customUserDetailsService.encodePassword(user);
         return userRepository.save(user);
     }
 
@@ -139,13 +175,23 @@ public class UserController {
 
         // 3. If successful so far (Exists AND Authorized), perform update.
         // Update all fields of the existing user object
+        String previousEmail = existingUser.getEmail();
         existingUser.setName(userDetails.getName());
         existingUser.setAddress(userDetails.getAddress());
         existingUser.setPhoneNumber(userDetails.getPhoneNumber());
         existingUser.setEmail(userDetails.getEmail());
+        // Only replace the stored hash when a new password is supplied
+        if (userDetails.getPassword() != null && !userDetails.getPassword().isEmpty()) {
+            customUserDetailsService.encodePassword(userDetails);
+            existingUser.setPassword(userDetails.getPassword());
+        }
 
         // Save and return the updated entity
         User updatedUser = userRepository.save(existingUser);
+
+        // 4. Invalidate cached credentials under both the old and the new email
+        customUserDetailsService.evictUser(previousEmail);
+        customUserDetailsService.evictUser(updatedUser.getEmail());
         return ResponseEntity.ok(updatedUser);
     }
 
@@ -0,0 +1,13 @@
+package com.eaglebank.api.exception;
+
+/**
+ * Custom runtime exception thrown when every account number of the configured format has been
+ * allocated. A server-side capacity fault, not a client error: the ExceptionControllerAdvice
+ * maps it to a 503 response.
+ */
+public class AccountNumbersExhaustedException extends RuntimeException {
+
+    public AccountNumbersExhaustedException(String message) {
+        super(message);
+    }
+}
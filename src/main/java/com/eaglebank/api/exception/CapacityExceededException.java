@@ -0,0 +1,13 @@
+package com.eaglebank.api.exception;
+
+/**
+ * Custom runtime exception thrown when a bounded server resource (e.g. the password hashing pool)
+ * is saturated or too slow. This exception will be caught by the ExceptionControllerAdvice to
+ * generate a 503 response, so clients back off instead of queueing more work behind it.
+ */
+public class CapacityExceededException extends RuntimeException {
+
+    public CapacityExceededException(String message) {
+        super(message);
+    }
+}
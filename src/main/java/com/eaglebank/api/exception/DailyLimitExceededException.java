@@ -0,0 +1,13 @@
+package com.eaglebank.api.exception;
+
+/**
+ * Custom runtime exception thrown when a withdrawal would take an account past its daily
+ * withdrawal limit.
+ * This exception will be caught by the ExceptionControllerAdvice to generate a 422 response.
+ */
+public class DailyLimitExceededException extends RuntimeException {
+
+    public DailyLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -1,16 +1,22 @@
 package com.eaglebank.api.exception;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.validation.FieldError;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
@@ -25,6 +31,8 @@ import java.util.Map;
 @RestControllerAdvice
 public class ExceptionControllerAdvice {
 
+    private static final Logger logger = LoggerFactory.getLogger(ExceptionControllerAdvice.class);
+
 
     // Helper record for a standard error response structure
     private record ErrorResponse(
@@ -100,6 +108,48 @@ public class ExceptionControllerAdvice {
         return response;
     }
 
+    /**
+     * Handles a query or path parameter that cannot be converted to its type
+     * (e.g. at=yesterday where an ISO-8601 instant is expected).
+     * Format: {"statuscode": 400, "errormessage": "Invalid value for parameter 'at'."}
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public Map<String, Object> handleArgumentTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("statuscode", HttpStatus.BAD_REQUEST.value());
+        response.put("errormessage", "Invalid value for parameter '" + ex.getName() + "'.");
+        return response;
+    }
+
+    /**
+     * Handles a required query parameter that is missing.
+     * Format: {"statuscode": 400, "errormessage": "Missing required parameter 'at'."}
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    public Map<String, Object> handleMissingParameter(MissingServletRequestParameterException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("statuscode", HttpStatus.BAD_REQUEST.value());
+        response.put("errormessage", "Missing required parameter '" + ex.getParameterName() + "'.");
+        return response;
+    }
+
+    /**
+     * Handles failed authentication on the public auth endpoints (bad credentials on login, an
+     * invalid or expired refresh token), mapped to HTTP 401 Unauthorized. Without it the exception
+     * reaches the filter chain, which has no entry point configured and would answer 403.
+     * Format: {"statuscode": 401, "errormessage": "Invalid or expired refresh token"}
+     */
+    @ResponseStatus(HttpStatus.UNAUTHORIZED)
+    @ExceptionHandler(AuthenticationException.class)
+    public Map<String, Object> handleAuthenticationFailure(AuthenticationException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("statuscode", HttpStatus.UNAUTHORIZED.value());
+        response.put("errormessage", ex.getMessage());
+        return response;
+    }
+
     /**
      * Handles AccessDeniedException (thrown for unauthorized access, mapped to HTTP 403 Forbidden).
      * This exception is manually thrown in UserController's authorization checks.
@@ -128,6 +178,86 @@ public class ExceptionControllerAdvice {
         return response;
     }
 
+    /**
+     * Handles a saturated server resource, e.g. the password hashing pool (HTTP 503 Service Unavailable).
+     * Retry-After tells clients to back off instead of immediately retrying.
+     */
+    @ExceptionHandler(CapacityExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleCapacityExceeded(CapacityExceededException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("statuscode", HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.put("errormessage", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
+    /**
+     * Handles an exhausted account number space (HTTP 503 Service Unavailable). It is logged at
+     * ERROR where it is detected; no Retry-After, as only operator action frees capacity.
+     */
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ExceptionHandler(AccountNumbersExhaustedException.class)
+    public Map<String, Object> handleAccountNumbersExhausted(AccountNumbersExhaustedException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("statuscode", HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.put("errormessage", ex.getMessage());
+        return response;
+    }
+
+    /**
+     * Handles an unexpected password hashing failure (HTTP 500 Internal Server Error).
+     * The cause is logged; the client only gets a generic message.
+     */
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+    @ExceptionHandler(PasswordHashingException.class)
+    public Map<String, Object> handlePasswordHashingFailure(PasswordHashingException ex) {
+        logger.error("Password hashing failed", ex);
+        Map<String, Object> response = new HashMap<>();
+        response.put("statuscode", HttpStatus.INTERNAL_SERVER_ERROR.value());
+        response.put("errormessage", "An internal error occurred. Please try again later.");
+        return response;
+    }
+
+    /**
+     * Handles a transaction blocked by a velocity rule (HTTP 429 Too Many Requests).
+     * Retry-After tells the client when the sliding window has room again.
+     */
+    @ExceptionHandler(VelocityLimitExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleVelocityLimitExceeded(VelocityLimitExceededException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("statuscode", HttpStatus.TOO_MANY_REQUESTS.value());
+        response.put("errormessage", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000)))
+                .body(response);
+    }
+
+    /**
+     * Handles a transaction larger than a velocity amount limit on its own (HTTP 422 Unprocessable
+     * Entity): unlike a 429, retrying later cannot help.
+     */
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    @ExceptionHandler(TransactionTooLargeException.class)
+    public Map<String, Object> handleTransactionTooLarge(TransactionTooLargeException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("statuscode", HttpStatus.UNPROCESSABLE_ENTITY.value());
+        response.put("errormessage", ex.getMessage());
+        return response;
+    }
+
+    /**
+     * Handles a withdrawal refused by the daily withdrawal limit (HTTP 422 Unprocessable Entity).
+     */
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    @ExceptionHandler(DailyLimitExceededException.class)
+    public Map<String, Object> handleDailyLimitExceeded(DailyLimitExceededException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("statuscode", HttpStatus.UNPROCESSABLE_ENTITY.value());
+        response.put("errormessage", ex.getMessage());
+        return response;
+    }
+
     @ResponseStatus(HttpStatus.CONFLICT)
     @ExceptionHandler({IllegalStateException.class})
     public Map<String, Object> handleConflict(RuntimeException ex) {
@@ -0,0 +1,12 @@
+package com.eaglebank.api.exception;
+
+/**
+ * Custom runtime exception thrown when hashing or verifying a password fails unexpectedly.
+ * This is a server-side fault: the ExceptionControllerAdvice maps it to a 500 response.
+ */
+public class PasswordHashingException extends RuntimeException {
+
+    public PasswordHashingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
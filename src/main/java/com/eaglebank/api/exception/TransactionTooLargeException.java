@@ -0,0 +1,13 @@
+package com.eaglebank.api.exception;
+
+/**
+ * Custom runtime exception thrown when a single transaction is larger than a velocity amount
+ * limit, so it could never fit in the window however long the client waited.
+ * This exception will be caught by the ExceptionControllerAdvice to generate a 422 response.
+ */
+public class TransactionTooLargeException extends RuntimeException {
+
+    public TransactionTooLargeException(String message) {
+        super(message);
+    }
+}
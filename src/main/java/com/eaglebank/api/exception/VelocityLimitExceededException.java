@@ -0,0 +1,23 @@
+package com.eaglebank.api.exception;
+
+import java.time.Duration;
+
+/**
+ * Custom runtime exception thrown when a transaction would break a velocity rule (too many
+ * transactions, or too much money moved, on one account within a sliding window).
+ * This exception will be caught by the ExceptionControllerAdvice to generate a 429 response,
+ * with Retry-After set to when the window has room again.
+ */
+public class VelocityLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public VelocityLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,67 @@
+package com.eaglebank.api.helper;
+
+import java.time.Instant;
+
+/**
+ * Strong entity tags for the account and transaction history resources.
+ * Tags are built from version markers that are cheap to read (timestamps, counters and IDs),
+ * never by hashing the serialized body, so a conditional GET can be answered with 304
+ * before any entity is loaded or any JSON is written.
+ * - Account: the account's updatedTimestamp, which every patch and balance change bumps.
+ * - Account list: the number of accounts and the latest updatedTimestamp among them; a
+ *   delete changes the count, and every other change sets some account's timestamp to "now".
+ * - Transaction history: the account's ledger sequence and latest transaction ID.
+ */
+public final class ETags {
+
+    private ETags() {}
+
+    public static String ofAccount(Instant updatedTimestamp) {
+        return "a" + timestampPart(updatedTimestamp);
+    }
+
+    public static String ofAccountList(long accountCount, Instant lastUpdated) {
+        return "l" + Long.toHexString(accountCount) + timestampPart(lastUpdated);
+    }
+
+    public static String ofTransactionHistory(long ledgerSequence, String latestTransactionId) {
+        return "h" + Long.toHexString(ledgerSequence) + "-" + (latestTransactionId == null ? "0" : latestTransactionId);
+    }
+
+    /**
+     * Checks an If-None-Match request header against the current tag of a resource.
+     * Handles lists of tags, quoted or weak (W/) tags and "*", using the weak comparison
+     * RFC 9110 prescribes for If-None-Match.
+     * @param ifNoneMatch The header value, or null if the request has none.
+     * @param etag The current tag, without quotes.
+     * @return true if the client's copy is current and a 304 can be sent.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                tag = tag.substring(1, tag.length() - 1);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String timestampPart(Instant instant) {
+        if (instant == null) {
+            return "-0";
+        }
+        return "-" + Long.toHexString(instant.getEpochSecond()) + "." + Integer.toHexString(instant.getNano());
+    }
+}
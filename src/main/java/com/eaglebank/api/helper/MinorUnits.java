@@ -0,0 +1,26 @@
+package com.eaglebank.api.helper;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Converts amounts to and from minor units (pence, cents), the long values the in-memory limits
+ * and rollups count in. Every amount has 2 decimal places, in every currency.
+ * - An amount with more decimal places is rounded up (towards positive infinity), so a limit
+ *   never lets a fraction of a minor unit through, and every counter rounds the same way.
+ */
+public final class MinorUnits {
+
+    private MinorUnits() {}
+
+    /**
+     * @throws ArithmeticException if the amount does not fit in a long of minor units.
+     */
+    public static long of(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.CEILING).longValueExact();
+    }
+
+    public static BigDecimal toAmount(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, 2);
+    }
+}
@@ -0,0 +1,92 @@
+package com.eaglebank.api.helper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical reads into one.
+ * The first caller for a key runs the lookup on its own thread; callers arriving while it is
+ * in flight wait for it and receive the same result (or the same exception) instead of
+ * querying again. Nothing is kept once the lookup completes, so this is not a cache: the next
+ * call after completion runs a fresh lookup.
+ * - Results are shared between callers and must be treated as read-only.
+ * - A caller that arrives just after a write may join a lookup that started just before it,
+ *   which is the same answer it would have got had it arrived a moment earlier.
+ * - Published to Micrometer as singleflight.calls{name, result=executed|coalesced}.
+ * @param <K> The key identifying identical lookups.
+ * @param <V> The result type.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executed = Counter.builder("singleflight.calls")
+                .description("Lookups, by whether they ran or joined an identical one in flight")
+                .tag("name", name)
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("singleflight.calls")
+                .description("Lookups, by whether they ran or joined an identical one in flight")
+                .tag("name", name)
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the lookup for the key, or joins the one already in flight for it.
+     * @param key Identifies the lookup; equal keys must mean identical results.
+     * @param lookup The lookup, run on the calling thread if no identical one is in flight.
+     * @return The lookup's result, possibly shared with concurrent callers.
+     */
+    public V execute(K key, Supplier<V> lookup) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            return join(existing);
+        }
+
+        executed.increment();
+        try {
+            V result = lookup.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Number of lookups currently in flight.
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private static <V> V join(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            // Rethrow what the lookup threw, so waiting callers see the same error as the one that ran it
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
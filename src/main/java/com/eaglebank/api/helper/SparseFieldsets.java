@@ -0,0 +1,144 @@
+package com.eaglebank.api.helper;
+
+import com.eaglebank.api.beans.AccountDetailsResponse;
+import com.eaglebank.api.beans.Transaction;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sparse fieldsets for the list endpoints: a fields=accountNumber,balance query parameter
+ * serializes only the requested properties of each element.
+ * - The serializable properties of each supported type are introspected once, at startup, and
+ *   a requested fieldset is reduced to a bit mask over them.
+ * - One ObjectWriter is built per type and mask on first use and reused afterwards, so a
+ *   request pays for parsing the parameter and a map lookup, not for building serializers.
+ * - Unknown property names are rejected with 400 Bad Request.
+ * The writers come from a copy of the application's ObjectMapper (same modules and settings)
+ * that has a property filter mixed into the supported types; the application's own mapper and
+ * the full responses are unaffected.
+ */
+@Component
+public class SparseFieldsets {
+
+    static final String FILTER_ID = "sparseFieldset";
+
+    @JsonFilter(FILTER_ID)
+    private interface SparseFieldsetMixIn {}
+
+    /**
+     * A validated fieldset and the writer that serializes a list with it.
+     * @param mask One bit per selected property, in introspection order.
+     */
+    public record Selection(long mask, ObjectWriter writer) {
+
+        /**
+         * Serializes a list of the selected type with only the selected properties.
+         */
+        public byte[] write(List<?> values) {
+            try {
+                return writer.writeValueAsBytes(values);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Derives the tag of this representation from the tag of the full one, so each
+         * fieldset of a resource has its own strong ETag.
+         */
+        public String eTag(String fullETag) {
+            return fullETag + "~" + Long.toHexString(mask);
+        }
+    }
+
+    /**
+     * The properties of one type, and the writers built so far for it.
+     */
+    private record Fieldsets(JavaType listType, List<String> properties, Map<Long, ObjectWriter> writers) {}
+
+    private final ObjectMapper sparseMapper;
+    private final Map<Class<?>, Fieldsets> fieldsets = new ConcurrentHashMap<>();
+
+    public SparseFieldsets(ObjectMapper objectMapper) {
+        this.sparseMapper = objectMapper.copy()
+                .addMixIn(AccountDetailsResponse.class, SparseFieldsetMixIn.class)
+                .addMixIn(Transaction.class, SparseFieldsetMixIn.class);
+        register(AccountDetailsResponse.class);
+        register(Transaction.class);
+    }
+
+    private void register(Class<?> type) {
+        JavaType javaType = sparseMapper.constructType(type);
+        List<String> properties = sparseMapper.getSerializationConfig().introspect(javaType).findProperties().stream()
+                .filter(BeanPropertyDefinition::couldSerialize)
+                .map(BeanPropertyDefinition::getName)
+                .toList();
+        fieldsets.put(type, new Fieldsets(sparseMapper.getTypeFactory().constructCollectionType(List.class, type),
+                properties, new ConcurrentHashMap<>()));
+    }
+
+    /**
+     * Resolves a fields query parameter for lists of the given type.
+     * @param type A supported element type (AccountDetailsResponse or Transaction).
+     * @param fields Comma-separated property names, or null.
+     * @return The selection, or null if no fields were requested (the full representation applies).
+     * @throws ResponseStatusException 400 if a requested property does not exist.
+     */
+    public Selection select(Class<?> type, String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Fieldsets fieldset = fieldsets.get(type);
+        if (fieldset == null) {
+            throw new IllegalArgumentException("Sparse fieldsets are not supported for " + type.getSimpleName());
+        }
+
+        long mask = 0;
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            int index = fieldset.properties().indexOf(name);
+            if (index < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Unknown field '" + name + "'. Allowed fields: " + String.join(",", fieldset.properties()));
+            }
+            mask |= 1L << index;
+        }
+        if (mask == 0) {
+            return null;
+        }
+
+        ObjectWriter writer = fieldset.writers().computeIfAbsent(mask, m -> buildWriter(fieldset, m));
+        return new Selection(mask, writer);
+    }
+
+    private ObjectWriter buildWriter(Fieldsets fieldset, long mask) {
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < fieldset.properties().size(); i++) {
+            if ((mask & (1L << i)) != 0) {
+                names.add(fieldset.properties().get(i));
+            }
+        }
+        SimpleFilterProvider filters = new SimpleFilterProvider()
+                .addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(names));
+        return sparseMapper.writerFor(fieldset.listType()).with(filters);
+    }
+}
@@ -0,0 +1,26 @@
+package com.eaglebank.api.repository;
+
+import com.eaglebank.api.beans.AccountNumberSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * JPA Repository for the AccountNumberSequence entity.
+ */
+@Repository
+public interface AccountNumberSequenceRepository extends JpaRepository<AccountNumberSequence, String> {
+
+    /**
+     * Loads the sequence row with a pessimistic write lock (SELECT ... FOR UPDATE),
+     * serializing block reservations across threads and application nodes.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AccountNumberSequence s WHERE s.name = :name")
+    Optional<AccountNumberSequence> findForUpdate(@Param("name") String name);
+}
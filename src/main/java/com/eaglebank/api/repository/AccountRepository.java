@@ -1,13 +1,16 @@
 package com.eaglebank.api.repository;
 
 import com.eaglebank.api.beans.Account;
+import com.eaglebank.api.beans.AccountDetailsResponse;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +26,51 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     // Custom method to find all accounts associated with a specific user ID
     List<Account> findAllByUserId(Long userId);
 
+    /**
+     * Lists a user's accounts as response DTOs, selected straight from the columns.
+     * No Account entities are created or registered in the persistence context, and the
+     * read-only transaction lets Hibernate skip flushing and dirty checking entirely.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.eaglebank.api.beans.AccountDetailsResponse(a.accountNumber, a.sortCode, a.name, a.accountType,"
+            + " a.balance, a.currency, a.createdTimestamp, a.updatedTimestamp) FROM Account a WHERE a.userId = :userId")
+    List<AccountDetailsResponse> findDetailsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Finds one of a user's accounts as a response DTO (see findDetailsByUserId).
+     * Empty both when the account does not exist and when it belongs to another user.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.eaglebank.api.beans.AccountDetailsResponse(a.accountNumber, a.sortCode, a.name, a.accountType,"
+            + " a.balance, a.currency, a.createdTimestamp, a.updatedTimestamp) FROM Account a"
+            + " WHERE a.accountNumber = :accountNumber AND a.userId = :userId")
+    Optional<AccountDetailsResponse> findDetailsByAccountNumberAndUserId(@Param("accountNumber") String accountNumber,
+                                                                         @Param("userId") Long userId);
+
+    /**
+     * Version marker of a user's account list, for the GET /v1/accounts ETag.
+     */
+    interface AccountListVersion {
+        long getAccountCount();
+        Instant getLastUpdated();
+    }
+
+    /**
+     * Reads the version marker of a user's account list with one aggregate query (no rows are hydrated).
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT COUNT(a) AS accountCount, MAX(a.updatedTimestamp) AS lastUpdated FROM Account a WHERE a.userId = :userId")
+    AccountListVersion findListVersionByUserId(@Param("userId") Long userId);
+
+    /**
+     * Reads only the updatedTimestamp (the version marker) of one of a user's accounts, for the ETag check.
+     * Empty both when the account does not exist and when it belongs to another user.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT a.updatedTimestamp FROM Account a WHERE a.accountNumber = :accountNumber AND a.userId = :userId")
+    Optional<Instant> findUpdatedTimestampByAccountNumberAndUserId(@Param("accountNumber") String accountNumber,
+                                                                   @Param("userId") Long userId);
+
     /**
      * Finds a specific account using its unique account number and the owning user's ID.
      * This is critical for security and ownership verification.
@@ -30,15 +78,22 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findByAccountNumberAndUserId(String accountNumber, Long userId);
 
     /**
-     * Updates the balance of an account identified by its primary key (ID).
+     * Adds a (possibly negative) amount to the balance of an account identified by its primary key (ID),
+     * unless that would take the balance below zero.
+     * * The funds check and the update are a single conditional UPDATE, so concurrent transactions
+     * on the same account cannot overwrite each other's balance, and no prior read is needed.
+     * * The updatedTimestamp is bumped with the balance, so the account's ETag changes with it.
      * * The @Modifying annotation is crucial, telling Spring Data JPA that this query
      * will alter the database state (UPDATE, DELETE). It returns the number of
      * rows affected.
      * * @param accountId The ID of the account to update (primary key).
-     * @param newBalance The new balance value.
-     * @return The number of entities updated.
+     * @param delta The amount to add; negative for withdrawals.
+     * @param updatedTimestamp The new updatedTimestamp of the account.
+     * @return 1 if the balance was updated, 0 if the account does not exist or has insufficient funds.
      */
     @Modifying
-    @Query("UPDATE Account a SET a.balance = :newBalance WHERE a.id = :accountId")
-    int updateBalance(@Param("accountId") Long accountId, @Param("newBalance") BigDecimal newBalance);
+    @Query("UPDATE Account a SET a.balance = a.balance + :delta, a.updatedTimestamp = :updatedTimestamp"
+            + " WHERE a.id = :accountId AND a.balance + :delta >= 0")
+    int adjustBalance(@Param("accountId") Long accountId, @Param("delta") BigDecimal delta,
+                      @Param("updatedTimestamp") Instant updatedTimestamp);
 }
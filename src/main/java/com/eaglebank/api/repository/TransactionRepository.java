@@ -2,14 +2,22 @@ package com.eaglebank.api.repository;
 
 
 import com.eaglebank.api.beans.Transaction;
+import com.eaglebank.api.beans.TransactionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
 
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Dedicated, in-memory mock implementation for the TransactionRepository interface.
@@ -17,9 +25,143 @@ import java.util.stream.Collectors;
  */
 @Repository
 public class TransactionRepository  {
-    private final List<Transaction> transactions = new ArrayList<>();
 
+    private static final Logger logger = LoggerFactory.getLogger(TransactionRepository.class);
+
+    // How long a publish waits for an earlier slot of the same account before skipping it
+    static final Duration SLOT_WAIT = Duration.ofSeconds(10);
+
+    /**
+     * Version marker of one account's ledger: bumped on every save for the account, so it
+     * changes exactly when that account's transaction history does.
+     * @param sequence Number of saves for the account (0 if it has no transactions).
+     * @param latestTransactionId ID of the most recently saved transaction, or null.
+     */
+    public record LedgerVersion(long sequence, String latestTransactionId) {
+        static final LedgerVersion EMPTY = new LedgerVersion(0, null);
+    }
+
+    /**
+     * The transactions of one account that follow a client's watermark.
+     * @param transactions The newer transactions, in sequence order (oldest first).
+     * @param watermark The sequence of the last transaction the client now has; pass it back as
+     *                  the next "since".
+     */
+    public record LedgerDelta(List<Transaction> transactions, long watermark) {}
+
+    /**
+     * One account's transactions in sequence order (the transaction with sequence n is at
+     * position n - 1), with the time each one took effect. Sequence order is the order in which
+     * balances were applied, so running balances follow it. Effective times never decrease:
+     * a row whose timestamp is earlier than its predecessor's (it waited for the account while
+     * another transaction committed) takes effect at the predecessor's time, which keeps the
+     * times sorted for binary search.
+     */
+    private static final class Ledger {
+        private final List<Transaction> rows = new ArrayList<>();
+        private final List<Instant> effectiveTimes = new ArrayList<>();
+        // Slots handed out by claimSlot, and slots published or dropped so far (all below "resolved")
+        private long claimed;
+        private long resolved;
+    }
+
+    // Every transaction by ID
+    private final Map<String, Transaction> transactions = new ConcurrentHashMap<>();
+    private final Map<Long, LedgerVersion> ledgerVersions = new ConcurrentHashMap<>();
+    // Per-account index in sequence order
+    private final Map<Long, Ledger> accountLedgers = new ConcurrentHashMap<>();
+    // Inverted index over references; guarded by its own lock
+    private final TransactionSearchIndex searchIndex = new TransactionSearchIndex();
+
+    /**
+     * Saves a transaction straight away, in the account's next ledger slot (see publish).
+     * A re-saved transaction keeps its sequence and running balance.
+     */
     public Transaction save(Transaction transaction) {
+        return publish(claimSlot(transaction.getAccountId()), transaction);
+    }
+
+    /**
+     * Claims the account's next ledger slot for a transaction whose balance update has just been
+     * applied. Called while that update still holds the account's row lock, so slots follow the
+     * order in which balances were applied. Every slot must then be resolved exactly once, with
+     * publish if the update commits or drop if it does not.
+     * @param accountId The internal ID of the account.
+     * @return The slot, to pass to publish or drop.
+     */
+    public long claimSlot(Long accountId) {
+        Ledger ledger = accountLedgers.computeIfAbsent(accountId, id -> new Ledger());
+        synchronized (ledger) {
+            return ledger.claimed++;
+        }
+    }
+
+    /**
+     * Publishes a committed transaction in its slot, once every earlier slot of the account has
+     * been resolved: it gets its ID, sequence and running balance, and becomes visible to
+     * history, delta sync, balance-at and search reads all at once. A published row never
+     * changes. Earlier slots belong to transactions that already committed or rolled back (they
+     * held the account's row lock first), so the wait only covers their completion callbacks.
+     * @param slot The slot returned by claimSlot.
+     * @return The published transaction.
+     */
+    public Transaction publish(long slot, Transaction transaction) {
+        Ledger ledger = accountLedgers.computeIfAbsent(transaction.getAccountId(), id -> new Ledger());
+        awaitTurn(ledger, slot, transaction.getAccountId());
+        try {
+            return store(transaction);
+        } finally {
+            advance(ledger, slot);
+        }
+    }
+
+    /**
+     * Gives up a slot whose transaction did not commit: nothing is published for it, and later
+     * slots of the account move on without it.
+     * @param slot The slot returned by claimSlot.
+     */
+    public void drop(Long accountId, long slot) {
+        Ledger ledger = accountLedgers.computeIfAbsent(accountId, id -> new Ledger());
+        awaitTurn(ledger, slot, accountId);
+        advance(ledger, slot);
+    }
+
+    // Waits until every slot before this one is resolved; a slot left unresolved for longer than
+    // SLOT_WAIT (a caller that never resolved it) is skipped so the ledger cannot stall
+    private static void awaitTurn(Ledger ledger, long slot, Long accountId) {
+        boolean interrupted = false;
+        synchronized (ledger) {
+            long deadline = System.nanoTime() + SLOT_WAIT.toNanos();
+            while (ledger.resolved < slot) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    logger.error("Ledger slots {} to {} of account {} were never resolved; publishing without them.",
+                            ledger.resolved, slot - 1, accountId);
+                    ledger.resolved = slot;
+                    break;
+                }
+                try {
+                    ledger.wait(Math.max(1, remaining / 1_000_000));
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void advance(Ledger ledger, long slot) {
+        synchronized (ledger) {
+            ledger.resolved = Math.max(ledger.resolved, slot + 1);
+            ledger.notifyAll();
+        }
+    }
+
+    // Runs for one slot of an account at a time (see publish), so only the search index, shared
+    // by all accounts, needs a lock of its own
+    private Transaction store(Transaction transaction) {
         // Assign a unique String ID starting with 'tan-' if new or empty
         if (transaction.getId() == null || transaction.getId().isEmpty()) {
             // Generate a unique ID: "tan-" + UUID (with hyphens removed)
@@ -27,42 +169,161 @@ public class TransactionRepository  {
             transaction.setId(uniqueId);
         }
 
-        // In a real app, we'd check if the ID exists for an update.
-        // For this simple in-memory implementation, we remove the existing entry
-        // with the same ID and add the new one (effectively an upsert).
-        this.transactions.removeIf(t -> t.getId().equals(transaction.getId()));
-        this.transactions.add(transaction);
+        // An upsert: a re-save replaces the entry with the same ID. Added before the ledger row,
+        // so an ID read from the account's history can always be looked up
+        this.transactions.put(transaction.getId(), transaction);
+        Transaction replaced = index(transaction);
+        searchIndex.add(transaction, replaced);
+        // Published after the row, so a reader never sees a version ahead of the history
+        ledgerVersions.merge(transaction.getAccountId(), new LedgerVersion(1, transaction.getId()),
+                (previous, first) -> new LedgerVersion(previous.sequence() + 1, transaction.getId()));
 
         return transaction;
     }
 
     /**
-     * Finds all transactions for a specific internal account ID.
+     * Adds a transaction to its account's ledger index, giving a new transaction the next
+     * sequence number of the account and its running balance: the previous row's balanceAfter
+     * plus its own signed amount (accounts open at zero and only change through transactions).
+     * A re-saved transaction keeps its sequence, position and running balance.
+     * @return The version a re-saved transaction replaces, or null for a new transaction.
+     */
+    private Transaction index(Transaction transaction) {
+        Ledger ledger = accountLedgers.computeIfAbsent(transaction.getAccountId(), id -> new Ledger());
+        synchronized (ledger) {
+            if (transaction.getSequence() == null) {
+                int size = ledger.rows.size();
+                Transaction last = size == 0 ? null : ledger.rows.get(size - 1);
+                BigDecimal balanceBefore = last == null ? BigDecimal.ZERO : last.getBalanceAfter();
+                transaction.setBalanceAfter(balanceBefore.add(signedAmount(transaction)));
+                Instant effectiveTime = transaction.getCreatedTimestamp();
+                if (last != null && effectiveTime.isBefore(ledger.effectiveTimes.get(size - 1))) {
+                    effectiveTime = ledger.effectiveTimes.get(size - 1);
+                }
+                ledger.rows.add(transaction);
+                ledger.effectiveTimes.add(effectiveTime);
+                transaction.setSequence((long) ledger.rows.size());
+                return null;
+            } else {
+                int position = (int) (transaction.getSequence() - 1);
+                Transaction replaced = ledger.rows.set(position, transaction);
+                if (transaction.getBalanceAfter() == null) {
+                    transaction.setBalanceAfter(replaced.getBalanceAfter());
+                }
+                return replaced;
+            }
+        }
+    }
+
+    private static BigDecimal signedAmount(Transaction transaction) {
+        return transaction.getType() == TransactionType.withdrawal
+                ? transaction.getAmount().negate()
+                : transaction.getAmount();
+    }
+
+    /**
+     * Returns the transactions of an account with a sequence greater than the given one,
+     * straight from the account's ledger index: the cost is proportional to the number of
+     * rows returned, not to the size of the ledger.
      * @param accountId The internal ID of the account.
-     * @return A list of transactions, sorted by date descending.
+     * @param since The client's watermark (0 for everything).
      */
+    public LedgerDelta findByAccountIdSince(Long accountId, long since) {
+        Ledger ledger = accountLedgers.get(accountId);
+        if (ledger == null) {
+            return new LedgerDelta(List.of(), 0);
+        }
+        synchronized (ledger) {
+            int size = ledger.rows.size();
+            int from = (int) Math.min(Math.max(since, 0), size);
+            return new LedgerDelta(List.copyOf(ledger.rows.subList(from, size)), size);
+        }
+    }
 
-    public List<Transaction> findByAccountId(Long accountId) {
-        List<Transaction> result = this.transactions.stream()
-                .filter(t -> t.getAccountId().equals(accountId))
-                .sorted((t1, t2) -> t2.getCreatedTimestamp().compareTo(t1.getCreatedTimestamp())) // Sort descending by date
-                .collect(Collectors.toList());
+    /**
+     * Finds the last transaction of an account that had taken effect at the given instant
+     * (inclusive); its balanceAfter is the account's balance at that instant. A binary search
+     * over the account's ledger: O(log n) in the number of its transactions.
+     * @param accountId The internal ID of the account.
+     * @param at The point in time.
+     * @return The transaction, or null if the account had no transactions yet (balance zero).
+     */
+    public Transaction findLastByAccountIdAt(Long accountId, Instant at) {
+        Ledger ledger = accountLedgers.get(accountId);
+        if (ledger == null) {
+            return null;
+        }
+        synchronized (ledger) {
+            // The number of rows whose effective time is at or before "at"
+            int low = 0;
+            int high = ledger.effectiveTimes.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ledger.effectiveTimes.get(mid).isAfter(at)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low == 0 ? null : ledger.rows.get(low - 1);
+        }
+    }
 
-        return Collections.unmodifiableList(result);
+    /**
+     * Finds transactions whose reference contains every word of the query (case-insensitive),
+     * newest first, using the inverted index: the cost follows the rarest word of the query,
+     * not the number of transactions.
+     * @param query Free text, e.g. "invoice 4412".
+     * @param accountId Only this account's transactions, or null for all accounts.
+     * @param from Created at or after this instant, or null.
+     * @param to Created before this instant, or null.
+     * @param limit The maximum number of transactions returned.
+     */
+    public List<Transaction> searchByReference(String query, Long accountId, Instant from, Instant to, int limit) {
+        return searchIndex.search(query, accountId, from, to, limit);
     }
 
-    public Transaction findByIdAndAccountId(String transactionId,Long accountId) {
-        Transaction transaction = this.transactions.stream().filter(t-> t.getId().equals(transactionId)).findFirst().orElse(null);
+    /**
+     * Returns the current version marker of an account's ledger, without scanning any rows.
+     * @param accountId The internal ID of the account.
+     */
+    public LedgerVersion findVersionByAccountId(Long accountId) {
+        return ledgerVersions.getOrDefault(accountId, LedgerVersion.EMPTY);
+    }
 
-        if (transaction != null && transaction.getAccountId().equals(accountId)) {
-            return transaction;
-        }
-        return null;
+    /**
+     * Finds all transactions for a specific internal account ID, from the account's ledger
+     * index (under its lock, so concurrent saves are never seen half-applied).
+     * @param accountId The internal ID of the account.
+     * @return A list of transactions, sorted by date descending.
+     */
+    public List<Transaction> findByAccountId(Long accountId) {
+        List<Transaction> result = findAllByAccountId(accountId);
+        // Ledger order is nearly date order already, so this sort is close to linear
+        result.sort(Comparator.comparing(Transaction::getCreatedTimestamp).reversed());
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Finds a transaction by ID, if it belongs to the given account.
+     * @return The transaction, or null if the account has no transaction with that ID.
+     */
+    public Transaction findByIdAndAccountId(String transactionId, Long accountId) {
+        Transaction transaction = transactions.get(transactionId);
+        return transaction != null && transaction.getAccountId().equals(accountId) ? transaction : null;
     }
 
+    /**
+     * Finds all transactions of an account in ledger (sequence) order.
+     * @return A new, modifiable list.
+     */
     public List<Transaction> findAllByAccountId(Long accountId) {
-        return transactions.stream()
-                .filter(t -> t.getAccountId().equals(accountId))
-                .collect(Collectors.toList());
+        Ledger ledger = accountLedgers.get(accountId);
+        if (ledger == null) {
+            return new ArrayList<>();
+        }
+        synchronized (ledger) {
+            return new ArrayList<>(ledger.rows);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,333 @@
+package com.eaglebank.api.repository;
+
+import com.eaglebank.api.beans.Transaction;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over Transaction.reference, maintained by TransactionRepository.save.
+ * - Every saved transaction gets the next document number; references are split into lowercase
+ *   letter/digit terms, and each term keeps a postings list of the documents containing it.
+ *   Each account has a postings list of its documents too, so an account filter is one more
+ *   list to intersect.
+ * - Postings are append-only, delta-encoded varints (typically 1-2 bytes per entry), split into
+ *   blocks of SKIP_INTERVAL postings. A skip entry per block (its preceding document and byte
+ *   offset) makes every block decodable on its own. It also bounds the creation times: the
+ *   oldest document of the block, and the newest of the block and every block before it.
+ * - A query walks the shortest of its lists (the rarest term, or the account) backwards block
+ *   by block, and looks each document up in the other lists (binary search over the skip
+ *   entries, then within one decoded block). Results come out newest first, so the walk stops
+ *   as soon as the limit is reached; its cost never depends on the number of transactions.
+ * - A time filter is applied to whole blocks first: blocks whose documents are all created at
+ *   or after "to" are skipped without decoding, and the walk stops at the first block before
+ *   which nothing was created at or after "from". The bounds are kept per block rather than
+ *   assumed from the save order, since a re-saved transaction keeps its creation time.
+ * - A re-saved transaction is indexed again under a new document number and its old one is
+ *   cleared, so postings never have to be rewritten.
+ * Thread-safe: add, search and the statistics are synchronized on the index, so saves of
+ * different accounts only meet here.
+ */
+class TransactionSearchIndex {
+
+    static final int SKIP_INTERVAL = 128;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Ascending document numbers, compressed.
+     */
+    static final class Postings {
+
+        private byte[] data = new byte[8];
+        private int length;
+        private int count;
+        private int lastDocId = -1;
+        // Block k starts at posting k * SKIP_INTERVAL: the document before it, and its byte offset
+        private int[] skipDocIds = new int[1];
+        private int[] skipOffsets = new int[1];
+        // Creation times in epoch millis: the oldest in the block, and the newest up to and including it
+        private long[] skipOldest = new long[1];
+        private long[] skipNewestSoFar = new long[1];
+        private int skips;
+
+        void add(int docId, long createdMillis) {
+            if (count % SKIP_INTERVAL == 0) {
+                if (skips == skipDocIds.length) {
+                    skipDocIds = Arrays.copyOf(skipDocIds, skips * 2);
+                    skipOffsets = Arrays.copyOf(skipOffsets, skips * 2);
+                    skipOldest = Arrays.copyOf(skipOldest, skips * 2);
+                    skipNewestSoFar = Arrays.copyOf(skipNewestSoFar, skips * 2);
+                }
+                skipDocIds[skips] = lastDocId;
+                skipOffsets[skips] = length;
+                skipOldest[skips] = createdMillis;
+                skipNewestSoFar[skips] = skips == 0 ? createdMillis : skipNewestSoFar[skips - 1];
+                skips++;
+            }
+            int block = skips - 1;
+            skipOldest[block] = Math.min(skipOldest[block], createdMillis);
+            skipNewestSoFar[block] = Math.max(skipNewestSoFar[block], createdMillis);
+            int delta = docId - lastDocId;
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+            }
+            while ((delta & ~0x7F) != 0) {
+                data[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+            lastDocId = docId;
+            count++;
+        }
+
+        int size() {
+            return count;
+        }
+
+        int blocks() {
+            return skips;
+        }
+
+        int sizeInBytes() {
+            return length + skips * (2 * Integer.BYTES + 2 * Long.BYTES);
+        }
+
+        /**
+         * The creation time (epoch millis) of the oldest document in a block.
+         */
+        long oldestIn(int block) {
+            return skipOldest[block];
+        }
+
+        /**
+         * The creation time (epoch millis) of the newest document in a block or any block before it.
+         */
+        long newestUpTo(int block) {
+            return skipNewestSoFar[block];
+        }
+
+        /**
+         * The block that would hold a document: the last one whose preceding document is before it.
+         */
+        int blockOf(int docId) {
+            int low = 0;
+            int high = skips - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (skipDocIds[mid] < docId) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Decodes one block into the buffer (at least SKIP_INTERVAL long).
+         * @return The number of postings in the block.
+         */
+        int decodeBlock(int block, int[] buffer) {
+            int offset = skipOffsets[block];
+            int docId = skipDocIds[block];
+            int size = Math.min(SKIP_INTERVAL, count - block * SKIP_INTERVAL);
+            for (int i = 0; i < size; i++) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[offset++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                docId += delta;
+                buffer[i] = docId;
+            }
+            return size;
+        }
+
+        boolean contains(int docId, Lookup lookup) {
+            if (count == 0 || docId > lastDocId) {
+                return false;
+            }
+            int block = blockOf(docId);
+            if (block != lookup.block) {
+                lookup.size = decodeBlock(block, lookup.buffer);
+                lookup.block = block;
+            }
+            return Arrays.binarySearch(lookup.buffer, 0, lookup.size, docId) >= 0;
+        }
+    }
+
+    /**
+     * The last decoded block of a postings list, reused while lookups stay within it.
+     */
+    static final class Lookup {
+
+        private final int[] buffer = new int[SKIP_INTERVAL];
+        private int block = -1;
+        private int size;
+    }
+
+    private final List<Transaction> documents = new ArrayList<>();
+    private final Map<String, Postings> terms = new HashMap<>();
+    private final Map<Long, Postings> accounts = new HashMap<>();
+
+    /**
+     * Splits a reference into its distinct lowercase letter/digit terms, in order.
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text != null) {
+            for (String token : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Indexes a saved transaction.
+     * @param previous The version of the transaction it replaces, if it is a re-save.
+     */
+    synchronized void add(Transaction transaction, Transaction previous) {
+        if (previous != null) {
+            remove(previous);
+        }
+        int docId = documents.size();
+        long createdMillis = transaction.getCreatedTimestamp().toEpochMilli();
+        documents.add(transaction);
+        accounts.computeIfAbsent(transaction.getAccountId(), id -> new Postings()).add(docId, createdMillis);
+        for (String term : tokenize(transaction.getReference())) {
+            terms.computeIfAbsent(term, t -> new Postings()).add(docId, createdMillis);
+        }
+    }
+
+    // Only on re-saves: finds the old document through the account's postings
+    private void remove(Transaction previous) {
+        Postings account = accounts.get(previous.getAccountId());
+        if (account == null) {
+            return;
+        }
+        int[] buffer = new int[SKIP_INTERVAL];
+        for (int block = account.blocks() - 1; block >= 0; block--) {
+            int size = account.decodeBlock(block, buffer);
+            for (int i = size - 1; i >= 0; i--) {
+                if (documents.get(buffer[i]) == previous) {
+                    documents.set(buffer[i], null);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the transactions whose reference contains every term of the query, newest first.
+     * @param accountId Only this account's transactions, or null for all accounts.
+     * @param from Created at or after this instant, or null.
+     * @param to Created before this instant, or null.
+     * @param limit The maximum number of transactions returned.
+     */
+    synchronized List<Transaction> search(String query, Long accountId, Instant from, Instant to, int limit) {
+        List<Postings> lists = new ArrayList<>();
+        for (String term : tokenize(query)) {
+            Postings postings = terms.get(term);
+            if (postings == null) {
+                return List.of();
+            }
+            lists.add(postings);
+        }
+        if (lists.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        if (accountId != null) {
+            Postings account = accounts.get(accountId);
+            if (account == null) {
+                return List.of();
+            }
+            lists.add(account);
+        }
+        lists.sort(Comparator.comparingInt(Postings::size));
+        Postings shortest = lists.get(0);
+        Lookup[] lookups = new Lookup[lists.size()];
+        for (int i = 1; i < lookups.length; i++) {
+            lookups[i] = new Lookup();
+        }
+
+        // Documents are numbered in save order, so walking the shortest list's blocks from the
+        // last one yields the newest matches first and can stop at the limit
+        List<Transaction> result = new ArrayList<>(Math.min(limit, shortest.size()));
+        int[] buffer = new int[SKIP_INTERVAL];
+        // Bounds in whole millis, rounded so that a block is only left out if none of it can match
+        long fromMillis = from == null ? Long.MIN_VALUE : from.toEpochMilli();
+        long toMillis = to == null ? Long.MAX_VALUE : to.toEpochMilli() + (to.getNano() % 1_000_000 == 0 ? 0 : 1);
+        for (int block = shortest.blocks() - 1; block >= 0; block--) {
+            if (shortest.newestUpTo(block) < fromMillis) {
+                // Nothing in this block or any earlier one was created at or after "from"
+                break;
+            }
+            if (shortest.oldestIn(block) >= toMillis) {
+                continue;
+            }
+            int size = shortest.decodeBlock(block, buffer);
+            for (int i = size - 1; i >= 0; i--) {
+                int docId = buffer[i];
+                if (!containedInAll(docId, lists, lookups)) {
+                    continue;
+                }
+                Transaction transaction = documents.get(docId);
+                if (transaction != null && withinTime(transaction.getCreatedTimestamp(), from, to)) {
+                    result.add(transaction);
+                    if (result.size() == limit) {
+                        return result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean containedInAll(int docId, List<Postings> lists, Lookup[] lookups) {
+        for (int i = 1; i < lookups.length; i++) {
+            if (!lists.get(i).contains(docId, lookups[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Memory taken by the postings lists, in bytes (excluding map overhead).
+     */
+    synchronized long postingsBytes() {
+        long bytes = 0;
+        for (Postings postings : terms.values()) {
+            bytes += postings.sizeInBytes();
+        }
+        for (Postings postings : accounts.values()) {
+            bytes += postings.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    synchronized int termCount() {
+        return terms.size();
+    }
+
+    private static boolean withinTime(Instant createdTimestamp, Instant from, Instant to) {
+        return (from == null || !createdTimestamp.isBefore(from))
+                && (to == null || createdTimestamp.isBefore(to));
+    }
+}
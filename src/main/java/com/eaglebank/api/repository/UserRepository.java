@@ -1,10 +1,19 @@
 package com.eaglebank.api.repository;
 
 import com.eaglebank.api.beans.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Spring Data JPA Repository for the User entity.
@@ -13,6 +22,10 @@ import java.util.Optional;
  */
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    // Rows fetched per JDBC round trip when streaming users
+    String STREAM_FETCH_SIZE = "500";
+
     /**
      * Finds a User entity by its username. This is crucial for Spring Security's
      * UserDetailsService implementation.
@@ -21,6 +34,43 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findByEmail(String email);
 
+    /**
+     * Loads a User for display only (GET /v1/users/{id}).
+     * The read-only hint stops Hibernate from keeping a dirty-checking snapshot of the entity,
+     * and the read-only transaction skips the flush; the returned entity must not be modified.
+     * @param id The ID of the user.
+     * @return An Optional containing the User if found.
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findReadOnlyById(@Param("id") Long id);
+
+    /**
+     * Keyset pagination: the next page of users after the given ID, in ID order.
+     * Seeks on the primary key index, so every page costs the same however deep the client is,
+     * unlike an OFFSET that scans and discards all earlier rows.
+     * @param afterId The last ID of the previous page (0 for the first page).
+     * @param limit The maximum number of users to return.
+     * @return Up to limit users with an ID greater than afterId.
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<User> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Streams every user in ID order over a JDBC cursor, STREAM_FETCH_SIZE rows at a time,
+     * instead of materializing the whole table.
+     * Must be consumed inside a transaction and closed afterwards (try-with-resources).
+     * The entities are read-only; callers should detach each one once written.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAll();
+
     /**
      * Deletes a User entity by its email.
      * @param email The email of the user to delete.
@@ -0,0 +1,102 @@
+package com.eaglebank.api.security;
+
+import com.eaglebank.api.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated principal carrying the internal user ID alongside the email and roles.
+ * Built from the verified JWT claims, so handlers can resolve the caller's ID
+ * without a round-trip to the user table.
+ */
+public class AuthenticatedUser implements UserDetails {
+
+    private final Long userId;
+    private final String username;
+    private final String password;
+    private final Collection<? extends GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long userId, String username, String password, Collection<? extends GrantedAuthority> authorities) {
+        this.userId = userId;
+        this.username = username;
+        this.password = password;
+        this.authorities = authorities != null ? List.copyOf(authorities) : List.of();
+    }
+
+    /**
+     * Creates a credential-less principal, as used for requests authenticated by JWT.
+     */
+    public AuthenticatedUser(Long userId, String username, Collection<? extends GrantedAuthority> authorities) {
+        this(userId, username, null, authorities);
+    }
+
+    /**
+     * Static factory method to build the principal from verified token claims.
+     * @param claims Claims returned by JwtTokenProvider.parseClaims.
+     * @return The principal exposing the user ID, email and roles.
+     */
+    public static AuthenticatedUser fromClaims(Claims claims) {
+        Number userId = claims.get(JwtTokenProvider.CLAIM_USER_ID, Number.class);
+        List<?> roles = claims.get(JwtTokenProvider.CLAIM_ROLES, List.class);
+        List<GrantedAuthority> authorities = roles == null ? List.of() : roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(role)))
+                .toList();
+        return new AuthenticatedUser(userId != null ? userId.longValue() : null, claims.getSubject(), authorities);
+    }
+
+    /**
+     * Helper method to read the internal user ID from an Authentication object.
+     * @param authentication The Spring Security Authentication object.
+     * @return The user ID, or null if the principal does not carry one (e.g. a token issued
+     *         before the user existed in the database, or a test principal).
+     */
+    public static Long userIdOf(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getUserId();
+        }
+        return null;
+    }
+
+    /**
+     * Helper method to get the ID of the authenticated user.
+     * The ID is normally carried by the JWT principal, so no DB query is needed; the
+     * repository lookup is only a fallback for principals without an embedded ID.
+     * @param authentication The Spring Security Authentication object.
+     * @param userRepository Used to find the user by email (the principal name) in the fallback.
+     * @return The ID of the authenticated user.
+     * @throws UsernameNotFoundException if the authenticated principal is not found in the UserRepository.
+     */
+    public static Long requireUserId(Authentication authentication, UserRepository userRepository) {
+        Long userId = userIdOf(authentication);
+        if (userId != null) {
+            return userId;
+        }
+        String loggedInEmail = authentication.getName();
+        return userRepository.findByEmail(loggedInEmail)
+                .orElseThrow(() -> new UsernameNotFoundException("Authenticated user not found in DB: " + loggedInEmail))
+                .getId();
+    }
+
+    public Long getUserId() { return userId; }
+
+    @Override
+    public String getUsername() { return username; }
+
+    @Override
+    public String getPassword() { return password; }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() { return authorities; }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{userId=" + userId + ", username='" + username + "', authorities=" + authorities + '}';
+    }
+}
@@ -1,29 +1,52 @@
 package com.eaglebank.api.security;
 
+import com.eaglebank.api.security.VerifiedTokenCache.VerifiedToken;
 import com.eaglebank.api.service.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
 
 /**
  * Custom filter that executes once per request to validate the JWT
  * provided in the Authorization header.
+ * Public routes (SecurityConfig.PUBLIC_ROUTES) bypass the filter entirely, so a token sent
+ * to the login or registration endpoints is never parsed.
+ * The principal (user ID, email, roles) comes from the verified claims. One user lookup remains
+ * per request, to refuse tokens of users deleted since the token was issued: a revocation only
+ * covers one token ID, not every token of a user. The lookup goes through the principal cache
+ * of CustomUserDetailsService, so it reaches the user table once per user per cache TTL
+ * (app.user-cache.ttl), and again only after the user is updated or deleted.
  */
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    // Failures are triggered by client input (junk tokens, deleted users), so log them rate-limited
+    private static final RateLimitedLogger failureLog = new RateLimitedLogger(log, 10, Duration.ofMinutes(1));
+
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
@@ -40,6 +63,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         return null;
     }
 
+    /**
+     * Returns the verified token from the cache, verifying (and caching) it on a miss.
+     * The signature is only checked the first time a token is seen within its lifetime.
+     */
+    private VerifiedToken resolveVerifiedToken(String jwt) {
+        VerifiedToken cached = verifiedTokenCache.getIfPresent(jwt);
+        if (cached != null) {
+            return cached;
+        }
+        // Parse and verify the token once; the claims carry everything needed below
+        Optional<Claims> claims = tokenProvider.parseClaims(jwt);
+        return claims.map(c -> verifiedTokenCache.put(jwt, c)).orElse(null);
+    }
+
+    /**
+     * Skips token processing on public routes; the matchers are compiled once at startup.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return SecurityConfig.PUBLIC_ROUTES.matches(request);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
             HttpServletResponse response,
@@ -48,24 +93,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                // Get username from token
-                String username = tokenProvider.getUsernameFromJwt(jwt);
+            VerifiedToken verified = StringUtils.hasText(jwt) ? resolveVerifiedToken(jwt) : null;
+
+            // Revoked tokens (logout, compromised device) are treated as unauthenticated;
+            // non-revoked tokens are cleared by a Bloom filter probe
+            if (verified != null && tokenRevocationList.isRevoked(verified.tokenId())) {
+                log.debug("Rejected revoked token {}", verified.tokenId());
+                verified = null;
+            }
+
+            if (verified != null) {
+                // The principal (user ID, email, roles) comes straight from the verified claims
+                AuthenticatedUser principal = verified.principal();
 
-                // Load user data
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+                // Reject tokens of users deleted since issue (throws UsernameNotFoundException);
+                // a principal cache hit in steady state, see the class comment
+                customUserDetailsService.loadUserByUsername(principal.getUsername());
 
                 // Create authentication token
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        principal, null, principal.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 // Set authentication in the security context
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         } catch (Exception ex) {
-            // Log authentication errors
-            logger.error("Could not set user authentication in security context", ex);
+            // Log authentication errors (message only; the stack trace is available at DEBUG)
+            failureLog.warn("Could not set user authentication in security context: {}", ex.toString());
+            log.debug("Authentication failure details", ex);
         }
 
         filterChain.doFilter(request, response);
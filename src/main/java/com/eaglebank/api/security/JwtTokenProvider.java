@@ -3,32 +3,65 @@ package com.eaglebank.api.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.time.Duration;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Utility class for JWT token generation, validation, and claim extraction.
+ * The HMAC signing key and the JWT parser are built once at startup and reused,
+ * since both are immutable and thread-safe.
  */
 @Component
 public class JwtTokenProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
+    // Invalid tokens are client input, so a flood of them must not flood the log
+    private static final RateLimitedLogger invalidTokenLog = new RateLimitedLogger(logger, 10, Duration.ofMinutes(1));
+
+    // Custom claims carrying the internal user ID and granted roles
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+
     @Value("${app.jwt-secret}")
     private String jwtSecret;
 
     @Value("${app.jwt-expiration-ms}")
     private long jwtExpirationMs;
 
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    /**
+     * Decodes the configured secret and builds the signing key and parser once.
+     */
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
     /**
      * Generates a JWT token for an authenticated user.
+     * The internal user ID (when known) and the granted roles are embedded as claims,
+     * so requests carrying the token can be authorized without loading the user.
+     * Each token gets a unique ID ("jti"), used to revoke it before it expires.
      * @param authentication The Spring Security Authentication object.
      * @return The signed JWT string.
      */
@@ -37,16 +70,45 @@ public class JwtTokenProvider {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
 
-        return Jwts.builder()
+        List<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+
+        JwtBuilder builder = Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(userPrincipal.getUsername()) // Subject is the user's username
+                .claim(CLAIM_ROLES, roles)
                 .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(key(), SignatureAlgorithm.HS512)
-                .compact();
+                .expiration(expiryDate);
+
+        if (userPrincipal instanceof AuthenticatedUser authenticatedUser && authenticatedUser.getUserId() != null) {
+            builder.claim(CLAIM_USER_ID, authenticatedUser.getUserId());
+        }
+
+        return builder.signWith(signingKey, Jwts.SIG.HS512).compact();
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    /**
+     * Parses the JWT token and verifies its signature and expiration in a single pass.
+     * Callers should use the returned claims instead of parsing the token again.
+     * @param token The JWT token string.
+     * @return The verified claims, or empty if the token is invalid or expired.
+     */
+    public Optional<Claims> parseClaims(String token) {
+        try {
+            return Optional.of(jwtParser.parseSignedClaims(token).getPayload());
+        } catch (MalformedJwtException e) {
+            invalidTokenLog.warn("Invalid JWT token: {}", e.getMessage());
+        } catch (ExpiredJwtException e) {
+            invalidTokenLog.warn("JWT token is expired: {}", e.getMessage());
+        } catch (UnsupportedJwtException e) {
+            invalidTokenLog.warn("JWT token is unsupported: {}", e.getMessage());
+        } catch (SignatureException e) {
+            invalidTokenLog.warn("Invalid JWT signature: {}", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            invalidTokenLog.warn("JWT claims string is empty: {}", e.getMessage());
+        }
+        return Optional.empty();
     }
 
     /**
@@ -55,11 +117,8 @@ public class JwtTokenProvider {
      * @return The username (subject) from the token claims.
      */
     public String getUsernameFromJwt(String token) {
-        return Jwts.parser()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
+        return jwtParser.parseSignedClaims(token)
+                .getPayload()
                 .getSubject();
     }
 
@@ -69,18 +128,6 @@ public class JwtTokenProvider {
      * @return true if the token is valid, false otherwise.
      */
     public boolean validateToken(String authToken) {
-        try {
-            Jwts.parser().setSigningKey(key()).build().parse(authToken);
-            return true;
-        } catch (MalformedJwtException e) {
-            logger.error("Invalid JWT token: {}", e.getMessage());
-        } catch (ExpiredJwtException e) {
-            logger.error("JWT token is expired: {}", e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            logger.error("JWT token is unsupported: {}", e.getMessage());
-        } catch (IllegalArgumentException e) {
-            logger.error("JWT claims string is empty: {}", e.getMessage());
-        }
-        return false;
+        return parseClaims(authToken).isPresent();
     }
 }
@@ -0,0 +1,99 @@
+package com.eaglebank.api.security;
+
+import com.eaglebank.api.exception.CapacityExceededException;
+import com.eaglebank.api.exception.PasswordHashingException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * PasswordEncoder decorator that runs the (deliberately slow) hash computations on a
+ * dedicated, bounded executor instead of the calling request thread's CPU budget.
+ * - Serves logins, registrations and password updates alike.
+ * - At most "pool size" hashes run concurrently, however many requests arrive at once.
+ * - Once the pool's queue is full, new calls fail fast with CapacityExceededException
+ *   (HTTP 503), so a login storm cannot park every request thread waiting for a hash.
+ * - A hash that fails unexpectedly surfaces as PasswordHashingException (HTTP 500).
+ * - Latency of every encode/matches call is recorded in the "auth.password.hash" timer,
+ *   published with a percentile histogram.
+ */
+public class PasswordHashingEncoder implements PasswordEncoder {
+
+    static final String TIMER_NAME = "auth.password.hash";
+
+    private final PasswordEncoder delegate;
+    private final ExecutorService executor;
+    private final Duration timeout;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public PasswordHashingEncoder(PasswordEncoder delegate, ExecutorService executor, Duration timeout, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.timeout = timeout;
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder(TIMER_NAME)
+                .description("Time spent hashing or verifying a password on the hashing pool")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return runOnPool(() -> encodeTimer.recordCallable(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return runOnPool(() -> matchesTimer.recordCallable(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * Cheap (no hashing), so evaluated on the calling thread.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T runOnPool(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new CapacityExceededException("Too many concurrent password operations. Please retry shortly.");
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new CapacityExceededException("Timed out waiting for password hashing. Please retry shortly.");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CapacityExceededException("Password hashing was interrupted. Please retry shortly.");
+        } catch (ExecutionException e) {
+            // Surface the delegate's contract exception (IllegalArgumentException for an unknown hash id);
+            // anything else is an internal fault, not a client error
+            if (e.getCause() instanceof IllegalArgumentException illegalArgumentException) {
+                throw illegalArgumentException;
+            }
+            throw new PasswordHashingException("Password hashing failed", e.getCause());
+        }
+    }
+}
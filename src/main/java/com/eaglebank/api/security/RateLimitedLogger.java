@@ -0,0 +1,57 @@
+package com.eaglebank.api.security;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs at most a fixed number of WARN messages per time window and counts the rest.
+ * Used for client-triggered failures (junk or expired bearer tokens), where one log line
+ * per request would let a token flood turn into a log I/O bottleneck.
+ * - The first maxPerWindow messages of each window are logged as usual.
+ * - Further messages are only counted; the count is logged once when the next window opens.
+ * - Lock-free: a single CAS per window rollover, one atomic increment per message.
+ */
+final class RateLimitedLogger {
+
+    private final Logger logger;
+    private final int maxPerWindow;
+    private final long windowNanos;
+    private final AtomicLong windowStart;
+    private final AtomicInteger loggedInWindow = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    RateLimitedLogger(Logger logger, int maxPerWindow, Duration window) {
+        this.logger = logger;
+        this.maxPerWindow = maxPerWindow;
+        this.windowNanos = window.toNanos();
+        this.windowStart = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Logs the message at WARN level unless this window's budget is used up.
+     * @return true if the message was logged, false if it was suppressed.
+     */
+    boolean warn(String format, Object... arguments) {
+        if (!logger.isWarnEnabled()) {
+            return false;
+        }
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            loggedInWindow.set(0);
+            long dropped = suppressed.getAndSet(0);
+            if (dropped > 0) {
+                logger.warn("Suppressed {} similar messages in the last {} ms", dropped, (now - start) / 1_000_000);
+            }
+        }
+        if (loggedInWindow.incrementAndGet() <= maxPerWindow) {
+            logger.warn(format, arguments);
+            return true;
+        }
+        suppressed.incrementAndGet();
+        return false;
+    }
+}
@@ -0,0 +1,90 @@
+package com.eaglebank.api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Server-side store of opaque refresh tokens.
+ * A refresh token is 256 random bits with no embedded claims; the only state kept per
+ * token is the owner's email and the expiry instant.
+ * - Keys are SHA-256 digests of the token, so raw refresh tokens are never retained.
+ * - Tokens are single use: consume() atomically removes the entry, and the caller issues
+ *   a replacement (rotation). A replayed, already-rotated token is simply rejected.
+ * - Entries expire after app.refresh-token.ttl; the size cap bounds memory under churn.
+ * - Statistics are published to Micrometer (cache=refreshTokens).
+ */
+@Component
+public class RefreshTokenStore {
+
+    static final String CACHE_NAME = "refreshTokens";
+    private static final int TOKEN_BYTES = 32;
+
+    /**
+     * The user a refresh token was issued to and the instant it stops being valid.
+     */
+    public record RefreshSession(String username, Instant expiresAt) {}
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Duration ttl;
+    private final Cache<String, RefreshSession> cache;
+
+    public RefreshTokenStore(@Value("${app.refresh-token.ttl:PT24H}") Duration ttl,
+                             @Value("${app.refresh-token.max-size:100000}") long maxSize,
+                             MeterRegistry meterRegistry) {
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Issues a new refresh token for the given user.
+     * @param username The user's email.
+     * @return The opaque token to hand to the client.
+     */
+    public String issue(String username) {
+        byte[] random = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(random);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+        cache.put(TokenDigests.sha256(token), new RefreshSession(username, Instant.now().plus(ttl)));
+        return token;
+    }
+
+    /**
+     * Redeems a refresh token, removing it from the store so it cannot be used again.
+     * @param token The opaque token presented by the client.
+     * @return The session it was issued for, or empty if unknown, already used or expired.
+     */
+    public Optional<RefreshSession> consume(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        RefreshSession session = cache.asMap().remove(TokenDigests.sha256(token));
+        // An expired token not yet evicted is still removed above, so it is used up without
+        // issuing a new pair
+        if (session == null || !session.expiresAt().isAfter(Instant.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(session);
+    }
+
+    /**
+     * Number of refresh tokens issued and not yet redeemed; expired ones count until evicted.
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
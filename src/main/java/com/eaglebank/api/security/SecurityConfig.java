@@ -5,6 +5,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -12,10 +13,12 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCrypt;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
-import org.springframework.security.crypto.password.NoOpPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 /**
  * Configuration class to customize Spring Security behavior.
@@ -25,6 +28,25 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @Configuration
 @EnableWebSecurity // Ensures Spring Security configuration is enabled
 public class SecurityConfig {
+
+    /**
+     * Routes that are accessible without a JWT token. Compiled once and shared by the
+     * authorization rules and JwtAuthenticationFilter, which skips token processing on them.
+     */
+    static final RequestMatcher PUBLIC_ROUTES = new OrRequestMatcher(
+            // FIX: Explicitly allow POST requests to the login endpoint to avoid 403 Forbidden issues.
+            PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.POST, "/api/auth/login"),
+
+            // The refresh endpoint authenticates with the refresh token in the body, not a JWT.
+            PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.POST, "/api/auth/refresh"),
+
+            // NEW FIX: Allow POST requests to the user creation/registration endpoint.
+            // This lets unauthenticated users register, triggering validation checks (400) instead of security blocks (403).
+            PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.POST, "/v1/users"),
+
+            // Allow public access to the H2 console
+            PathPatternRequestMatcher.withDefaults().matcher("/h2-console/**"));
+
     private final CustomUserDetailsService customUserDetailsService;
 
 
@@ -42,14 +64,21 @@ public class SecurityConfig {
 //        return new BCryptPasswordEncoder();
 //    }
 
+    // The PasswordEncoder used for stored credentials is defined in AppConfig.
+
     /**
-     * Defines the PasswordEncoder (using NoOp for simplicity in this demo).
-     * In production, always use BCryptPasswordEncoder or similar strong algorithm.
+     * Authentication provider used by the login endpoint.
+     * - Password checks go through the primary PasswordEncoder, which runs them on the
+     *   bounded password hashing pool (see AppConfig).
+     * - After a successful login, hashes that are outdated (legacy "{noop}" or a lower BCrypt
+     *   cost than configured) are transparently re-hashed via CustomUserDetailsService.updatePassword.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        // WARNING: {noop} is ONLY for demonstration. Use BCrypt or similar in production.
-        return NoOpPasswordEncoder.getInstance();
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(customUserDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsPasswordService(customUserDetailsService);
+        return provider;
     }
 
     @Bean
@@ -83,15 +112,8 @@ public class SecurityConfig {
                 // 3. Configure authorization for HTTP requests
                 .authorizeHttpRequests(authorize -> authorize
 
-                        // FIX: Explicitly allow POST requests to the login endpoint to avoid 403 Forbidden issues.
-                        .requestMatchers(HttpMethod.POST, "/api/auth/login").permitAll()
-
-                        // NEW FIX: Allow POST requests to the user creation/registration endpoint.
-                        // This lets unauthenticated users register, triggering validation checks (400) instead of security blocks (403).
-                        .requestMatchers(HttpMethod.POST, "/v1/users").permitAll()
-
-                        // Allow public access to the authentication endpoint and H2 console
-                        .requestMatchers("/h2-console/**").permitAll()
+                        // Public routes (login, refresh, registration, H2 console), see PUBLIC_ROUTES
+                        .requestMatchers(PUBLIC_ROUTES).permitAll()
                         // Secure all User CRUD APIs - requires authentication
                         .requestMatchers("/v1/users/**").authenticated() //TODO:Add other endpoints later
                         // Require authentication for all other requests by default
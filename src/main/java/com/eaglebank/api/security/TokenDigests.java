@@ -0,0 +1,26 @@
+package com.eaglebank.api.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Helper for keying in-memory token stores by a SHA-256 digest of the token,
+ * so raw bearer or refresh tokens are never retained on the heap.
+ */
+final class TokenDigests {
+
+    private TokenDigests() {
+    }
+
+    static String sha256(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every Java platform
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
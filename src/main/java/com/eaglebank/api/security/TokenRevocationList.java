@@ -0,0 +1,234 @@
+package com.eaglebank.api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Revocation list for access tokens, keyed by the token ID ("jti" claim).
+ * Checked by JwtAuthenticationFilter on every authenticated request, so the common case
+ * (token not revoked) must not touch any shared map:
+ * - A Bloom filter answers "definitely not revoked" with a few bit probes and no locking.
+ * - Only a Bloom hit (a revoked token or a rare false positive) consults the exact set.
+ * - Exact entries expire at the token's own expiry, since an expired token is rejected
+ *   anyway. Expired IDs cannot be removed from a Bloom filter, so the filter is rebuilt
+ *   from the live set once enough entries have expired.
+ * Revocations are rare (logout, compromised device), so revoke() and the rebuild are
+ * serialized on a lock; isRevoked() is lock-free.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    static final String METRIC_NAME = "auth.token.revocation.checks";
+
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+    private final Cache<String, Instant> revokedTokens;
+    private final AtomicInteger expiredSinceRebuild = new AtomicInteger();
+    private final Object revocationLock = new Object();
+    private volatile BloomFilter bloomFilter;
+
+    private final Counter notRevokedCounter;
+    private final Counter falsePositiveCounter;
+    private final Counter revokedCounter;
+
+    public TokenRevocationList(@Value("${app.token-revocation.expected-revocations:10000}") int expectedRevocations,
+                               @Value("${app.token-revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                               MeterRegistry meterRegistry) {
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomFilter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        this.revokedTokens = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Instant>() {
+                    @Override
+                    public long expireAfterCreate(String key, Instant expiresAt, long currentTime) {
+                        return nanosUntil(expiresAt);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Instant expiresAt, long currentTime, long currentDuration) {
+                        return nanosUntil(expiresAt);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Instant expiresAt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                // Expire promptly even when the exact set is not being read
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener((String tokenId, Instant expiresAt, RemovalCause cause) -> {
+                    if (cause == RemovalCause.EXPIRED) {
+                        onExpired();
+                    }
+                })
+                .build();
+
+        this.notRevokedCounter = checkCounter(meterRegistry, "not_revoked");
+        this.falsePositiveCounter = checkCounter(meterRegistry, "false_positive");
+        this.revokedCounter = checkCounter(meterRegistry, "revoked");
+        meterRegistry.gauge("auth.token.revocation.size", revokedTokens, Cache::estimatedSize);
+    }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(METRIC_NAME)
+                .description("Revocation checks by outcome; not_revoked is answered by the Bloom filter alone")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Revokes a token until its natural expiry.
+     * @param tokenId The token's "jti" claim.
+     * @param expiresAt The token's expiry; nothing is stored for tokens that have already expired.
+     */
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        synchronized (revocationLock) {
+            revokedTokens.put(tokenId, expiresAt);
+            bloomFilter.add(tokenId);
+        }
+        logger.info("Revoked token {} until {}.", tokenId, expiresAt);
+    }
+
+    /**
+     * Checks whether a token has been revoked.
+     * @param tokenId The token's "jti" claim; tokens without one cannot be revoked.
+     * @return true if the token is revoked and not yet expired.
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        // Fast path: a Bloom filter miss is a definite "not revoked"
+        if (!bloomFilter.mightContain(tokenId)) {
+            notRevokedCounter.increment();
+            return false;
+        }
+        Instant expiresAt = revokedTokens.getIfPresent(tokenId);
+        if (expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            falsePositiveCounter.increment();
+            return false;
+        }
+        revokedCounter.increment();
+        return true;
+    }
+
+    /**
+     * Number of exact revocation entries held, one per revoked token until that token's own
+     * expiry. The Bloom filter keeps the bits of expired ones until its next rebuild.
+     */
+    public long size() {
+        return revokedTokens.estimatedSize();
+    }
+
+    private void onExpired() {
+        // Rebuild once the stale IDs outnumber the live ones (or fill a sizeable part of the filter)
+        int expired = expiredSinceRebuild.incrementAndGet();
+        if (expired > Math.max(revokedTokens.estimatedSize(), expectedRevocations / 4)) {
+            rebuildBloomFilter();
+        }
+    }
+
+    /**
+     * Replaces the Bloom filter with one holding only the currently revoked token IDs,
+     * dropping the bits of tokens that have expired since the last rebuild.
+     */
+    void rebuildBloomFilter() {
+        synchronized (revocationLock) {
+            revokedTokens.cleanUp();
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, (int) revokedTokens.estimatedSize()), falsePositiveRate);
+            revokedTokens.asMap().keySet().forEach(rebuilt::add);
+            bloomFilter = rebuilt;
+            expiredSinceRebuild.set(0);
+        }
+    }
+
+    private static long nanosUntil(Instant instant) {
+        long millis = instant.toEpochMilli() - System.currentTimeMillis();
+        return Math.max(0, millis) * 1_000_000L;
+    }
+
+    /**
+     * Fixed-size Bloom filter over strings, safe for concurrent adds and probes.
+     * Bit positions come from double hashing (h1 + i * h2) of a 64-bit FNV-1a hash.
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final int numBits;
+        private final int numHashes;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            int n = Math.max(1, expectedInsertions);
+            // Optimal sizing: m = -n ln(p) / (ln 2)^2 bits, k = (m / n) ln 2 hash functions
+            long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.numBits = (int) Math.max(64, Math.min(bits, Integer.MAX_VALUE - 63L));
+            this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+            this.words = new AtomicLongArray((numBits + 63) >>> 6);
+        }
+
+        void add(String value) {
+            long hash = fnv1a64(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= numHashes; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+                int word = bit >>> 6;
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = words.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = fnv1a64(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= numHashes; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long fnv1a64(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= (b & 0xff);
+                hash *= 0x100000001b3L;
+            }
+            // Final avalanche (MurmurHash3 fmix64) so both halves are well mixed
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.eaglebank.api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Bounded, concurrent cache of JWTs whose signature has already been verified,
+ * mapping each token to the principal built from its claims.
+ * Clients send the same bearer token on every call within its lifetime, so a hit
+ * lets JwtAuthenticationFilter skip HS512 verification entirely.
+ * - Keys are SHA-256 digests of the token, so raw bearer tokens are never retained.
+ * - Each entry expires at the token's own expiry; the size cap evicts cold entries
+ *   under token churn (Caffeine's W-TinyLFU, a frequency-aware refinement of LRU).
+ * - Hit/miss/eviction statistics are published to Micrometer (cache=verifiedTokens).
+ */
+@Component
+public class VerifiedTokenCache {
+
+    static final String CACHE_NAME = "verifiedTokens";
+
+    /**
+     * The verified principal, the token's ID ("jti", checked against the revocation list)
+     * and the instant the token stops being valid.
+     */
+    public record VerifiedToken(AuthenticatedUser principal, String tokenId, Instant expiresAt) {}
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(@Value("${app.jwt-cache.max-size:10000}") long maxSize, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        return nanosUntil(value.expiresAt());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return nanosUntil(value.expiresAt());
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the previously verified token, or null if it is not cached (or has expired).
+     */
+    public VerifiedToken getIfPresent(String token) {
+        VerifiedToken verified = cache.getIfPresent(TokenDigests.sha256(token));
+        // The entry may outlive the token's exp by up to one maintenance pass of the cache, and a
+        // token must never authenticate past its exp
+        if (verified != null && !verified.expiresAt().isAfter(Instant.now())) {
+            return null;
+        }
+        return verified;
+    }
+
+    /**
+     * Records a token whose signature and expiry were just verified.
+     * Tokens without an expiration claim are returned but never cached.
+     * @return The verified principal built from the claims.
+     */
+    public VerifiedToken put(String token, Claims claims) {
+        Instant expiresAt = claims.getExpiration() != null ? claims.getExpiration().toInstant() : null;
+        VerifiedToken verified = new VerifiedToken(AuthenticatedUser.fromClaims(claims), claims.getId(), expiresAt);
+        if (expiresAt != null) {
+            cache.put(TokenDigests.sha256(token), verified);
+        }
+        return verified;
+    }
+
+    /**
+     * Number of tokens held as verified, bounded by app.jwt-cache.max-size.
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    // Runs pending evictions synchronously (used by tests to observe the size cap)
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    private static long nanosUntil(Instant instant) {
+        long millis = instant.toEpochMilli() - System.currentTimeMillis();
+        return Math.max(0, millis) * 1_000_000L;
+    }
+}
@@ -0,0 +1,113 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.beans.Account;
+import com.eaglebank.api.exception.ExceptionControllerAdvice;
+import com.eaglebank.api.exception.ResourceNotFoundException;
+import com.eaglebank.api.repository.AccountRepository;
+import com.eaglebank.api.service.AccountMetadataCache.AccountMetadata;
+import org.springframework.stereotype.Service;
+
+import java.util.function.Supplier;
+
+/**
+ * Resolves an account number for a user with a single query.
+ * The account is fetched by number only, and ownership is decided in memory, so choosing
+ * between 404 (no such account) and 403 (someone else's account) never needs a second lookup.
+ * Callers that only need the account's ID and owner use requireOwnedMetadata, which is
+ * answered from AccountMetadataCache and usually needs no query at all.
+ */
+@Service
+public class AccountAccessResolver {
+
+    /**
+     * Outcome of resolving an account number for a user.
+     */
+    public enum Access { OWNED, FORBIDDEN, NOT_FOUND }
+
+    /**
+     * The resolved access; the account is only exposed when it is owned by the user.
+     */
+    public record AccountAccess(Access access, Account account) {
+
+        /**
+         * Returns the owned account, or throws the exception matching the outcome.
+         */
+        public Account orElseThrow(Supplier<? extends RuntimeException> notFound,
+                                   Supplier<? extends RuntimeException> forbidden) {
+            return switch (access) {
+                case OWNED -> account;
+                case FORBIDDEN -> throw forbidden.get();
+                case NOT_FOUND -> throw notFound.get();
+            };
+        }
+    }
+
+    private final AccountRepository accountRepository;
+    private final AccountMetadataCache accountMetadataCache;
+
+    public AccountAccessResolver(AccountRepository accountRepository, AccountMetadataCache accountMetadataCache) {
+        this.accountRepository = accountRepository;
+        this.accountMetadataCache = accountMetadataCache;
+    }
+
+    /**
+     * Looks up the account once and classifies the user's access to it.
+     * @param accountNumber The account number from the request path.
+     * @param userId The ID of the authenticated user.
+     * @return The access outcome, carrying the account only when it is owned by the user.
+     */
+    public AccountAccess resolve(String accountNumber, Long userId) {
+        return accountRepository.findByAccountNumber(accountNumber)
+                .map(account -> account.getUserId().equals(userId)
+                        ? new AccountAccess(Access.OWNED, account)
+                        : new AccountAccess(Access.FORBIDDEN, null))
+                .orElseGet(() -> new AccountAccess(Access.NOT_FOUND, null));
+    }
+
+    /**
+     * Classifies the user's access to an account from the metadata cache, without loading the entity.
+     * Used to explain why an owner-scoped query found nothing (404 vs 403).
+     */
+    public Access accessOf(String accountNumber, Long userId) {
+        return accessOf(accountMetadataCache.get(accountNumber), userId);
+    }
+
+    /**
+     * Returns the account if it is owned by the user.
+     * @throws ResourceNotFoundException if the account does not exist (404).
+     * @throws ExceptionControllerAdvice.ForbiddenOperationException if the account does not belong to the user (403).
+     */
+    public Account requireOwned(String accountNumber, Long userId) {
+        return resolve(accountNumber, userId).orElseThrow(() -> notFound(accountNumber), AccountAccessResolver::forbidden);
+    }
+
+    /**
+     * Returns the cached metadata of the account if it is owned by the user.
+     * Use when the balance and other mutable fields are not needed.
+     * @throws ResourceNotFoundException if the account does not exist (404).
+     * @throws ExceptionControllerAdvice.ForbiddenOperationException if the account does not belong to the user (403).
+     */
+    public AccountMetadata requireOwnedMetadata(String accountNumber, Long userId) {
+        AccountMetadata metadata = accountMetadataCache.get(accountNumber);
+        return switch (accessOf(metadata, userId)) {
+            case OWNED -> metadata;
+            case FORBIDDEN -> throw forbidden();
+            case NOT_FOUND -> throw notFound(accountNumber);
+        };
+    }
+
+    private static Access accessOf(AccountMetadata metadata, Long userId) {
+        if (metadata == null) {
+            return Access.NOT_FOUND;
+        }
+        return metadata.userId().equals(userId) ? Access.OWNED : Access.FORBIDDEN;
+    }
+
+    private static ResourceNotFoundException notFound(String accountNumber) {
+        return new ResourceNotFoundException("Account not found with account number: " + accountNumber);
+    }
+
+    private static ExceptionControllerAdvice.ForbiddenOperationException forbidden() {
+        return new ExceptionControllerAdvice.ForbiddenOperationException("Access denied. Account does not belong to user.");
+    }
+}
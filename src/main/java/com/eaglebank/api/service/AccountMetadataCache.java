@@ -0,0 +1,81 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.beans.Account;
+import com.eaglebank.api.beans.AccountType;
+import com.eaglebank.api.repository.AccountRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded, concurrent cache of account number -> immutable account metadata.
+ * Transaction endpoints only need the account's ID and owner to authorize a request,
+ * and those never change for a given account number, so a hit skips the account query.
+ * - Balances are deliberately not cached; they are read and written by the database only.
+ * - Entries are invalidated when an account is patched (type) or deleted, and also expire
+ *   after the TTL as a safety net for changes made outside the application.
+ * - Unknown account numbers are not cached, so a newly created account is found immediately.
+ * - Hit/miss/eviction statistics are published to Micrometer (cache=accountMetadata).
+ */
+@Component
+public class AccountMetadataCache {
+
+    static final String CACHE_NAME = "accountMetadata";
+
+    /**
+     * The parts of an account that authorization and transaction processing rely on.
+     */
+    public record AccountMetadata(Long id, Long userId, AccountType accountType, String currency) {
+
+        public static AccountMetadata of(Account account) {
+            return new AccountMetadata(account.getId(), account.getUserId(), account.getAccountType(), account.getCurrency());
+        }
+    }
+
+    private final AccountRepository accountRepository;
+    private final Cache<String, AccountMetadata> cache;
+
+    public AccountMetadataCache(AccountRepository accountRepository,
+                                @Value("${app.account-cache.max-size:10000}") long maxSize,
+                                @Value("${app.account-cache.ttl:PT10M}") Duration ttl,
+                                MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the metadata of the account, loading it on a miss.
+     * Concurrent misses for the same account number share a single query.
+     * @return The metadata, or null if no account has this number.
+     */
+    public AccountMetadata get(String accountNumber) {
+        return cache.get(accountNumber, key -> accountRepository.findByAccountNumber(key)
+                .map(AccountMetadata::of)
+                .orElse(null));
+    }
+
+    /**
+     * Drops the cached metadata of an account; call after the account is updated or deleted.
+     */
+    public void invalidate(String accountNumber) {
+        cache.invalidate(accountNumber);
+    }
+
+    /**
+     * Number of account numbers with cached metadata, as estimated by Caffeine: entries past the
+     * TTL are only dropped on its next maintenance pass.
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,209 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.beans.AccountNumberSequence;
+import com.eaglebank.api.exception.AccountNumbersExhaustedException;
+import com.eaglebank.api.repository.AccountNumberSequenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates unique account numbers without per-account database round trips or retries.
+ * - Blocks of sequence values are reserved from the account_number_sequence row under a
+ *   row lock, so every node (and every block) owns a disjoint range.
+ * - Within a block, values are handed out with a single atomic increment (lock-free);
+ *   only the thread that exhausts a block takes a lock to reserve the next one.
+ * - Each sequence value is mapped to the printed number by a keyed permutation
+ *   (a small Feistel network with cycle walking), so numbers are unique but not sequential.
+ * - The printed number is the configured prefix, the scrambled body and an optional Luhn
+ *   check digit, e.g. "01" + 6 digits for the default 8-digit format.
+ * - The format caps the number of accounts at 10^(body digits): 1,000,000 by default, and ten
+ *   times fewer with the check digit, which takes a body digit. A warning is logged once 90% are
+ *   allocated; past the last one, account creation fails with 503 until the format is widened.
+ */
+@Service
+public class AccountNumberAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountNumberAllocator.class);
+
+    static final String SEQUENCE_NAME = "account_number";
+    private static final int FEISTEL_ROUNDS = 4;
+
+    /**
+     * A reserved range [next, end) of sequence values.
+     */
+    private record Block(AtomicLong next, long end) {}
+
+    private final AccountNumberSequenceRepository sequenceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String prefix;
+    private final boolean checkDigit;
+    private final boolean scramble;
+    private final long scrambleKey;
+    private final int blockSize;
+    private final int bodyDigits;
+    private final long capacity;
+    private final long warningThreshold;
+
+    private final Object refillLock = new Object();
+    private volatile Block currentBlock = new Block(new AtomicLong(), 0);
+
+    public AccountNumberAllocator(AccountNumberSequenceRepository sequenceRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.account-numbers.prefix:01}") String prefix,
+                                  @Value("${app.account-numbers.length:8}") int length,
+                                  @Value("${app.account-numbers.check-digit:false}") boolean checkDigit,
+                                  @Value("${app.account-numbers.scramble:true}") boolean scramble,
+                                  @Value("${app.account-numbers.scramble-key:6148914691236517205}") long scrambleKey,
+                                  @Value("${app.account-numbers.block-size:100}") int blockSize) {
+        this.sequenceRepository = sequenceRepository;
+        // Reserve blocks in their own short transaction, independent of the caller's
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.prefix = prefix;
+        this.checkDigit = checkDigit;
+        this.scramble = scramble;
+        this.scrambleKey = scrambleKey;
+        this.blockSize = blockSize;
+        this.bodyDigits = length - prefix.length() - (checkDigit ? 1 : 0);
+        if (bodyDigits < 1 || bodyDigits > 18) {
+            throw new IllegalArgumentException("Account number length " + length + " leaves no room for the body after prefix '"
+                    + prefix + "'" + (checkDigit ? " and check digit" : ""));
+        }
+        this.capacity = pow10(bodyDigits);
+        this.warningThreshold = capacity / 10 * 9;
+        logger.info("Account numbers: prefix {}, {} body digits{}, capacity {}.", prefix, bodyDigits, checkDigit ? " and a check digit" : "", capacity);
+    }
+
+    /**
+     * Returns the next unique account number.
+     * @throws AccountNumbersExhaustedException if every number of the configured format has been allocated (503).
+     */
+    public String nextAccountNumber() {
+        while (true) {
+            Block block = currentBlock;
+            long value = block.next().getAndIncrement();
+            if (value < block.end()) {
+                return format(value);
+            }
+            refill(block);
+        }
+    }
+
+    private void refill(Block exhausted) {
+        synchronized (refillLock) {
+            // Another thread may already have replaced the exhausted block
+            if (currentBlock == exhausted) {
+                currentBlock = reserveBlock();
+            }
+        }
+    }
+
+    private Block reserveBlock() {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                long start = transactionTemplate.execute(status -> {
+                    AccountNumberSequence sequence = sequenceRepository.findForUpdate(SEQUENCE_NAME)
+                            .orElseGet(() -> new AccountNumberSequence(SEQUENCE_NAME, 0));
+                    long next = sequence.getNextValue();
+                    sequence.setNextValue(next + blockSize);
+                    sequenceRepository.saveAndFlush(sequence);
+                    return next;
+                });
+                if (start >= capacity) {
+                    // Needs operator action (a longer format or another prefix): no account can be opened until then
+                    logger.error("Account number space exhausted: all {} numbers for prefix {} are allocated.", capacity, prefix);
+                    throw new AccountNumbersExhaustedException("No account numbers are available. Please try again later.");
+                }
+                if (start + blockSize > warningThreshold) {
+                    logger.warn("Account number space nearly exhausted: {} of {} numbers for prefix {} are allocated.",
+                            Math.min(start + blockSize, capacity), capacity, prefix);
+                }
+                logger.debug("Reserved account number block [{}, {}).", start, start + blockSize);
+                return new Block(new AtomicLong(start), Math.min(start + blockSize, capacity));
+            } catch (DataIntegrityViolationException e) {
+                // Another node created the sequence row first; read it again under the lock
+                if (attempt >= 3) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // --- Formatting ---
+
+    String format(long sequenceValue) {
+        long body = scramble ? permute(sequenceValue, capacity, scrambleKey) : sequenceValue;
+        String number = prefix + String.format("%0" + bodyDigits + "d", body);
+        return checkDigit ? number + luhnCheckDigit(number) : number;
+    }
+
+    /**
+     * Keyed bijection on [0, domainSize): a balanced Feistel network over the smallest
+     * even bit width covering the domain, re-applied until the result falls inside the domain.
+     */
+    static long permute(long value, long domainSize, long key) {
+        int bits = 64 - Long.numberOfLeadingZeros(Math.max(1, domainSize - 1));
+        if ((bits & 1) == 1) {
+            bits++;
+        }
+        int halfBits = Math.max(1, bits / 2);
+        long mask = (1L << halfBits) - 1;
+
+        long result = value;
+        do {
+            long left = result >>> halfBits;
+            long right = result & mask;
+            for (int round = 0; round < FEISTEL_ROUNDS; round++) {
+                long mixed = (left ^ roundFunction(right, round, key)) & mask;
+                left = right;
+                right = mixed;
+            }
+            result = (left << halfBits) | right;
+        } while (result >= domainSize);
+        return result;
+    }
+
+    private static long roundFunction(long half, int round, long key) {
+        // SplitMix64 finalizer over the key, round number and input half
+        long z = key ^ (round * 0x9E3779B97F4A7C15L) ^ half;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Luhn (mod 10) check digit; detects any single-digit error and most adjacent transpositions.
+     */
+    static int luhnCheckDigit(String digits) {
+        int sum = 0;
+        boolean doubleIt = true;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int digit = digits.charAt(i) - '0';
+            if (doubleIt) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubleIt = !doubleIt;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    private static long pow10(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.beans.AccountDetailsResponse;
+import com.eaglebank.api.beans.Transaction;
+import com.eaglebank.api.helper.SingleFlight;
+import com.eaglebank.api.repository.AccountRepository;
+import com.eaglebank.api.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Single-flight layer in front of the account and transaction history reads.
+ * When a dashboard fan-out or a retry storm sends many identical GET /v1/accounts/{accountId}
+ * or history requests at once, the first one queries the repository and the others wait for
+ * and share its result, so N simultaneous callers cost one query.
+ * - Account details are keyed by account number and user, the same inputs as the query.
+ * - History is keyed by the internal account ID, once ownership has been checked, and by the
+ *   sequence of the account's ledger version read just before. A caller therefore only joins
+ *   a lookup that started after the transactions it has seen were saved: its rows are never
+ *   older than a version (ETag) the caller read earlier. A write in between starts a new key.
+ * - Metrics: singleflight.calls{name=accountDetails|transactionHistory, result=executed|coalesced}.
+ */
+@Component
+public class AccountReadCoalescer {
+
+    private record AccountKey(String accountNumber, Long userId) {}
+
+    private record HistoryKey(Long accountId, long sequence) {}
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final SingleFlight<AccountKey, Optional<AccountDetailsResponse>> accountDetails;
+    private final SingleFlight<HistoryKey, List<Transaction>> transactionHistory;
+
+    public AccountReadCoalescer(AccountRepository accountRepository, TransactionRepository transactionRepository,
+                                MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountDetails = new SingleFlight<>("accountDetails", meterRegistry);
+        this.transactionHistory = new SingleFlight<>("transactionHistory", meterRegistry);
+    }
+
+    /**
+     * AccountRepository.findDetailsByAccountNumberAndUserId, shared with identical concurrent calls.
+     */
+    public Optional<AccountDetailsResponse> findAccountDetails(String accountNumber, Long userId) {
+        return accountDetails.execute(new AccountKey(accountNumber, userId),
+                () -> accountRepository.findDetailsByAccountNumberAndUserId(accountNumber, userId));
+    }
+
+    /**
+     * TransactionRepository.findByAccountId, shared with concurrent calls that have seen the
+     * same ledger version. The result includes at least every transaction saved before this call.
+     * The returned list is unmodifiable.
+     */
+    public List<Transaction> findTransactionHistory(Long accountId) {
+        // The version is published after its row, so a lookup started after reading it sees the row
+        long sequence = transactionRepository.findVersionByAccountId(accountId).sequence();
+        return transactionHistory.execute(new HistoryKey(accountId, sequence),
+                () -> transactionRepository.findByAccountId(accountId));
+    }
+}
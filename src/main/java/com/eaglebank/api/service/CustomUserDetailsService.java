@@ -5,72 +5,136 @@ import com.eaglebank.api.beans.User;
 import com.eaglebank.api.exception.ResourceNotFoundException;
 import com.eaglebank.api.repository.AccountRepository;
 import com.eaglebank.api.repository.UserRepository;
+import com.eaglebank.api.security.AuthenticatedUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Custom implementation of Spring Security's UserDetailsService.
- * Responsible for loading user-specific data (username, password, roles).
- * * NOTE: For this simple demonstration, a hardcoded user "admin" is used.
+ * Responsible for loading user-specific data (username, password hash, roles) from the
+ * user table, behind a size-bounded, TTL-evicting cache of principals.
+ * The cache is invalidated explicitly whenever a user is updated or deleted, so
+ * steady-state authenticated traffic does not query the user table.
  */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    static final String CACHE_NAME = "userDetails";
 
     Logger logger = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
     private final UserRepository userRepository;
     private final AccountRepository accountRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final Cache<String, AuthenticatedUser> userDetailsCache;
 
     /**
      * Inject the UserRepository to fetch user details from the database.
      */
-    public CustomUserDetailsService(UserRepository userRepository, AccountRepository accountRepository) {
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    AccountRepository accountRepository,
+                                    PasswordEncoder passwordEncoder,
+                                    @Value("${app.user-cache.max-size:10000}") long cacheMaxSize,
+                                    @Value("${app.user-cache.ttl:PT5M}") Duration cacheTtl,
+                                    MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.accountRepository = accountRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.userDetailsCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userDetailsCache, CACHE_NAME);
     }
 
     /**
-     * Loads the UserDetails object using a hardcoded lookup based on the email address.
+     * Loads the UserDetails object for the given email address, from the cache if present.
      * The 'username' parameter is expected to be the user's email address.
+     * The returned principal carries the user's internal ID so it can be embedded in the issued JWT.
+     * Unknown users are not cached, so a later registration is picked up immediately.
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        AuthenticatedUser userDetails = userDetailsCache.get(username, this::loadFromDatabase);
+        if (userDetails == null) {
+            throw new UsernameNotFoundException("User not found with email: " + username);
+        }
+        return userDetails;
+    }
 
-        // --- Hardcoded users and credentials ---
-        final String OTHER_USER_EMAIL = "otheruser@example.com";
-        final String USER_EMAIL = "user@example.com";
-        // Passwords must be prefixed with {noop} since NoOpPasswordEncoder is configured
-        final String OTHER_USER_PASSWORD = "{noop}password";
-        final String USER_PASSWORD = "{noop}guest";
+    /**
+     * Helper method to build the principal from the user table.
+     * AuthenticatedUser does not implement CredentialsContainer, so Spring Security's
+     * credential erasure after login cannot wipe the hash held by the cached instance.
+     * @return The principal, or null if no user is registered with this email.
+     */
+    private AuthenticatedUser loadFromDatabase(String email) {
+        return userRepository.findByEmail(email)
+                .map(user -> new AuthenticatedUser(
+                        user.getId(),
+                        user.getEmail(),
+                        user.getPassword(),
+                        Collections.singletonList(new SimpleGrantedAuthority(user.getRole()))
+                ))
+                .orElse(null);
+    }
 
-        if (OTHER_USER_EMAIL.equals(username)) {
-            // Admin user
-            return new org.springframework.security.core.userdetails.User(
-                    OTHER_USER_EMAIL,
-                    OTHER_USER_PASSWORD,
-                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
-            );
-        } else if (USER_EMAIL.equals(username)) {
-            // Standard user
-            return new org.springframework.security.core.userdetails.User(
-                    USER_EMAIL,
-                    USER_PASSWORD,
-                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
-            );
+    /**
+     * Stores a re-hashed password after a successful login (called by DaoAuthenticationProvider
+     * when the stored hash is outdated, e.g. a legacy encoding or a lower BCrypt cost).
+     * @param userDetails The authenticated principal.
+     * @param newPassword The new, already encoded, password hash.
+     * @return The principal carrying the new hash.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        evictUser(user.getEmail());
+        logger.info("Upgraded password hash for user with ID {}.", user.getId());
+        return new AuthenticatedUser(user.getId(), user.getEmail(), newPassword, userDetails.getAuthorities());
+    }
+
+    /**
+     * Removes a user from the principal cache. Must be called whenever a user's email,
+     * password or role changes, or the user is deleted.
+     * @param email The email (username) of the user to evict.
+     */
+    public void evictUser(String email) {
+        if (email != null) {
+            userDetailsCache.invalidate(email);
         }
+    }
 
-        throw new UsernameNotFoundException("User not found with email: " + username);
+    /**
+     * Replaces the raw password supplied on a User payload with its hash, ready to be stored.
+     * Leaves the user untouched if no password was supplied.
+     * @param user The user about to be saved.
+     */
+    public void encodePassword(User user) {
+        if (user.getPassword() != null && !user.getPassword().isEmpty()) {
+            user.setPassword(passwordEncoder.encode(user.getPassword()));
+        }
     }
 
     /**
@@ -88,6 +152,7 @@ public class CustomUserDetailsService implements UserDetailsService {
             List<Account> accounts = accountRepository.findAllByUserId(user.getId());
             if (accounts.isEmpty()) {
                 userRepository.deleteById(userId);
+                evictUser(user.getEmail());
                 logger.info("User with ID {} deleted successfully.", userId);
             } else {
                 //Throw Conflict status code and error message
@@ -0,0 +1,180 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.beans.DailyTotals;
+import com.eaglebank.api.beans.Transaction;
+import com.eaglebank.api.beans.TransactionType;
+import com.eaglebank.api.helper.MinorUnits;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-account daily totals (deposits, withdrawals, counts, closing balance), maintained
+ * incrementally as transactions commit, so analytics never read the ledger.
+ * - Each account holds parallel primitive arrays with one slot per day that had a transaction
+ *   (about 36 bytes per account-day), sorted by day, in app.analytics.zone.
+ * - Amounts are kept in minor units. The closing balance of a day is the previous day's closing
+ *   balance plus the day's net change, as balances only change through transactions.
+ * - A query costs a binary search plus one step per requested day.
+ * - Rollups are held in memory only and start empty, like the in-memory ledger itself: after a
+ *   restart they cover the transactions committed since.
+ * - The number of account-days held is published as analytics.rollup.days.
+ */
+@Component
+public class DailyRollups {
+
+    /**
+     * The days of one account; all access is synchronized on the instance.
+     */
+    static final class AccountDays {
+
+        private int size;
+        private int[] days = new int[4];
+        private long[] deposits = new long[4];
+        private long[] withdrawals = new long[4];
+        private int[] depositCounts = new int[4];
+        private int[] withdrawalCounts = new int[4];
+        private long[] closings = new long[4];
+
+        synchronized void add(int day, TransactionType type, long amount) {
+            int index = Arrays.binarySearch(days, 0, size, day);
+            if (index < 0) {
+                index = -index - 1;
+                insert(index, day);
+            }
+            long delta;
+            if (type == TransactionType.deposit) {
+                deposits[index] += amount;
+                depositCounts[index]++;
+                delta = amount;
+            } else {
+                withdrawals[index] += amount;
+                withdrawalCounts[index]++;
+                delta = -amount;
+            }
+            // A late commit for an earlier day also moves the closing balance of the days after it
+            for (int i = index; i < size; i++) {
+                closings[i] += delta;
+            }
+        }
+
+        private void insert(int index, int day) {
+            if (size == days.length) {
+                int capacity = size * 2;
+                days = Arrays.copyOf(days, capacity);
+                deposits = Arrays.copyOf(deposits, capacity);
+                withdrawals = Arrays.copyOf(withdrawals, capacity);
+                depositCounts = Arrays.copyOf(depositCounts, capacity);
+                withdrawalCounts = Arrays.copyOf(withdrawalCounts, capacity);
+                closings = Arrays.copyOf(closings, capacity);
+            }
+            int moved = size - index;
+            System.arraycopy(days, index, days, index + 1, moved);
+            System.arraycopy(deposits, index, deposits, index + 1, moved);
+            System.arraycopy(withdrawals, index, withdrawals, index + 1, moved);
+            System.arraycopy(depositCounts, index, depositCounts, index + 1, moved);
+            System.arraycopy(withdrawalCounts, index, withdrawalCounts, index + 1, moved);
+            System.arraycopy(closings, index, closings, index + 1, moved);
+            days[index] = day;
+            deposits[index] = 0;
+            withdrawals[index] = 0;
+            depositCounts[index] = 0;
+            withdrawalCounts[index] = 0;
+            // Opens with the previous day's closing balance
+            closings[index] = index == 0 ? 0 : closings[index - 1];
+            size++;
+        }
+
+        /**
+         * One entry per day from fromDay to toDay inclusive; days without transactions carry
+         * the previous closing balance forward.
+         */
+        synchronized List<DailyTotals> range(int fromDay, int toDay) {
+            List<DailyTotals> result = new ArrayList<>(toDay - fromDay + 1);
+            int index = Arrays.binarySearch(days, 0, size, fromDay);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            long closing = index == 0 ? 0 : closings[index - 1];
+            for (int day = fromDay; day <= toDay; day++) {
+                if (index < size && days[index] == day) {
+                    closing = closings[index];
+                    result.add(totals(day, deposits[index], withdrawals[index],
+                            depositCounts[index], withdrawalCounts[index], closing));
+                    index++;
+                } else {
+                    result.add(totals(day, 0, 0, 0, 0, closing));
+                }
+            }
+            return result;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+    }
+
+    private final ZoneId zone;
+    private final int defaultDays;
+    private final int maxDays;
+    private final Map<Long, AccountDays> accounts = new ConcurrentHashMap<>();
+
+    public DailyRollups(@Value("${app.analytics.zone:Europe/London}") ZoneId zone,
+                        @Value("${app.analytics.default-days:30}") int defaultDays,
+                        @Value("${app.analytics.max-days:366}") int maxDays,
+                        MeterRegistry meterRegistry) {
+        this.zone = zone;
+        this.defaultDays = defaultDays;
+        this.maxDays = maxDays;
+        Gauge.builder("analytics.rollup.days", accounts, map -> map.values().stream().mapToInt(AccountDays::size).sum())
+                .description("Account-days held by the daily rollups")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds a committed transaction to its account's rollup for the day it was created.
+     */
+    public void record(Transaction transaction) {
+        int day = (int) LocalDate.ofInstant(transaction.getCreatedTimestamp(), zone).toEpochDay();
+        accounts.computeIfAbsent(transaction.getAccountId(), id -> new AccountDays())
+                .add(day, transaction.getType(), MinorUnits.of(transaction.getAmount()));
+    }
+
+    /**
+     * The daily totals of an account for each day from "from" to "to" inclusive.
+     */
+    public List<DailyTotals> range(Long accountId, LocalDate from, LocalDate to) {
+        AccountDays days = accounts.getOrDefault(accountId, new AccountDays());
+        return days.range((int) from.toEpochDay(), (int) to.toEpochDay());
+    }
+
+    /**
+     * Today's date in the rollups' time zone.
+     */
+    public LocalDate today() {
+        return LocalDate.now(zone);
+    }
+
+    public int getDefaultDays() {
+        return defaultDays;
+    }
+
+    public int getMaxDays() {
+        return maxDays;
+    }
+
+    private static DailyTotals totals(int day, long deposits, long withdrawals, int depositCount, int withdrawalCount, long closing) {
+        return new DailyTotals(LocalDate.ofEpochDay(day), MinorUnits.toAmount(deposits), MinorUnits.toAmount(withdrawals),
+                depositCount, withdrawalCount, MinorUnits.toAmount(closing));
+    }
+}
@@ -0,0 +1,122 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.exception.DailyLimitExceededException;
+import com.eaglebank.api.helper.MinorUnits;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enforces a cumulative daily withdrawal limit per account (app.limits.daily-withdrawal) without
+ * summing the ledger on each request.
+ * - The limit is set in the FX base currency and converted into the account's currency at the
+ *   current rates on each withdrawal; the counters hold amounts in the account's currency.
+ * - Each account has one counter: a single long packing the day (epoch day in app.limits.zone)
+ *   and the amount withdrawn on it in minor units. A withdrawal reserves its amount with
+ *   compare-and-set, so the check and the update are one atomic step and concurrent withdrawals
+ *   can never overshoot the limit. The first withdrawal of a new day resets the counter.
+ * - The reservation is taken just before the balance update and released if that update does
+ *   not go through, so the counter only holds withdrawals that were applied.
+ * - Counters are held in memory only and start empty: they do not survive a restart, so after
+ *   one an account can withdraw up to the full limit again that day.
+ * - The number of accounts with a counter is published as limits.daily-withdrawal.accounts.
+ */
+@Component
+public class DailyWithdrawalLimiter {
+
+    // Low bits hold the amount (up to ~87 billion in minor units), high bits the epoch day
+    private static final int AMOUNT_BITS = 43;
+    private static final long AMOUNT_MASK = (1L << AMOUNT_BITS) - 1;
+
+    private final BigDecimal limit;
+    private final FxRateTable fxRateTable;
+    private final ZoneId zone;
+    private final Map<Long, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    public DailyWithdrawalLimiter(FxRateTable fxRateTable,
+                                  @Value("${app.limits.daily-withdrawal:20000.00}") BigDecimal dailyLimit,
+                                  @Value("${app.limits.zone:Europe/London}") ZoneId zone,
+                                  MeterRegistry meterRegistry) {
+        this.limit = dailyLimit;
+        this.fxRateTable = fxRateTable;
+        this.zone = zone;
+        Gauge.builder("limits.daily-withdrawal.accounts", counters, Map::size)
+                .description("Accounts with a daily withdrawal counter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds a withdrawal to today's total of the account if it stays within the daily limit.
+     * Pair with release if the withdrawal is not applied after all.
+     * @param amount The withdrawal, in the account's currency.
+     * @param currency The account's currency, into which the limit is converted.
+     * @throws DailyLimitExceededException if the limit would be exceeded (422); nothing is reserved.
+     */
+    public void reserve(Long accountId, BigDecimal amount, String currency, Instant now) {
+        long day = day(now);
+        long minorAmount = MinorUnits.of(amount);
+        long limit = MinorUnits.of(fxRateTable.convert(this.limit, fxRateTable.getSnapshot().base(), currency).amount());
+        AtomicLong counter = counters.computeIfAbsent(accountId, id -> new AtomicLong(pack(day, 0)));
+        while (true) {
+            long current = counter.get();
+            long withdrawn = unpackDay(current) == day ? unpackAmount(current) : 0;
+            if (withdrawn + minorAmount > limit) {
+                throw new DailyLimitExceededException("Daily withdrawal limit of " + MinorUnits.toAmount(limit).toPlainString() + " " + currency
+                        + " exceeded for this account. Remaining today: " + MinorUnits.toAmount(Math.max(0, limit - withdrawn)).toPlainString());
+            }
+            if (counter.compareAndSet(current, pack(day, withdrawn + minorAmount))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gives back a reservation whose withdrawal was not applied. A reservation from a day that
+     * has already ended is simply dropped with the rest of that day's total.
+     */
+    public void release(Long accountId, BigDecimal amount, Instant reservedAt) {
+        AtomicLong counter = counters.get(accountId);
+        if (counter == null) {
+            return;
+        }
+        long day = day(reservedAt);
+        long minorAmount = MinorUnits.of(amount);
+        counter.updateAndGet(current -> unpackDay(current) == day
+                ? pack(day, Math.max(0, unpackAmount(current) - minorAmount))
+                : current);
+    }
+
+    /**
+     * The amount withdrawn from the account so far on the day of the given instant.
+     */
+    public BigDecimal withdrawnOn(Long accountId, Instant now) {
+        AtomicLong counter = counters.get(accountId);
+        long current = counter == null ? 0 : counter.get();
+        return MinorUnits.toAmount(counter != null && unpackDay(current) == day(now) ? unpackAmount(current) : 0);
+    }
+
+    private long day(Instant instant) {
+        return LocalDate.ofInstant(instant, zone).toEpochDay();
+    }
+
+    private static long pack(long day, long amount) {
+        return (day << AMOUNT_BITS) | (amount & AMOUNT_MASK);
+    }
+
+    private static long unpackDay(long packed) {
+        return packed >>> AMOUNT_BITS;
+    }
+
+    private static long unpackAmount(long packed) {
+        return packed & AMOUNT_MASK;
+    }
+}
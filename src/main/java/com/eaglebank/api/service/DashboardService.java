@@ -0,0 +1,170 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.beans.AccountDetailsResponse;
+import com.eaglebank.api.beans.DashboardResponse;
+import com.eaglebank.api.beans.DashboardResponse.AccountSummary;
+import com.eaglebank.api.beans.Transaction;
+import com.eaglebank.api.beans.User;
+import com.eaglebank.api.repository.AccountRepository;
+import com.eaglebank.api.repository.UserRepository;
+import com.eaglebank.api.service.AccountMetadataCache.AccountMetadata;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Builds the home screen dashboard (user, accounts and the latest transactions of each account)
+ * in one call, instead of the N+2 sequential requests the client would otherwise make.
+ * - The user and the account list are loaded in parallel, then the per-account history
+ *   lookups fan out on the bounded dashboardExecutor pool.
+ * - The whole build shares one latency budget (app.dashboard.budget). Whatever has not finished
+ *   when it runs out is left out and the response is flagged as partial, so a slow lookup
+ *   never holds up the rest of the screen.
+ * - Metrics: dashboard.responses{result=complete|partial}.
+ */
+@Service
+public class DashboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+
+    private final UserRepository userRepository;
+    private final AccountRepository accountRepository;
+    private final AccountMetadataCache accountMetadataCache;
+    private final AccountReadCoalescer accountReadCoalescer;
+    private final Executor dashboardExecutor;
+    private final Duration budget;
+    private final int defaultTransactions;
+    private final int maxTransactions;
+    private final Counter complete;
+    private final Counter partial;
+
+    public DashboardService(UserRepository userRepository,
+                            AccountRepository accountRepository,
+                            AccountMetadataCache accountMetadataCache,
+                            AccountReadCoalescer accountReadCoalescer,
+                            @Qualifier("dashboardExecutor") Executor dashboardExecutor,
+                            @Value("${app.dashboard.budget:PT1S}") Duration budget,
+                            @Value("${app.dashboard.transactions.default:5}") int defaultTransactions,
+                            @Value("${app.dashboard.transactions.max:50}") int maxTransactions,
+                            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.accountRepository = accountRepository;
+        this.accountMetadataCache = accountMetadataCache;
+        this.accountReadCoalescer = accountReadCoalescer;
+        this.dashboardExecutor = dashboardExecutor;
+        this.budget = budget;
+        this.defaultTransactions = defaultTransactions;
+        this.maxTransactions = maxTransactions;
+        this.complete = Counter.builder("dashboard.responses")
+                .description("Dashboards served, by whether every part was loaded within the budget")
+                .tag("result", "complete")
+                .register(meterRegistry);
+        this.partial = Counter.builder("dashboard.responses")
+                .description("Dashboards served, by whether every part was loaded within the budget")
+                .tag("result", "partial")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Builds the dashboard of a user.
+     * @param userId The ID of the authenticated user.
+     * @param transactions The number of recent transactions per account, or null for the default;
+     *                     capped at app.dashboard.transactions.max.
+     */
+    public DashboardResponse getDashboard(Long userId, Integer transactions) {
+        long deadline = System.nanoTime() + budget.toNanos();
+        int limit = transactionLimit(transactions);
+
+        // 1. User and account list in parallel (the list is needed before the fan-out)
+        CompletableFuture<User> user = submit(() -> userRepository.findReadOnlyById(userId).orElse(null));
+        CompletableFuture<List<AccountDetailsResponse>> accounts = submit(() -> accountRepository.findDetailsByUserId(userId));
+        List<AccountDetailsResponse> accountList = await(accounts, deadline, "accounts of user " + userId);
+
+        // 2. Fan out one history lookup per account
+        List<CompletableFuture<List<Transaction>>> histories = new ArrayList<>();
+        if (accountList != null) {
+            for (AccountDetailsResponse account : accountList) {
+                histories.add(submit(() -> recentTransactions(account.getAccountNumber(), limit)));
+            }
+        }
+
+        // 3. Collect whatever is ready by the deadline
+        boolean missing = accountList == null;
+        List<AccountSummary> summaries = new ArrayList<>(histories.size());
+        for (int i = 0; i < histories.size(); i++) {
+            AccountDetailsResponse account = accountList.get(i);
+            List<Transaction> recent = await(histories.get(i), deadline, "history of account " + account.getAccountNumber());
+            missing |= recent == null;
+            summaries.add(new AccountSummary(account, recent));
+        }
+        User loadedUser = await(user, deadline, "user " + userId);
+        missing |= loadedUser == null;
+
+        (missing ? partial : complete).increment();
+        return new DashboardResponse(loadedUser, accountList == null ? null : summaries, missing);
+    }
+
+    /**
+     * The number of recent transactions per account actually used for a requested count.
+     */
+    public int transactionLimit(Integer transactions) {
+        if (transactions == null) {
+            return defaultTransactions;
+        }
+        return Math.max(0, Math.min(transactions, maxTransactions));
+    }
+
+    private List<Transaction> recentTransactions(String accountNumber, int limit) {
+        // The ledger is keyed by the internal account ID, usually found in the metadata cache
+        AccountMetadata account = accountMetadataCache.get(accountNumber);
+        if (account == null) {
+            // Deleted since the account list was read
+            return List.of();
+        }
+        // History is sorted newest first
+        List<Transaction> history = accountReadCoalescer.findTransactionHistory(account.id());
+        return List.copyOf(history.subList(0, Math.min(limit, history.size())));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> lookup) {
+        try {
+            return CompletableFuture.supplyAsync(lookup, dashboardExecutor);
+        } catch (RejectedExecutionException e) {
+            // Pool saturated: leave this part out rather than queueing behind other dashboards
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Waits for a lookup until the deadline.
+     * @return Its result, or null if it failed or did not finish in time (it is then cancelled).
+     */
+    private static <T> T await(CompletableFuture<T> lookup, long deadline, String what) {
+        try {
+            return lookup.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            lookup.cancel(false);
+            logger.warn("Dashboard budget exceeded before loading the {}", what);
+        } catch (ExecutionException e) {
+            logger.warn("Dashboard could not load the {}: {}", what, e.getCause().toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,154 @@
+package com.eaglebank.api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * In-memory FX rate table used to convert deposits and withdrawals into the account's currency.
+ * - Rates are loaded from app.fx.rates-location (a properties file: base=GBP, then one
+ *   "CODE=units per 1 base" line per currency) at startup and on reload().
+ * - Every load builds a complete, immutable snapshot with the cross rate of every currency
+ *   pair, then publishes it with a single volatile write. A lookup on the transaction path is
+ *   two map reads on the current snapshot: lock-free, and never a mix of old and new rates.
+ * - Cross rates are kept to 8 decimal places; converted amounts are rounded half-even to 2.
+ *   An amount that would round to less than 0.01 in the target currency is refused, so a
+ *   transaction can never be converted into nothing.
+ */
+@Component
+public class FxRateTable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FxRateTable.class);
+
+    static final int RATE_SCALE = 8;
+
+    private static final BigDecimal MIN_AMOUNT = new BigDecimal("0.01");
+
+    /**
+     * One immutable set of rates.
+     * @param rates from currency -> to currency -> units of "to" per unit of "from".
+     */
+    public record Snapshot(String base, Map<String, Map<String, BigDecimal>> rates, Instant loadedAt) {
+
+        public Set<String> currencies() {
+            return rates.keySet();
+        }
+    }
+
+    /**
+     * An amount converted into another currency.
+     * @param amount The converted amount, rounded to 2 decimal places.
+     * @param rate The rate applied (1 when no conversion was needed).
+     */
+    public record Conversion(BigDecimal amount, BigDecimal rate) {}
+
+    private final Resource ratesLocation;
+    private volatile Snapshot snapshot;
+
+    public FxRateTable(@Value("${app.fx.rates-location:classpath:fx-rates.properties}") Resource ratesLocation) {
+        this.ratesLocation = ratesLocation;
+        reload();
+    }
+
+    /**
+     * Re-reads the rates file and swaps in the new snapshot. If the file cannot be read or is
+     * invalid, the exception propagates and the current snapshot stays in place.
+     */
+    public void reload() {
+        Properties properties = new Properties();
+        try (InputStream in = ratesLocation.getInputStream()) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read FX rates from " + ratesLocation, e);
+        }
+        String base = properties.getProperty("base");
+        if (base == null) {
+            throw new IllegalArgumentException("FX rates file " + ratesLocation + " has no 'base' currency");
+        }
+        Map<String, BigDecimal> rates = new HashMap<>();
+        for (String currency : properties.stringPropertyNames()) {
+            if (!currency.equals("base")) {
+                rates.put(currency, new BigDecimal(properties.getProperty(currency).trim()));
+            }
+        }
+        replace(base, rates);
+    }
+
+    /**
+     * Swaps in a new set of rates, e.g. from a rate provider.
+     * @param base The base currency; its own rate is 1 and need not be included.
+     * @param rates Units of each currency per 1 unit of the base currency.
+     */
+    public void replace(String base, Map<String, BigDecimal> rates) {
+        Map<String, BigDecimal> perBase = new HashMap<>();
+        rates.forEach((currency, rate) -> {
+            if (rate.signum() <= 0) {
+                throw new IllegalArgumentException("FX rate for " + currency + " must be positive: " + rate);
+            }
+            perBase.put(currency.trim().toUpperCase(Locale.ROOT), rate);
+        });
+        String baseCode = base.trim().toUpperCase(Locale.ROOT);
+        perBase.put(baseCode, BigDecimal.ONE);
+
+        Map<String, Map<String, BigDecimal>> crossRates = new HashMap<>();
+        perBase.forEach((from, fromRate) -> {
+            Map<String, BigDecimal> row = new HashMap<>();
+            perBase.forEach((to, toRate) -> row.put(to, from.equals(to)
+                    ? BigDecimal.ONE
+                    : toRate.divide(fromRate, RATE_SCALE, RoundingMode.HALF_EVEN)));
+            crossRates.put(from, Map.copyOf(row));
+        });
+        snapshot = new Snapshot(baseCode, Map.copyOf(crossRates), Instant.now());
+        logger.info("Loaded FX rates for {} currencies (base {}).", perBase.size(), baseCode);
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public boolean supports(String currency) {
+        return currency != null && snapshot.rates().containsKey(currency);
+    }
+
+    /**
+     * Converts an amount between two currencies at the current rates.
+     * @throws ResponseStatusException if either currency has no rate, or the converted amount
+     *         is less than 0.01 (400).
+     */
+    public Conversion convert(BigDecimal amount, String from, String to) {
+        if (from.equals(to)) {
+            return new Conversion(amount, BigDecimal.ONE);
+        }
+        // Read the snapshot once, so both lookups see the same rates
+        Map<String, Map<String, BigDecimal>> rates = snapshot.rates();
+        Map<String, BigDecimal> row = rates.get(from);
+        BigDecimal rate = row == null ? null : row.get(to);
+        if (rate == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Unsupported currency conversion: " + from + " to " + to + ". Supported currencies: " + new TreeSet<>(rates.keySet()));
+        }
+        BigDecimal converted = amount.multiply(rate).setScale(2, RoundingMode.HALF_EVEN);
+        if (converted.compareTo(MIN_AMOUNT) < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Amount too small: " + amount.toPlainString() + " " + from + " is less than 0.01 " + to + ".");
+        }
+        return new Conversion(converted, rate);
+    }
+}
@@ -0,0 +1,86 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.beans.Transaction;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of serialized transaction detail responses, keyed by transaction ID.
+ * A committed transaction never changes, so its JSON is produced once and then served as is:
+ * a repeat view costs a hash lookup and copying the bytes to the response, with no ledger scan
+ * and no serialization.
+ * - Each entry remembers the account it belongs to; a lookup through another account misses.
+ * - Unknown transaction IDs are not cached.
+ * - The cache is bounded by the total size of the cached JSON, not by the entry count.
+ * - Hit/miss/eviction statistics are published to Micrometer (cache=transactionDetails).
+ */
+@Component
+public class TransactionDetailsCache {
+
+    static final String CACHE_NAME = "transactionDetails";
+
+    /**
+     * The serialized response of one transaction and the ID of its account.
+     */
+    private record CachedDetails(Long accountId, byte[] json) {}
+
+    private final Cache<String, CachedDetails> cache;
+    private final ObjectWriter transactionWriter;
+
+    public TransactionDetailsCache(ObjectMapper objectMapper,
+                                   @Value("${app.transaction-cache.max-bytes:16777216}") long maxBytes,
+                                   MeterRegistry meterRegistry) {
+        this.transactionWriter = objectMapper.writerFor(Transaction.class);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String transactionId, CachedDetails details) -> transactionId.length() + details.json().length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the serialized transaction, loading and serializing it on a miss.
+     * The returned array is shared and must not be modified.
+     * @param transactionId The ID of the transaction.
+     * @param accountId The ID of the account the transaction must belong to.
+     * @param loader Loads the transaction of that account, or returns null if there is none.
+     * @return The JSON bytes, or null if the account has no such transaction.
+     */
+    public byte[] get(String transactionId, Long accountId, Function<String, Transaction> loader) {
+        CachedDetails details = cache.get(transactionId, id -> {
+            Transaction transaction = loader.apply(id);
+            return transaction == null ? null : new CachedDetails(transaction.getAccountId(), serialize(transaction));
+        });
+        if (details == null || !details.accountId().equals(accountId)) {
+            return null;
+        }
+        return details.json();
+    }
+
+    /**
+     * Number of cached responses. The cache is bounded by their total JSON size, so this count
+     * moves with the size of the transactions viewed rather than against a fixed cap.
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private byte[] serialize(Transaction transaction) {
+        try {
+            return transactionWriter.writeValueAsBytes(transaction);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.beans.Transaction;
+import com.eaglebank.api.exception.ExceptionControllerAdvice;
+import com.eaglebank.api.exception.ResourceNotFoundException;
+import com.eaglebank.api.repository.TransactionRepository;
+import com.eaglebank.api.service.AccountMetadataCache.AccountMetadata;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Searches transactions by the words of their reference ("invoice 4412", "rent"), using the
+ * repository's inverted index instead of reading account histories.
+ * - Admins (ROLE_ADMIN, i.e. support staff) can search all accounts or any single account.
+ * - Other users must name one of their own accounts.
+ */
+@Service
+public class TransactionSearchService {
+
+    private final TransactionRepository transactionRepository;
+    private final AccountAccessResolver accountAccessResolver;
+    private final AccountMetadataCache accountMetadataCache;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public TransactionSearchService(TransactionRepository transactionRepository, AccountAccessResolver accountAccessResolver,
+                                    AccountMetadataCache accountMetadataCache,
+                                    @Value("${app.search.limit.default:50}") int defaultLimit,
+                                    @Value("${app.search.limit.max:500}") int maxLimit) {
+        this.transactionRepository = transactionRepository;
+        this.accountAccessResolver = accountAccessResolver;
+        this.accountMetadataCache = accountMetadataCache;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Finds the transactions whose reference contains every word of the query, newest first.
+     * @param query Free text; matching is on whole words, case-insensitive.
+     * @param accountNumber Only this account, or null for all accounts (admins only).
+     * @param from Created at or after this instant, or null.
+     * @param to Created before this instant, or null.
+     * @param limit Maximum number of results; defaults to app.search.limit.default, capped at app.search.limit.max.
+     * @param userId The ID of the authenticated user.
+     * @param admin Whether the user has ROLE_ADMIN.
+     * @throws ResponseStatusException if the query is blank or the time range is inverted (400).
+     * @throws AccessDeniedException if a non-admin searches without an account number (403).
+     * @throws ResourceNotFoundException if the account does not exist (404).
+     * @throws ExceptionControllerAdvice.ForbiddenOperationException if a non-admin names another user's account (403).
+     */
+    public List<Transaction> search(String query, String accountNumber, Instant from, Instant to, Integer limit,
+                                    Long userId, boolean admin) {
+        if (query == null || query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query 'q' must not be blank.");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must not be after 'to'.");
+        }
+
+        Long accountId = null;
+        if (accountNumber != null) {
+            accountId = admin ? requireMetadata(accountNumber).id()
+                    : accountAccessResolver.requireOwnedMetadata(accountNumber, userId).id();
+        } else if (!admin) {
+            throw new AccessDeniedException("Searching across all accounts requires ROLE_ADMIN; specify an accountNumber.");
+        }
+        return transactionRepository.searchByReference(query, accountId, from, to, resultLimit(limit));
+    }
+
+    public int resultLimit(Integer limit) {
+        if (limit == null) {
+            return defaultLimit;
+        }
+        return Math.max(0, Math.min(limit, maxLimit));
+    }
+
+    private AccountMetadata requireMetadata(String accountNumber) {
+        AccountMetadata account = accountMetadataCache.get(accountNumber);
+        if (account == null) {
+            throw new ResourceNotFoundException("Account not found with account number: " + accountNumber);
+        }
+        return account;
+    }
+}
@@ -1,20 +1,31 @@
 package com.eaglebank.api.service;
 
 import com.eaglebank.api.beans.Account;
+import com.eaglebank.api.beans.BalanceAtResponse;
+import com.eaglebank.api.beans.DailyTotals;
 import com.eaglebank.api.beans.Transaction;
 import com.eaglebank.api.beans.TransactionRequest;
+import com.eaglebank.api.beans.TransactionSyncResponse;
 import com.eaglebank.api.beans.TransactionType;
+import com.eaglebank.api.exception.DailyLimitExceededException;
 import com.eaglebank.api.exception.ExceptionControllerAdvice;
 import com.eaglebank.api.exception.ResourceNotFoundException;
+import com.eaglebank.api.exception.VelocityLimitExceededException;
 import com.eaglebank.api.repository.AccountRepository;
 import com.eaglebank.api.repository.TransactionRepository;
+import com.eaglebank.api.service.AccountMetadataCache.AccountMetadata;
 import jakarta.transaction.Transactional;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * Service class for handling transaction-related operations.
@@ -24,10 +35,30 @@ public class TransactionService {
 
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
+    private final AccountAccessResolver accountAccessResolver;
+    private final AccountMetadataCache accountMetadataCache;
+    private final TransactionDetailsCache transactionDetailsCache;
+    private final AccountReadCoalescer accountReadCoalescer;
+    private final VelocityEngine velocityEngine;
+    private final DailyWithdrawalLimiter dailyWithdrawalLimiter;
+    private final FxRateTable fxRateTable;
+    private final DailyRollups dailyRollups;
 
-    public TransactionService(AccountRepository accountRepository, TransactionRepository transactionRepository) {
+    public TransactionService(AccountRepository accountRepository, TransactionRepository transactionRepository,
+                              AccountAccessResolver accountAccessResolver, AccountMetadataCache accountMetadataCache,
+                              TransactionDetailsCache transactionDetailsCache, AccountReadCoalescer accountReadCoalescer,
+                              VelocityEngine velocityEngine, DailyWithdrawalLimiter dailyWithdrawalLimiter,
+                              FxRateTable fxRateTable, DailyRollups dailyRollups) {
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
+        this.accountAccessResolver = accountAccessResolver;
+        this.accountMetadataCache = accountMetadataCache;
+        this.transactionDetailsCache = transactionDetailsCache;
+        this.accountReadCoalescer = accountReadCoalescer;
+        this.velocityEngine = velocityEngine;
+        this.dailyWithdrawalLimiter = dailyWithdrawalLimiter;
+        this.fxRateTable = fxRateTable;
+        this.dailyRollups = dailyRollups;
     }
 
     /**
@@ -41,115 +72,271 @@ public class TransactionService {
      * @throws ExceptionControllerAdvice.ForbiddenOperationException if the account does not belong to the user (403).
      */
     public List<Transaction> getTransactionHistory(String accountNumber, Long userId) {
-        // 1. Find Account by accountNumber (Throws 404 Not Found if non-existent)
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new ResourceNotFoundException("Account not found with account number: " + accountNumber));
+        // 1. Check existence and ownership, usually from the metadata cache (404 Not Found / 403 Forbidden)
+        AccountMetadata account = accountAccessResolver.requireOwnedMetadata(accountNumber, userId);
 
-        // 2. Check Authorization (Throws 403 Forbidden if not owned by user)
-        if (!account.getUserId().equals(userId)) {
-            throw new ExceptionControllerAdvice.ForbiddenOperationException("Access denied. Account does not belong to user.");
-        }
+        // 2. Fetch and return transaction history using the internal ID; identical concurrent
+        // requests share one lookup
+        return accountReadCoalescer.findTransactionHistory(account.id());
+    }
 
-        // 3. Fetch and return transaction history using the internal ID
-        return transactionRepository.findByAccountId(account.getId());
+    /**
+     * Retrieves only the transactions added to an account after the client's watermark, after
+     * the same existence and ownership checks as getTransactionHistory. Rows come from the
+     * account's ledger index, so the cost follows the size of the delta.
+     * @param accountNumber The account number to sync.
+     * @param userId The ID of the authenticated user.
+     * @param since The sequence of the last transaction the client has (0 for a full sync).
+     * @return The newer transactions, oldest first, and the new watermark.
+     * @throws ResourceNotFoundException if the account does not exist (404).
+     * @throws ExceptionControllerAdvice.ForbiddenOperationException if the account does not belong to the user (403).
+     */
+    public TransactionSyncResponse getTransactionsSince(String accountNumber, Long userId, long since) {
+        AccountMetadata account = accountAccessResolver.requireOwnedMetadata(accountNumber, userId);
+
+        TransactionRepository.LedgerDelta delta = transactionRepository.findByAccountIdSince(account.id(), since);
+        return new TransactionSyncResponse(delta.transactions(), delta.watermark());
+    }
+
+    /**
+     * Returns the version marker of an account's transaction history (for its ETag), after the
+     * same existence and ownership checks as getTransactionHistory. No transaction rows are read.
+     * @throws ResourceNotFoundException if the account does not exist (404).
+     * @throws ExceptionControllerAdvice.ForbiddenOperationException if the account does not belong to the user (403).
+     */
+    public TransactionRepository.LedgerVersion getTransactionHistoryVersion(String accountNumber, Long userId) {
+        AccountMetadata account = accountAccessResolver.requireOwnedMetadata(accountNumber, userId);
+        return transactionRepository.findVersionByAccountId(account.id());
     }
 
     /**
      * Processes a financial transaction request (deposit or withdrawal).
+     * An amount in another currency is converted into the account's currency first; limits,
+     * the balance and the recorded amount all use the converted amount.
      * * @param accountNumber The account number (used as path ID) of the target account.
      * @param userId The ID of the authenticated user (for authorization).
      * @param request The validated transaction data.
-     * @return The resulting Transaction record.
-     * @throws RuntimeException if authorization fails, account is not found, or funds are insufficient.
+     * @return The resulting Transaction record; its ID, sequence and running balance are set once it commits.
+     * @throws ResourceNotFoundException if the account does not exist (404).
+     * @throws ExceptionControllerAdvice.ForbiddenOperationException if the account does not belong to the user (403).
+     * @throws VelocityLimitExceededException if the transaction would break a velocity rule (429).
+     * @throws DailyLimitExceededException if a withdrawal would exceed the daily withdrawal limit (422).
+     * @throws org.springframework.web.server.ResponseStatusException if the currency has no FX rate (400).
+     * @throws RuntimeException if funds are insufficient.
      */
     @Transactional
     public Transaction processTransaction(String accountNumber, Long userId, TransactionRequest request) {
 
         // --- 1. Authorization & Existence Check (using Account Number) ---
-        // Verify account exists and belongs to the authenticated user.
-        Optional<Account> account = accountRepository.findByAccountNumberAndUserId(accountNumber, userId);
-        if (account.isEmpty()) {
-            // Throws a RuntimeException, which the controller will translate to an appropriate error response.
-            throw new RuntimeException("Account not found or unauthorized for account number: " + accountNumber);
-        }
+        // Verify account exists and belongs to the authenticated user; usually answered from the metadata cache.
+        AccountMetadata account = accountAccessResolver.requireOwnedMetadata(accountNumber, userId);
 
-        BigDecimal transactionAmount = request.getAmount();
-        BigDecimal currentBalance = account.get().getBalance();
-        BigDecimal newBalance;
+        // --- 2. Currency Conversion ---
+        // Into the account's currency, at the rates of the current in-memory FX snapshot (lock-free read).
+        FxRateTable.Conversion conversion = fxRateTable.convert(request.getAmount(), request.getCurrency(), account.currency());
+        BigDecimal transactionAmount = conversion.amount();
+        BigDecimal balanceDelta;
         TransactionType type = request.toTransactionType();
 
-        // --- 2. Transaction Logic (Deposit/Withdrawal) ---
+        // --- 3. Transaction Logic (Deposit/Withdrawal) ---
         if (type == TransactionType.withdrawal) {
-
-            // --- 3. Funds Check for Withdrawal ---
-            if (currentBalance.compareTo(transactionAmount) < 0) {
-                // Throws a RuntimeException for insufficient funds.
-                throw new RuntimeException("Insufficient funds in account number: " + accountNumber + ". Current balance: " + currentBalance);
-            }
-
-            // Calculate new balance: current - amount
-            newBalance = currentBalance.subtract(transactionAmount);
-
+            // Withdrawals subtract from the balance
+            balanceDelta = transactionAmount.negate();
         } else if (type == TransactionType.deposit) {
-
-            // Calculate new balance: current + amount
-            newBalance = currentBalance.add(transactionAmount);
-
+            // Deposits add to the balance
+            balanceDelta = transactionAmount;
         } else {
             throw new RuntimeException("Invalid transaction type: " + type);
         }
 
-        // --- 4. Update Account Balance ---
-        accountRepository.updateBalance(account.get().getId(), newBalance);
+        // --- 4. Velocity Check ---
+        // Reserves the transaction in the account's in-memory sliding windows (check and update
+        // in one atomic step), before the balance is touched; released below if it does not apply.
+        Instant now = Instant.now();
+        velocityEngine.reserve(account.id(), type, transactionAmount, account.currency(), now);
+
+        // --- 5. Daily Withdrawal Limit ---
+        // Reserves the amount in the account's in-memory daily counter (check and update in one
+        // atomic step); released below if the balance update does not go through.
+        boolean limited = type == TransactionType.withdrawal;
+        if (limited) {
+            dailyWithdrawalLimiter.reserve(account.id(), transactionAmount, account.currency(), now);
+        }
 
-        // --- 5. Register Transaction Record ---
+        // --- 6. Funds Check and Account Balance Update ---
+        // A single conditional UPDATE: it only applies if the balance stays non-negative.
+        // It also bumps the account's updatedTimestamp, its version marker for ETags.
+        // Only transactions that went through count towards the limits: the reservations are
+        // released if the update does not apply, or if the surrounding transaction rolls back.
+        Runnable releaseLimits = () -> {
+            velocityEngine.release(account.id(), type, transactionAmount, now);
+            if (limited) {
+                dailyWithdrawalLimiter.release(account.id(), transactionAmount, now);
+            }
+        };
+        boolean applied = false;
+        try {
+            applied = accountRepository.adjustBalance(account.id(), balanceDelta, now) == 1;
+        } finally {
+            if (!applied) {
+                releaseLimits.run();
+            }
+        }
+        afterRollback(releaseLimits);
+        if (!applied) {
+            // Nothing was updated: the account was deleted meanwhile, or funds are insufficient
+            Account current = accountRepository.findById(account.id()).orElseThrow(() -> {
+                accountMetadataCache.invalidate(accountNumber);
+                return new ResourceNotFoundException("Account not found with account number: " + accountNumber);
+            });
+            // Throws a RuntimeException for insufficient funds.
+            throw new RuntimeException("Insufficient funds in account number: " + accountNumber + ". Current balance: " + current.getBalance());
+        }
+        // --- 7. Register Transaction Record ---
         Transaction transaction = new Transaction();
-        transaction.setAccountId(account.get().getId());
-        transaction.setCreatedTimestamp(Instant.now());
+        transaction.setAccountId(account.id());
+        transaction.setCreatedTimestamp(now);
         transaction.setAmount(transactionAmount);
-        transaction.setCurrency(request.getCurrency());
+        transaction.setCurrency(account.currency());
+        transaction.setOriginalAmount(request.getAmount());
+        transaction.setOriginalCurrency(request.getCurrency());
+        transaction.setFxRate(conversion.rate());
         transaction.setType(type);
         transaction.setReference(request.getReference());
+        // The in-memory ledger is not part of the database transaction, so the row is only
+        // published once the balance update has committed, and never for a rolled-back one.
+        // Its slot is claimed now, while the account row is still locked, so rows are published
+        // in the order balances were applied; the ID, sequence and running balance are set on
+        // publication, before the response is written.
+        long slot = transactionRepository.claimSlot(account.id());
+        afterCompletion(() -> transactionRepository.publish(slot, transaction),
+                () -> transactionRepository.drop(account.id(), slot));
 
-        return transactionRepository.save(transaction);
+        // --- 8. Daily Rollups ---
+        // Counted once the balance update has committed, never for a rolled-back transaction.
+        afterCommit(() -> dailyRollups.record(transaction));
+
+        return transaction;
     }
 
     /**
-     * Retrieves a single transaction detail for a given account and transaction ID.
-     * @param accountNumber The target account number.
-     * @param transactionId The ID of the transaction to fetch.
-     * @param userId The ID of the authenticated user (for authorization).
-     * @return The Transaction record.
-     * @throws ResourceNotFoundException if the account/transaction is not found or unauthorized.
+     * Returns an account's totals for each day of a range, after the same existence and
+     * ownership checks as getTransactionHistory. Served from the daily rollups: the cost follows
+     * the number of days requested, not the number of transactions.
+     * @param accountNumber The account number.
+     * @param userId The ID of the authenticated user.
+     * @param from The first day; defaults to app.analytics.default-days before "to".
+     * @param to The last day (inclusive); defaults to today.
+     * @return One entry per day, oldest first.
+     * @throws ResponseStatusException if from is after to, or the range exceeds app.analytics.max-days (400).
+     * @throws ResourceNotFoundException if the account does not exist (404).
+     * @throws ExceptionControllerAdvice.ForbiddenOperationException if the account does not belong to the user (403).
      */
-    public Transaction getTransactionDetails(String accountNumber, String transactionId, Long userId) {
+    public List<DailyTotals> getDailyTotals(String accountNumber, Long userId, LocalDate from, LocalDate to) {
+        AccountMetadata account = accountAccessResolver.requireOwnedMetadata(accountNumber, userId);
 
-        // 1. Authorization Check: Account must exist AND belong to the authenticated user.
-        Optional<Account> account = accountRepository.findByAccountNumberAndUserId(accountNumber, userId);
-        Optional<Account> accountByNumber = accountRepository.findByAccountNumber(accountNumber);
+        LocalDate end = to != null ? to : dailyRollups.today();
+        LocalDate start = from != null ? from : end.minusDays(dailyRollups.getDefaultDays() - 1L);
+        if (start.isAfter(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must not be after 'to'.");
+        }
+        if (ChronoUnit.DAYS.between(start, end) + 1 > dailyRollups.getMaxDays()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A range of at most " + dailyRollups.getMaxDays() + " days can be requested.");
+        }
+        return dailyRollups.range(account.id(), start, end);
+    }
 
-        if (account.isEmpty()) {
-            if(accountByNumber.isPresent()) {
-                // Account exists but does not belong to user - Throw 403 Forbidden
-                throw new ExceptionControllerAdvice.ForbiddenOperationException("Access denied. Account does not belong to user.");
-            }
-            // Throw 404 if account is missing or unauthorized
-            throw new ResourceNotFoundException("Account not found or access denied for account number: " + accountNumber);
+    /**
+     * Returns an account's balance as of a point in time, after the same existence and ownership
+     * checks as getTransactionHistory: the running balance recorded on the last transaction
+     * applied by then, found by a binary search over the account's ledger (O(log n), no replay).
+     * @param accountNumber The account number.
+     * @param userId The ID of the authenticated user.
+     * @param at The point in time (inclusive).
+     * @throws ResourceNotFoundException if the account does not exist (404).
+     * @throws ExceptionControllerAdvice.ForbiddenOperationException if the account does not belong to the user (403).
+     */
+    public BalanceAtResponse getBalanceAt(String accountNumber, Long userId, Instant at) {
+        AccountMetadata account = accountAccessResolver.requireOwnedMetadata(accountNumber, userId);
+
+        Transaction last = transactionRepository.findLastByAccountIdAt(account.id(), at);
+        if (last == null) {
+            // Accounts open with a zero balance
+            return new BalanceAtResponse(accountNumber, at, BigDecimal.ZERO.setScale(2), account.currency(), null, 0);
         }
+        return new BalanceAtResponse(accountNumber, at, last.getBalanceAfter(), account.currency(), last.getId(), last.getSequence());
+    }
 
-        // 2. Resource Check: Transaction must exist AND belong to the specified account.
-        Transaction transaction = transactionRepository.findByIdAndAccountId(transactionId, account.get().getId());
+    // Runs the action after the surrounding transaction commits, or straight away outside one
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
 
-        if (transaction == null) {
-            // Throw 404 if transaction is missing or not associated with this account
-            throw new ResourceNotFoundException("Transaction ID not found for account number: " + accountNumber);
+    // Runs onCommit after the surrounding transaction commits and otherwise (rolled back, or an
+    // unknown outcome) runs onFailure; outside a transaction, runs onCommit straight away
+    private static void afterCompletion(Runnable onCommit, Runnable onFailure) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        onCommit.run();
+                    } else {
+                        onFailure.run();
+                    }
+                }
+            });
+        } else {
+            onCommit.run();
         }
+    }
 
-        if(transaction.getAccountId() != account.get().getId()) {
-            // Transaction does not belong to the specified account - Throw 404 Forbidden
-            throw new ResourceNotFoundException("Transaction ID not found for account number: " + accountNumber);
+    // Runs the action if the surrounding transaction rolls back; outside one, nothing can roll back
+    private static void afterRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        action.run();
+                    }
+                }
+            });
         }
+    }
 
-        return transaction;
+    /**
+     * Retrieves a single transaction of an account, already serialized as JSON.
+     * Ownership is checked first (usually from the metadata cache); the body then comes from the
+     * transaction details cache, so repeat views neither scan the ledger nor serialize again.
+     * The loader only finds the transaction within that account, so a transaction of another
+     * account is reported as missing.
+     * @param accountNumber The target account number.
+     * @param transactionId The ID of the transaction to fetch.
+     * @param userId The ID of the authenticated user (for authorization).
+     * @return The JSON bytes of the Transaction record; shared, must not be modified.
+     * @throws ResourceNotFoundException if the account/transaction is not found (404).
+     * @throws ExceptionControllerAdvice.ForbiddenOperationException if the account does not belong to the user (403).
+     */
+    public byte[] getTransactionDetailsJson(String accountNumber, String transactionId, Long userId) {
+        AccountMetadata account = accountAccessResolver.requireOwnedMetadata(accountNumber, userId);
+
+        byte[] json = transactionDetailsCache.get(transactionId, account.id(),
+                id -> transactionRepository.findByIdAndAccountId(id, account.id()));
+        if (json == null) {
+            // Missing, or cached under another account
+            throw new ResourceNotFoundException("Transaction ID not found for account number: " + accountNumber);
+        }
+        return json;
     }
 }
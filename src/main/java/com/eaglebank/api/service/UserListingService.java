@@ -0,0 +1,107 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.beans.User;
+import com.eaglebank.api.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Lists users without ever holding the whole table in memory.
+ * - findPage: keyset pagination on the user ID, with the page size capped.
+ * - writeAll: streams every user as a JSON array, serializing each row as it is read from
+ *   the JDBC cursor and detaching it straight away, so memory stays flat whatever the row count.
+ */
+@Service
+public class UserListingService {
+
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter userWriter;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public UserListingService(UserRepository userRepository,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              @Value("${app.users.page.default-size:50}") int defaultPageSize,
+                              @Value("${app.users.page.max-size:500}") int maxPageSize) {
+        this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        // Let the generator's buffer decide when to hit the socket, rather than flushing per user
+        this.userWriter = objectMapper.writerFor(User.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Returns the page of users following afterId, in ID order.
+     * @param afterId The last user ID of the previous page, or null for the first page.
+     * @param limit The requested page size, or null for the default; capped at the maximum page size.
+     */
+    public List<User> findPage(Long afterId, Integer limit) {
+        return userRepository.findByIdGreaterThanOrderByIdAsc(afterId == null ? 0L : afterId, Limit.of(pageSize(limit)));
+    }
+
+    /**
+     * The page size actually used for a requested limit.
+     */
+    public int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    /**
+     * Writes every user to the output stream as a JSON array, in ID order.
+     * The output stream is flushed but not closed.
+     */
+    public void writeAll(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            // The cursor is only open inside a transaction
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<User> users = userRepository.streamAll()) {
+                    users.forEach(user -> {
+                        write(generator, user);
+                        // Keep the persistence context from growing with every row
+                        entityManager.detach(user);
+                    });
+                }
+            });
+            generator.writeEndArray();
+        } catch (UncheckedIOException e) {
+            // Typically the client went away mid-stream
+            throw e.getCause();
+        }
+    }
+
+    private void write(JsonGenerator generator, User user) {
+        try {
+            userWriter.writeValue(generator, user);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
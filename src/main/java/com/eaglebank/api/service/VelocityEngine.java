@@ -0,0 +1,300 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.beans.TransactionType;
+import com.eaglebank.api.exception.TransactionTooLargeException;
+import com.eaglebank.api.exception.VelocityLimitExceededException;
+import com.eaglebank.api.helper.MinorUnits;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory velocity checks for the transaction path: blocks bursts such as "more than 20
+ * withdrawals" or "more than 5000 withdrawn" on one account within 10 minutes, without ever
+ * querying the ledger.
+ * - Rules come from app.velocity.rules, a comma-separated list of
+ *   {@code <transaction type>:<count|amount>:<limit>:<window>}, e.g. withdrawal:amount:5000:PT10M.
+ *   Amount limits are in the FX base currency and converted into the account's currency at the
+ *   current rates on each reservation; the windows hold amounts in the account's currency.
+ * - Each account has one sliding window per rule: a ring buffer of app.velocity.buckets time
+ *   slots holding a count and a sum, published as one immutable snapshot. A transaction is
+ *   reserved with compare-and-set on that snapshot, so the check and the update are one atomic
+ *   step: concurrent requests for the same account can never overshoot a limit together.
+ *   A reservation reads and copies at most that many slots, well under a microsecond.
+ * - A transaction larger than an amount limit on its own is refused outright (422), as waiting
+ *   for the window to empty would not help.
+ * - If a later rule refuses a transaction, the rules already reserved for it are released.
+ *   The caller releases the whole reservation if the balance update does not go through.
+ * - Accounts idle for longer than app.velocity.idle-eviction (never less than the longest
+ *   window) are evicted, and at most app.velocity.max-accounts are tracked, so memory is bounded.
+ * - Statistics of the per-account state are published to Micrometer (cache=velocityWindows).
+ */
+@Component
+public class VelocityEngine {
+
+    static final String CACHE_NAME = "velocityWindows";
+
+    /**
+     * What a rule limits within its window.
+     */
+    public enum Measure { count, amount }
+
+    /**
+     * One velocity rule.
+     * @param limit The maximum count, or the maximum amount in minor units of the FX base currency.
+     */
+    public record VelocityRule(TransactionType type, Measure measure, long limit, Duration window) {
+
+        /**
+         * Parses {@code <transaction type>:<count|amount>:<limit>:<window>}, e.g. withdrawal:count:20:PT10M.
+         */
+        public static VelocityRule parse(String rule) {
+            String[] parts = rule.trim().split(":");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid velocity rule '" + rule + "', expected <type>:<count|amount>:<limit>:<window>");
+            }
+            TransactionType type = TransactionType.valueOf(parts[0].trim().toLowerCase(Locale.ROOT));
+            Measure measure = Measure.valueOf(parts[1].trim().toLowerCase(Locale.ROOT));
+            BigDecimal limit = new BigDecimal(parts[2].trim());
+            Duration window = Duration.parse(parts[3].trim());
+            return new VelocityRule(type, measure, measure == Measure.amount ? MinorUnits.of(limit) : limit.longValueExact(), window);
+        }
+
+        String describe(long effectiveLimit, String currency) {
+            String limitText = measure == Measure.amount
+                    ? MinorUnits.toAmount(effectiveLimit).toPlainString() + " " + currency + " in " + type + "s"
+                    : effectiveLimit + " " + type + "s";
+            return "at most " + limitText + " per " + window;
+        }
+    }
+
+    /**
+     * Sliding window over a ring buffer of time slots. The ring is an immutable snapshot
+     * replaced by compare-and-set; a slot left over from an earlier lap of the ring is
+     * reset by the first writer of the new lap.
+     */
+    static final class SlidingWindow {
+
+        private record Slot(long index, long count, long amount) {}
+
+        private final AtomicReference<Slot[]> ring;
+        private final int buckets;
+        private final long slotMillis;
+
+        SlidingWindow(Duration window, int buckets) {
+            this.ring = new AtomicReference<>(new Slot[buckets]);
+            this.buckets = buckets;
+            this.slotMillis = Math.max(1, window.toMillis() / buckets);
+        }
+
+        /**
+         * Adds one transaction of the given amount if the window's total of the measure stays
+         * within the limit; the check and the update are one atomic step.
+         * @return false if the transaction would exceed the limit; nothing is added then.
+         */
+        boolean tryAdd(long nowMillis, Measure measure, long limit, long amount) {
+            long index = nowMillis / slotMillis;
+            int position = (int) (index % buckets);
+            long added = measure == Measure.count ? 1 : amount;
+            while (true) {
+                Slot[] current = ring.get();
+                Slot slot = current[position];
+                if (slot != null && slot.index() > index) {
+                    // A later lap already holds the slot: this caller's "now" is a full window
+                    // behind (it stalled after reading the clock). Count it in that lap instead,
+                    // against that lap's window; a release with the old time then finds nothing
+                    // to take back, which errs on the side of the limit.
+                    index = slot.index();
+                }
+                if (total(current, index, measure) + added > limit) {
+                    return false;
+                }
+                Slot[] next = current.clone();
+                next[position] = slot == null || slot.index() != index
+                        ? new Slot(index, 1, amount)
+                        : new Slot(index, slot.count() + 1, slot.amount() + amount);
+                if (ring.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Takes back a transaction added at the given time. Once its slot has left the ring
+         * there is nothing to take back.
+         */
+        void remove(long addedMillis, long amount) {
+            long index = addedMillis / slotMillis;
+            int position = (int) (index % buckets);
+            while (true) {
+                Slot[] current = ring.get();
+                Slot slot = current[position];
+                if (slot == null || slot.index() != index) {
+                    return;
+                }
+                Slot[] next = current.clone();
+                next[position] = new Slot(index, Math.max(0, slot.count() - 1), Math.max(0, slot.amount() - amount));
+                if (ring.compareAndSet(current, next)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * The total of the given measure over the window ending now.
+         */
+        long total(long nowMillis, Measure measure) {
+            return total(ring.get(), nowMillis / slotMillis, measure);
+        }
+
+        private long total(Slot[] slots, long index, Measure measure) {
+            long total = 0;
+            for (Slot slot : slots) {
+                if (slot != null && slot.index() > index - buckets && slot.index() <= index) {
+                    total += measure == Measure.count ? slot.count() : slot.amount();
+                }
+            }
+            return total;
+        }
+
+        /**
+         * How long until the oldest slot still in the window drops out of it.
+         */
+        Duration untilOldestExpires(long nowMillis) {
+            long index = nowMillis / slotMillis;
+            long oldest = index;
+            for (Slot slot : ring.get()) {
+                if (slot != null && slot.index() > index - buckets && slot.index() < oldest) {
+                    oldest = slot.index();
+                }
+            }
+            return Duration.ofMillis((oldest + buckets) * slotMillis - nowMillis);
+        }
+    }
+
+    private final List<VelocityRule> rules;
+    private final FxRateTable fxRateTable;
+    private final int buckets;
+    private final Cache<Long, SlidingWindow[]> accounts;
+
+    public VelocityEngine(@Value("${app.velocity.rules:}") List<String> rules,
+                          @Value("${app.velocity.buckets:60}") int buckets,
+                          @Value("${app.velocity.idle-eviction:PT1H}") Duration idleEviction,
+                          @Value("${app.velocity.max-accounts:100000}") long maxAccounts,
+                          FxRateTable fxRateTable,
+                          MeterRegistry meterRegistry) {
+        this.rules = rules.stream()
+                .filter(rule -> !rule.isBlank())
+                .map(VelocityRule::parse)
+                .toList();
+        this.fxRateTable = fxRateTable;
+        this.buckets = buckets;
+        // An account must not be evicted while its oldest slot still counts
+        Duration longestWindow = this.rules.stream().map(VelocityRule::window).max(Duration::compareTo).orElse(Duration.ZERO);
+        this.accounts = Caffeine.newBuilder()
+                .maximumSize(maxAccounts)
+                .expireAfterAccess(longestWindow.compareTo(idleEviction) > 0 ? longestWindow : idleEviction)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, accounts, CACHE_NAME);
+    }
+
+    public List<VelocityRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Reserves a transaction in the windows of every rule for its type, if it fits within all
+     * of them. Pair with release if the transaction is not applied after all.
+     * @param amount The transaction amount, in the account's currency.
+     * @param currency The account's currency, into which amount limits are converted.
+     * @throws TransactionTooLargeException if it exceeds an amount rule on its own (422); nothing is reserved.
+     * @throws VelocityLimitExceededException if it would exceed a rule (429); nothing is reserved.
+     */
+    public void reserve(Long accountId, TransactionType type, BigDecimal amount, String currency, Instant now) {
+        if (rules.stream().noneMatch(rule -> rule.type() == type)) {
+            return;
+        }
+        long minorAmount = MinorUnits.of(amount);
+        long[] limits = new long[rules.size()];
+        for (int i = 0; i < rules.size(); i++) {
+            VelocityRule rule = rules.get(i);
+            if (rule.type() != type) {
+                continue;
+            }
+            limits[i] = rule.measure() == Measure.amount ? amountLimit(rule, currency) : rule.limit();
+            if (rule.measure() == Measure.amount && minorAmount > limits[i]) {
+                throw new TransactionTooLargeException(
+                        "Transaction amount exceeds the velocity limit for this account: " + rule.describe(limits[i], currency));
+            }
+        }
+        SlidingWindow[] windows = accounts.get(accountId, id -> newWindows());
+        long nowMillis = now.toEpochMilli();
+        for (int i = 0; i < rules.size(); i++) {
+            VelocityRule rule = rules.get(i);
+            if (rule.type() != type) {
+                continue;
+            }
+            long limit = limits[i];
+            if (!windows[i].tryAdd(nowMillis, rule.measure(), limit, minorAmount)) {
+                // Give back what the earlier rules reserved for this transaction
+                for (int j = 0; j < i; j++) {
+                    if (rules.get(j).type() == type) {
+                        windows[j].remove(nowMillis, minorAmount);
+                    }
+                }
+                throw new VelocityLimitExceededException(
+                        "Velocity limit exceeded for this account: " + rule.describe(limit, currency), windows[i].untilOldestExpires(nowMillis));
+            }
+        }
+    }
+
+    // An amount rule's limit in minor units of the given currency, at the current rates
+    private long amountLimit(VelocityRule rule, String currency) {
+        BigDecimal limit = MinorUnits.toAmount(rule.limit());
+        return MinorUnits.of(fxRateTable.convert(limit, fxRateTable.getSnapshot().base(), currency).amount());
+    }
+
+    /**
+     * Gives back a reservation whose transaction was not applied.
+     */
+    public void release(Long accountId, TransactionType type, BigDecimal amount, Instant reservedAt) {
+        SlidingWindow[] windows = accounts.getIfPresent(accountId);
+        if (windows == null) {
+            return;
+        }
+        long reservedMillis = reservedAt.toEpochMilli();
+        long minorAmount = MinorUnits.of(amount);
+        for (int i = 0; i < rules.size(); i++) {
+            if (rules.get(i).type() == type) {
+                windows[i].remove(reservedMillis, minorAmount);
+            }
+        }
+    }
+
+    /**
+     * Number of accounts with sliding windows, including idle ones that are due for eviction but
+     * not yet evicted.
+     */
+    public long trackedAccounts() {
+        return accounts.estimatedSize();
+    }
+
+    private SlidingWindow[] newWindows() {
+        SlidingWindow[] windows = new SlidingWindow[rules.size()];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = new SlidingWindow(rules.get(i).window(), buckets);
+        }
+        return windows;
+    }
+}
@@ -1,17 +1,33 @@
 package com.eaglebank.api.controller;
 
 import com.eaglebank.api.beans.Account;
+import com.eaglebank.api.beans.AccountDetailsResponse;
 import com.eaglebank.api.beans.AccountType;
+import com.eaglebank.api.beans.BalanceAtResponse;
+import com.eaglebank.api.beans.DailyTotals;
 import com.eaglebank.api.beans.Transaction;
+import com.eaglebank.api.beans.TransactionSyncResponse;
 import com.eaglebank.api.beans.User;
+import com.eaglebank.api.exception.AccountNumbersExhaustedException;
+import com.eaglebank.api.helper.ETags;
+import com.eaglebank.api.helper.SparseFieldsets;
 import com.eaglebank.api.repository.AccountRepository;
+import com.eaglebank.api.repository.TransactionRepository;
 import com.eaglebank.api.repository.UserRepository;
+import com.eaglebank.api.security.AuthenticatedUser;
+import com.eaglebank.api.service.AccountAccessResolver;
+import com.eaglebank.api.service.AccountMetadataCache;
+import com.eaglebank.api.service.AccountNumberAllocator;
+import com.eaglebank.api.service.AccountReadCoalescer;
+import com.eaglebank.api.service.FxRateTable;
 import com.eaglebank.api.service.TransactionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -19,13 +35,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
@@ -33,13 +52,18 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.core.context.SecurityContextHolder.getContext;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -47,6 +71,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(AccountController.class)
+@Import({AccountAccessResolver.class, AccountReadCoalescer.class, SparseFieldsets.class, FxRateTable.class, SimpleMeterRegistry.class})
 @WithMockUser(username = "testuser", roles = {"USER"})
 public class AccountControllerTest {
 
@@ -59,6 +84,15 @@ public class AccountControllerTest {
     @MockitoBean
     private TransactionService transactionService;
 
+    @MockitoBean
+    private AccountNumberAllocator accountNumberAllocator;
+
+    @MockitoBean
+    private AccountMetadataCache accountMetadataCache;
+
+    @MockitoBean
+    private TransactionRepository transactionRepository;
+
     @Autowired
     MockMvc mockMvc;
 
@@ -111,6 +145,7 @@ public class AccountControllerTest {
         savedAccount.setCreatedTimestamp(now);
         savedAccount.setUpdatedTimestamp(now);
 
+        when(accountNumberAllocator.nextAccountNumber()).thenReturn("87654321");
         when(accountRepository.save(any(Account.class))).thenReturn(savedAccount);
 
         String requestJson = "{\"name\":\"My Savings\",\"accountType\":\"SAVINGS\"}";
@@ -125,7 +160,8 @@ public class AccountControllerTest {
                 .andExpect(jsonPath("$.accountNumber").value("87654321"))
                 .andExpect(jsonPath("$.name").value("My Savings"));
 
-        verify(accountRepository, times(1)).save(any(Account.class));
+        verify(accountNumberAllocator, times(1)).nextAccountNumber();
+        verify(accountRepository, times(1)).save(argThat(account -> "87654321".equals(account.getAccountNumber())));
         verify(userRepository, times(1)).findByEmail(user1.getEmail());
     }
 
@@ -147,29 +183,109 @@ public class AccountControllerTest {
         verify(accountRepository, never()).save(any(Account.class));
     }
 
+    @Test
+    public void testCreateAccount_WithCurrency_UsesIt() throws Exception {
+        mockAuthUser(user1);
+
+        when(accountNumberAllocator.nextAccountNumber()).thenReturn("87654321");
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        String requestJson = "{\"name\":\"Travel\",\"accountType\":\"PERSONAL\",\"currency\":\"EUR\"}";
+
+        mockMvc.perform(post("/v1/accounts")
+                        .with(user(user1.getEmail()))
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.currency").value("EUR"));
+    }
+
+    @Test
+    public void testCreateAccount_UnsupportedCurrency_BadRequest() throws Exception {
+        mockAuthUser(user1);
+
+        String requestJson = "{\"name\":\"Travel\",\"accountType\":\"PERSONAL\",\"currency\":\"XYZ\"}";
+
+        mockMvc.perform(post("/v1/accounts")
+                        .with(user(user1.getEmail()))
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isBadRequest());
+
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
+    @Test
+    public void testCreateAccount_NumbersExhausted_ServiceUnavailable() throws Exception {
+        mockAuthUser(user1);
+
+        when(accountNumberAllocator.nextAccountNumber())
+                .thenThrow(new AccountNumbersExhaustedException("No account numbers are available. Please try again later."));
+
+        String requestJson = "{\"name\":\"My Savings\",\"accountType\":\"SAVINGS\"}";
+
+        // A server-side capacity fault, not a 409 conflict on the client's request
+        mockMvc.perform(post("/v1/accounts")
+                        .with(user(user1.getEmail()))
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.statuscode").value(503));
+
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
     @Test
     public void testGetAccounts_ReturnsList() throws Exception {
         mockAuthUser(user1);
 
-        when(accountRepository.findAllByUserId(user1.getId()))
-                .thenReturn(List.of(account1));
+        when(accountRepository.findDetailsByUserId(user1.getId()))
+                .thenReturn(List.of(AccountDetailsResponse.fromEntity(account1)));
 
         mockMvc.perform(get("/v1/accounts")
                         .with(user(user1.getEmail())))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].name").value("Primary"))
-                .andExpect(jsonPath("$[0].accountNumber").value("00001234"));
+                .andExpect(jsonPath("$[0].accountNumber").value("00001234"))
+                .andExpect(header().string("ETag", "\"" + ETags.ofAccountList(1, account1.getUpdatedTimestamp()) + "\""))
+                .andExpect(header().string("Cache-Control", "no-cache, private"));
 
-        verify(accountRepository, times(1)).findAllByUserId(user1.getId());
+        // Rows are selected straight into DTOs; no Account entities are loaded
+        verify(accountRepository, times(1)).findDetailsByUserId(user1.getId());
+        verify(accountRepository, never()).findAllByUserId(any());
         verify(userRepository, times(1)).findByEmail(user1.getEmail());
     }
 
+    @Test
+    public void testGetAccounts_JwtPrincipal_NoUserLookup() throws Exception {
+        AuthenticatedUser principal = new AuthenticatedUser(user1.getId(), user1.getEmail(),
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+        when(accountRepository.findDetailsByUserId(user1.getId()))
+                .thenReturn(List.of(AccountDetailsResponse.fromEntity(account1)));
+
+        mockMvc.perform(get("/v1/accounts")
+                        .with(authentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].accountNumber").value("00001234"));
+
+        // The user ID comes from the token principal: no DB round-trip to resolve it
+        verify(userRepository, never()).findByEmail(any());
+        verify(accountRepository, times(1)).findDetailsByUserId(user1.getId());
+    }
+
     @Test
     public void testGetAccountByNumber_Success() throws Exception {
         mockAuthUser(user1);
 
-        when(accountRepository.findByAccountNumberAndUserId(account1.getAccountNumber(), user1.getId()))
-                .thenReturn(Optional.of(account1));
+        when(accountRepository.findDetailsByAccountNumberAndUserId(account1.getAccountNumber(), user1.getId()))
+                .thenReturn(Optional.of(AccountDetailsResponse.fromEntity(account1)));
 
         mockMvc.perform(get("/v1/accounts/{accountId}", account1.getAccountNumber())
                         .with(user(user1.getEmail())))
@@ -177,52 +293,105 @@ public class AccountControllerTest {
                 .andExpect(jsonPath("$.accountNumber").value(account1.getAccountNumber()))
                 .andExpect(jsonPath("$.name").value("Primary"));
 
-        verify(accountRepository, times(1)).findByAccountNumberAndUserId(account1.getAccountNumber(), user1.getId());
+        // A single owner-scoped DTO query; ownership is only classified on a miss
+        verify(accountRepository, times(1)).findDetailsByAccountNumberAndUserId(account1.getAccountNumber(), user1.getId());
+        verify(accountRepository, never()).findByAccountNumber(any());
+        verify(accountMetadataCache, never()).get(any());
+    }
+
+    @Test
+    public void testGetAccountByNumber_IfNoneMatchCurrent_NotModified() throws Exception {
+        mockAuthUser(user1);
+
+        when(accountRepository.findUpdatedTimestampByAccountNumberAndUserId(account1.getAccountNumber(), user1.getId()))
+                .thenReturn(Optional.of(account1.getUpdatedTimestamp()));
+        String etag = "\"" + ETags.ofAccount(account1.getUpdatedTimestamp()) + "\"";
+
+        mockMvc.perform(get("/v1/accounts/{accountId}", account1.getAccountNumber())
+                        .header("If-None-Match", etag)
+                        .with(user(user1.getEmail())))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+
+        // Only the version marker is read: no DTO query, no body
+        verify(accountRepository, never()).findDetailsByAccountNumberAndUserId(any(), any());
+    }
+
+    @Test
+    public void testGetAccountByNumber_IfNoneMatchStale_ReturnsAccountWithNewTag() throws Exception {
+        mockAuthUser(user1);
+
+        Instant previous = account1.getUpdatedTimestamp().minusSeconds(60);
+        when(accountRepository.findUpdatedTimestampByAccountNumberAndUserId(account1.getAccountNumber(), user1.getId()))
+                .thenReturn(Optional.of(account1.getUpdatedTimestamp()));
+        when(accountRepository.findDetailsByAccountNumberAndUserId(account1.getAccountNumber(), user1.getId()))
+                .thenReturn(Optional.of(AccountDetailsResponse.fromEntity(account1)));
+
+        mockMvc.perform(get("/v1/accounts/{accountId}", account1.getAccountNumber())
+                        .header("If-None-Match", "\"" + ETags.ofAccount(previous) + "\"")
+                        .with(user(user1.getEmail())))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + ETags.ofAccount(account1.getUpdatedTimestamp()) + "\""))
+                .andExpect(jsonPath("$.accountNumber").value(account1.getAccountNumber()));
+    }
+
+    @Test
+    public void testGetAccounts_IfNoneMatchCurrent_NotModified() throws Exception {
+        mockAuthUser(user1);
+
+        AccountRepository.AccountListVersion version = new AccountRepository.AccountListVersion() {
+            public long getAccountCount() { return 1; }
+            public Instant getLastUpdated() { return account1.getUpdatedTimestamp(); }
+        };
+        when(accountRepository.findListVersionByUserId(user1.getId())).thenReturn(version);
+        String etag = "\"" + ETags.ofAccountList(1, account1.getUpdatedTimestamp()) + "\"";
+
+        mockMvc.perform(get("/v1/accounts")
+                        .header("If-None-Match", etag)
+                        .with(user(user1.getEmail())))
+                .andExpect(status().isNotModified());
+
+        verify(accountRepository, never()).findDetailsByUserId(any());
     }
 
     @Test
     public void testGetAccountByNumber_ForbiddenWhenOwnedByAnother() throws Exception {
         mockAuthUser(user1);
 
-        // Simulate lookup by account number and userId returns empty (not owned)
-        when(accountRepository.findByAccountNumberAndUserId(account1.getAccountNumber(), user1.getId()))
+        // The owner-scoped query finds nothing, but the account exists and belongs to someone else
+        when(accountRepository.findDetailsByAccountNumberAndUserId(account1.getAccountNumber(), user1.getId()))
                 .thenReturn(Optional.empty());
-
-        // But the account exists belonging to someone else
-        Account other = new Account();
-        other.setAccountNumber(account1.getAccountNumber());
-        other.setUserId(999L);
-        when(accountRepository.findByAccountNumber(account1.getAccountNumber()))
-                .thenReturn(Optional.of(other));
+        when(accountMetadataCache.get(account1.getAccountNumber()))
+                .thenReturn(new AccountMetadataCache.AccountMetadata(account1.getId(), 999L, account1.getAccountType(), "GBP"));
 
         mockMvc.perform(get("/v1/accounts/{accountId}", account1.getAccountNumber())
                         .with(user(user1.getEmail())))
                 .andExpect(status().isForbidden());
 
-        verify(accountRepository, times(1)).findByAccountNumberAndUserId(account1.getAccountNumber(), user1.getId());
-        verify(accountRepository, times(1)).findByAccountNumber(account1.getAccountNumber());
+        // 403 vs 404 comes from the account metadata cache, not a second account query
+        verify(accountRepository, never()).findByAccountNumber(any());
+        verify(accountRepository, never()).findByAccountNumberAndUserId(any(), any());
     }
 
     @Test
     public void testGetAccountByNumber_NotFound() throws Exception {
         mockAuthUser(user1);
 
-        when(accountRepository.findByAccountNumberAndUserId("NONEXIST", user1.getId()))
-                .thenReturn(Optional.empty());
-        when(accountRepository.findByAccountNumber("NONEXIST")).thenReturn(Optional.empty());
+        when(accountRepository.findDetailsByAccountNumberAndUserId("NONEXIST", user1.getId())).thenReturn(Optional.empty());
+        when(accountMetadataCache.get("NONEXIST")).thenReturn(null);
 
         mockMvc.perform(get("/v1/accounts/{accountId}", "NONEXIST")
                         .with(user(user1.getEmail())))
                 .andExpect(status().isNotFound());
 
-        verify(accountRepository, times(1)).findByAccountNumber("NONEXIST");
+        verify(accountMetadataCache, times(1)).get("NONEXIST");
     }
 
     @Test
     public void testPatchAccount_Success() throws Exception {
         mockAuthUser(user1);
 
-        when(accountRepository.findByAccountNumberAndUserId(account1.getAccountNumber(), user1.getId()))
+        when(accountRepository.findByAccountNumber(account1.getAccountNumber()))
                 .thenReturn(Optional.of(account1));
 
         Account updated = new Account();
@@ -251,8 +420,10 @@ public class AccountControllerTest {
                 .andExpect(jsonPath("$.name").value("Updated Name"))
                 .andExpect(jsonPath("$.accountNumber").value(account1.getAccountNumber()));
 
-        verify(accountRepository, times(1)).findByAccountNumberAndUserId(account1.getAccountNumber(), user1.getId());
+        verify(accountRepository, times(1)).findByAccountNumber(account1.getAccountNumber());
         verify(accountRepository, times(1)).save(any(Account.class));
+        // The account type changed, so its cached metadata must go
+        verify(accountMetadataCache, times(1)).invalidate(account1.getAccountNumber());
     }
 
     @Test
@@ -260,8 +431,7 @@ public class AccountControllerTest {
         mockAuthUser(user1);
 
         // Account exists but belongs to another user
-        when(accountRepository.findByAccountNumberAndUserId(account1.getAccountNumber(), user1.getId()))
-                .thenReturn(Optional.empty());
+        account1.setUserId(999L);
         when(accountRepository.findByAccountNumber(account1.getAccountNumber()))
                 .thenReturn(Optional.of(account1)); // exists but different owner
 
@@ -279,7 +449,7 @@ public class AccountControllerTest {
     public void testDeleteAccount_Success() throws Exception {
         mockAuthUser(user1);
 
-        when(accountRepository.findByAccountNumberAndUserId(account1.getAccountNumber(), user1.getId()))
+        when(accountRepository.findByAccountNumber(account1.getAccountNumber()))
                 .thenReturn(Optional.of(account1));
 
         doNothing().when(accountRepository).delete(account1);
@@ -290,14 +460,14 @@ public class AccountControllerTest {
                 .andExpect(status().isNoContent());
 
         verify(accountRepository, times(1)).delete(account1);
+        verify(accountMetadataCache, times(1)).invalidate(account1.getAccountNumber());
     }
 
     @Test
     public void testDeleteAccount_Forbidden() throws Exception {
         mockAuthUser(user1);
 
-        when(accountRepository.findByAccountNumberAndUserId(account1.getAccountNumber(), user1.getId()))
-                .thenReturn(Optional.empty());
+        account1.setUserId(999L);
         when(accountRepository.findByAccountNumber(account1.getAccountNumber()))
                 .thenReturn(Optional.of(account1)); // belongs to another
 
@@ -307,6 +477,7 @@ public class AccountControllerTest {
                 .andExpect(status().isForbidden());
 
         verify(accountRepository, times(0)).delete(any());
+        verify(accountMetadataCache, never()).invalidate(any());
     }
 
     @Test
@@ -339,33 +510,202 @@ public class AccountControllerTest {
         Transaction tx = new Transaction();
         tx.setId("tx-1");
 
+        when(transactionService.getTransactionHistoryVersion(account1.getAccountNumber(), user1.getId()))
+                .thenReturn(new TransactionRepository.LedgerVersion(1, "tx-1"));
         when(transactionService.getTransactionHistory(account1.getAccountNumber(), user1.getId()))
                 .thenReturn(List.of(tx));
 
         mockMvc.perform(get("/v1/accounts/{accountId}/transactions", account1.getAccountNumber())
                         .with(user(user1.getEmail())))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + ETags.ofTransactionHistory(1, "tx-1") + "\""))
                 .andExpect(jsonPath("$[0].id").value("tx-1"));
 
         verify(transactionService, times(1)).getTransactionHistory(account1.getAccountNumber(), user1.getId());
     }
 
     @Test
-    public void testGetTransactionDetails_Success() throws Exception {
+    public void testGetAccounts_Fields_ReturnsOnlyRequestedProperties() throws Exception {
+        mockAuthUser(user1);
+
+        when(accountRepository.findDetailsByUserId(user1.getId()))
+                .thenReturn(List.of(AccountDetailsResponse.fromEntity(account1)));
+
+        mockMvc.perform(get("/v1/accounts").param("fields", "accountNumber,balance")
+                        .with(user(user1.getEmail())))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].accountNumber").value("00001234"))
+                .andExpect(jsonPath("$[0].balance").exists())
+                .andExpect(jsonPath("$[0].name").doesNotExist())
+                .andExpect(jsonPath("$[0].sortCode").doesNotExist())
+                // The sparse representation has its own tag
+                .andExpect(header().string("ETag", startsWith(
+                        "\"" + ETags.ofAccountList(1, account1.getUpdatedTimestamp()) + "~")));
+    }
+
+    @Test
+    public void testGetAccounts_UnknownField_BadRequest() throws Exception {
+        mockAuthUser(user1);
+
+        mockMvc.perform(get("/v1/accounts").param("fields", "accountNumber,password")
+                        .with(user(user1.getEmail())))
+                .andExpect(status().isBadRequest());
+
+        verify(accountRepository, never()).findDetailsByUserId(any());
+    }
+
+    @Test
+    public void testGetTransactionHistory_Fields_ReturnsOnlyRequestedProperties() throws Exception {
         mockAuthUser(user1);
 
         Transaction tx = new Transaction();
-        tx.setId("tx-99");
+        tx.setId("tx-1");
+        tx.setAmount(BigDecimal.TEN);
+        tx.setReference("rent");
 
-        when(transactionService.getTransactionDetails(account1.getAccountNumber(), "tx-99", user1.getId()))
-                .thenReturn(tx);
+        when(transactionService.getTransactionHistoryVersion(account1.getAccountNumber(), user1.getId()))
+                .thenReturn(new TransactionRepository.LedgerVersion(1, "tx-1"));
+        when(transactionService.getTransactionHistory(account1.getAccountNumber(), user1.getId()))
+                .thenReturn(List.of(tx));
+
+        mockMvc.perform(get("/v1/accounts/{accountId}/transactions", account1.getAccountNumber())
+                        .param("fields", "id,amount")
+                        .with(user(user1.getEmail())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("tx-1"))
+                .andExpect(jsonPath("$[0].amount").value(10))
+                .andExpect(jsonPath("$[0].reference").doesNotExist())
+                .andExpect(jsonPath("$[0].userId").doesNotExist());
+    }
+
+    @Test
+    public void testGetTransactionsSince_ReturnsDeltaAndWatermark() throws Exception {
+        mockAuthUser(user1);
+
+        Transaction tx = new Transaction();
+        tx.setId("tx-3");
+        tx.setSequence(3L);
+        when(transactionService.getTransactionsSince(account1.getAccountNumber(), user1.getId(), 2L))
+                .thenReturn(new TransactionSyncResponse(List.of(tx), 3L));
+
+        mockMvc.perform(get("/v1/accounts/{accountId}/transactions", account1.getAccountNumber())
+                        .param("since", "2")
+                        .with(user(user1.getEmail())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions[0].id").value("tx-3"))
+                .andExpect(jsonPath("$.transactions[0].sequence").value(3))
+                .andExpect(jsonPath("$.watermark").value(3));
+
+        // The full history is not read for a delta sync
+        verify(transactionService, never()).getTransactionHistory(any(), any());
+    }
+
+    @Test
+    public void testGetBalanceAt_ReturnsBalanceAsOfInstant() throws Exception {
+        mockAuthUser(user1);
+
+        Instant at = Instant.parse("2026-01-31T23:59:00Z");
+        when(transactionService.getBalanceAt(account1.getAccountNumber(), user1.getId(), at))
+                .thenReturn(new BalanceAtResponse(account1.getAccountNumber(), at, new BigDecimal("120.25"), "GBP", "tx-7", 7L));
+
+        mockMvc.perform(get("/v1/accounts/{accountId}/balance", account1.getAccountNumber())
+                        .param("at", "2026-01-31T23:59:00Z")
+                        .with(user(user1.getEmail())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(120.25))
+                .andExpect(jsonPath("$.transactionId").value("tx-7"))
+                .andExpect(jsonPath("$.sequence").value(7));
+    }
+
+    @Test
+    public void testGetBalanceAt_InvalidOrMissingInstant_BadRequest() throws Exception {
+        mockAuthUser(user1);
+
+        mockMvc.perform(get("/v1/accounts/{accountId}/balance", account1.getAccountNumber())
+                        .param("at", "yesterday")
+                        .with(user(user1.getEmail())))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errormessage").value("Invalid value for parameter 'at'."));
+        mockMvc.perform(get("/v1/accounts/{accountId}/balance", account1.getAccountNumber())
+                        .with(user(user1.getEmail())))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errormessage").value("Missing required parameter 'at'."));
+
+        verify(transactionService, never()).getBalanceAt(any(), any(), any());
+    }
+
+    @Test
+    public void testGetDailyTotals_PassesRangeAndReturnsDays() throws Exception {
+        mockAuthUser(user1);
+
+        LocalDate day = LocalDate.of(2026, 1, 2);
+        when(transactionService.getDailyTotals(account1.getAccountNumber(), user1.getId(), day, day))
+                .thenReturn(List.of(new DailyTotals(day, new BigDecimal("150.25"), new BigDecimal("30.00"), 2, 1, new BigDecimal("120.25"))));
+
+        mockMvc.perform(get("/v1/accounts/{accountId}/analytics/daily", account1.getAccountNumber())
+                        .param("from", "2026-01-02")
+                        .param("to", "2026-01-02")
+                        .with(user(user1.getEmail())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].date").value("2026-01-02"))
+                .andExpect(jsonPath("$[0].deposits").value(150.25))
+                .andExpect(jsonPath("$[0].withdrawalCount").value(1))
+                .andExpect(jsonPath("$[0].closingBalance").value(120.25));
+    }
+
+    @Test
+    public void testGetTransactionHistory_IfNoneMatchCurrent_NotModified() throws Exception {
+        mockAuthUser(user1);
+
+        when(transactionService.getTransactionHistoryVersion(account1.getAccountNumber(), user1.getId()))
+                .thenReturn(new TransactionRepository.LedgerVersion(1, "tx-1"));
+        String etag = "\"" + ETags.ofTransactionHistory(1, "tx-1") + "\"";
+
+        mockMvc.perform(get("/v1/accounts/{accountId}/transactions", account1.getAccountNumber())
+                        .header("If-None-Match", etag)
+                        .with(user(user1.getEmail())))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+
+        // No transaction rows are read for a 304
+        verify(transactionService, never()).getTransactionHistory(any(), any());
+    }
+
+    @Test
+    public void testGetTransactionHistory_IfNoneMatchStale_ReturnsRows() throws Exception {
+        mockAuthUser(user1);
+
+        Transaction tx = new Transaction();
+        tx.setId("tx-2");
+        // A new row has landed since the client's copy
+        when(transactionService.getTransactionHistoryVersion(account1.getAccountNumber(), user1.getId()))
+                .thenReturn(new TransactionRepository.LedgerVersion(2, "tx-2"));
+        when(transactionService.getTransactionHistory(account1.getAccountNumber(), user1.getId()))
+                .thenReturn(List.of(tx));
+
+        mockMvc.perform(get("/v1/accounts/{accountId}/transactions", account1.getAccountNumber())
+                        .header("If-None-Match", "\"" + ETags.ofTransactionHistory(1, "tx-1") + "\"")
+                        .with(user(user1.getEmail())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("tx-2"));
+    }
+
+    @Test
+    public void testGetTransactionDetails_Success() throws Exception {
+        mockAuthUser(user1);
+
+        when(transactionService.getTransactionDetailsJson(account1.getAccountNumber(), "tx-99", user1.getId()))
+                .thenReturn("{\"id\":\"tx-99\"}".getBytes(StandardCharsets.UTF_8));
 
         mockMvc.perform(get("/v1/accounts/{accountId}/transactions/{transactionId}", account1.getAccountNumber(), "tx-99")
                         .with(user(user1.getEmail())))
                 .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("Cache-Control", "max-age=31536000, private, immutable"))
                 .andExpect(jsonPath("$.id").value("tx-99"));
 
-        verify(transactionService, times(1)).getTransactionDetails(account1.getAccountNumber(), "tx-99", user1.getId());
+        verify(transactionService, times(1)).getTransactionDetailsJson(account1.getAccountNumber(), "tx-99", user1.getId());
     }
 
 }
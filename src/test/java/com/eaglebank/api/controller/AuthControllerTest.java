@@ -1,23 +1,39 @@
 package com.eaglebank.api.controller;
 
+import com.eaglebank.api.security.AuthenticatedUser;
 import com.eaglebank.api.security.JwtTokenProvider;
+import com.eaglebank.api.security.RefreshTokenStore;
+import com.eaglebank.api.security.SecurityConfig;
+import com.eaglebank.api.security.TokenRevocationList;
+import com.eaglebank.api.security.VerifiedTokenCache;
+import com.eaglebank.api.service.CustomUserDetailsService;
+import io.jsonwebtoken.Jwts;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -25,7 +41,9 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+// The application's own filter chain, so failures get the status a real client sees
 @WebMvcTest(AuthController.class)
+@Import(SecurityConfig.class)
 @WithMockUser(username = "testuser", roles = {"USER"})
 public class AuthControllerTest {
 
@@ -35,6 +53,21 @@ public class AuthControllerTest {
     @MockitoBean
     private JwtTokenProvider tokenProvider;
 
+    @MockitoBean
+    private RefreshTokenStore refreshTokenStore;
+
+    @MockitoBean
+    private CustomUserDetailsService userDetailsService;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockitoBean
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @MockitoBean
+    private TokenRevocationList tokenRevocationList;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -57,6 +90,7 @@ public class AuthControllerTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(auth);
         when(tokenProvider.generateToken(any(Authentication.class))).thenReturn(expectedToken);
+        when(refreshTokenStore.issue(email)).thenReturn("refresh-1");
 
         String requestJson = objectMapper.writeValueAsString(
                 new LoginDto(email, password)
@@ -67,12 +101,67 @@ public class AuthControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson))
                 .andExpect(status().isOk())
-                .andExpect(content().string(expectedToken));
+                .andExpect(content().string(expectedToken))
+                .andExpect(header().string(AuthController.REFRESH_TOKEN_HEADER, "refresh-1"));
 
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(tokenProvider, times(1)).generateToken(any(Authentication.class));
     }
 
+    @Test
+    public void refreshToken_validToken_returnsNewTokenWithoutPasswordCheck() throws Exception {
+        // Arrange
+        String email = "user@example.com";
+        when(refreshTokenStore.consume("refresh-1"))
+                .thenReturn(Optional.of(new RefreshTokenStore.RefreshSession(email, Instant.now().plusSeconds(60))));
+        when(userDetailsService.loadUserByUsername(email))
+                .thenReturn(new AuthenticatedUser(1L, email, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        when(tokenProvider.generateToken(any(Authentication.class))).thenReturn("jwt-token-new");
+        when(refreshTokenStore.issue(email)).thenReturn("refresh-2");
+
+        // Act & Assert
+        mockMvc.perform(post("/api/auth/refresh").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("refreshToken", "refresh-1"))))
+                .andExpect(status().isOk())
+                .andExpect(content().string("jwt-token-new"))
+                .andExpect(header().string(AuthController.REFRESH_TOKEN_HEADER, "refresh-2"));
+
+        verify(authenticationManager, never()).authenticate(any());
+    }
+
+    @Test
+    public void refreshToken_unknownOrUsedToken_returnsUnauthorized() throws Exception {
+        // Arrange
+        when(refreshTokenStore.consume("refresh-1")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/auth/refresh").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("refreshToken", "refresh-1"))))
+                .andExpect(status().isUnauthorized());
+
+        verify(tokenProvider, never()).generateToken(any());
+        verify(refreshTokenStore, never()).issue(any());
+    }
+
+    @Test
+    public void refreshToken_deletedUser_returnsUnauthorized() throws Exception {
+        // Arrange
+        String email = "user@example.com";
+        when(refreshTokenStore.consume("refresh-1"))
+                .thenReturn(Optional.of(new RefreshTokenStore.RefreshSession(email, Instant.now().plusSeconds(60))));
+        when(userDetailsService.loadUserByUsername(email)).thenThrow(new UsernameNotFoundException("User not found"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/auth/refresh").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("refreshToken", "refresh-1"))))
+                .andExpect(status().isUnauthorized());
+
+        verify(tokenProvider, never()).generateToken(any());
+    }
+
     @Test
     public void authenticateUser_badCredentials_returnsUnauthorized() throws Exception {
         // Arrange
@@ -95,6 +184,25 @@ public class AuthControllerTest {
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
     }
 
+    @Test
+    public void logout_revokesAccessTokenAndRefreshToken() throws Exception {
+        // Arrange
+        // JWT dates have second precision
+        Date expiry = Date.from(Instant.now().plusSeconds(60).truncatedTo(ChronoUnit.SECONDS));
+        when(tokenProvider.parseClaims("jwt-token-xyz"))
+                .thenReturn(Optional.of(Jwts.claims().id("jti-1").subject("testuser").expiration(expiry).build()));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/auth/logout").with(csrf())
+                        .header("Authorization", "Bearer jwt-token-xyz")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("refreshToken", "refresh-1"))))
+                .andExpect(status().isNoContent());
+
+        verify(tokenRevocationList, times(1)).revoke("jti-1", expiry.toInstant());
+        verify(refreshTokenStore, times(1)).consume("refresh-1");
+    }
+
     // Simple DTO used only for serializing the request body in tests
     private static class LoginDto {
         private final String email;
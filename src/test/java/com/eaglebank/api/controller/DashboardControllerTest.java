@@ -0,0 +1,67 @@
+package com.eaglebank.api.controller;
+
+import com.eaglebank.api.beans.DashboardResponse;
+import com.eaglebank.api.repository.UserRepository;
+import com.eaglebank.api.security.AuthenticatedUser;
+import com.eaglebank.api.service.DashboardService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(DashboardController.class)
+@WithMockUser(username = "testuser", roles = {"USER"})
+public class DashboardControllerTest {
+
+    @MockitoBean
+    private DashboardService dashboardService;
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    private static UsernamePasswordAuthenticationToken authenticatedAs(Long userId) {
+        AuthenticatedUser principal = new AuthenticatedUser(userId, "user1@example.com",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    @Test
+    public void testGetDashboard_UsesUserIdFromToken() throws Exception {
+        when(dashboardService.getDashboard(1L, 3)).thenReturn(new DashboardResponse(null, List.of(), false));
+
+        mockMvc.perform(get("/v1/dashboard").param("transactions", "3")
+                        .with(authentication(authenticatedAs(1L))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(jsonPath("$.partial").value(false));
+
+        verify(dashboardService, times(1)).getDashboard(1L, 3);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    public void testGetDashboard_PartialResult() throws Exception {
+        when(dashboardService.getDashboard(1L, null)).thenReturn(new DashboardResponse(null, null, true));
+
+        mockMvc.perform(get("/v1/dashboard").with(authentication(authenticatedAs(1L))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.partial").value(true))
+                .andExpect(jsonPath("$.accounts").doesNotExist());
+    }
+}
@@ -0,0 +1,89 @@
+package com.eaglebank.api.controller;
+
+import com.eaglebank.api.beans.Transaction;
+import com.eaglebank.api.repository.UserRepository;
+import com.eaglebank.api.security.AuthenticatedUser;
+import com.eaglebank.api.service.TransactionSearchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(TransactionSearchController.class)
+@WithMockUser(username = "testuser", roles = {"USER"})
+public class TransactionSearchControllerTest {
+
+    @MockitoBean
+    private TransactionSearchService transactionSearchService;
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    private static UsernamePasswordAuthenticationToken authenticatedAs(Long userId, String role) {
+        AuthenticatedUser principal = new AuthenticatedUser(userId, "user1@example.com",
+                List.of(new SimpleGrantedAuthority(role)));
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    @Test
+    public void testSearch_OwnAccount_PassesFilters() throws Exception {
+        Transaction transaction = new Transaction();
+        transaction.setId("tan-1");
+        transaction.setReference("Invoice 4412");
+        Instant from = Instant.parse("2026-01-01T00:00:00Z");
+        when(transactionSearchService.search("invoice 4412", "01234567", from, null, 5, 1L, false))
+                .thenReturn(List.of(transaction));
+
+        mockMvc.perform(get("/v1/transactions/search")
+                        .param("q", "invoice 4412")
+                        .param("accountNumber", "01234567")
+                        .param("from", "2026-01-01T00:00:00Z")
+                        .param("limit", "5")
+                        .with(authentication(authenticatedAs(1L, "ROLE_USER"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("tan-1"))
+                .andExpect(jsonPath("$[0].reference").value("Invoice 4412"));
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    public void testSearch_Admin_AcrossAllAccounts() throws Exception {
+        when(transactionSearchService.search(eq("rent"), isNull(), isNull(), isNull(), isNull(), eq(9L), eq(true)))
+                .thenReturn(List.of());
+
+        mockMvc.perform(get("/v1/transactions/search").param("q", "rent")
+                        .with(authentication(authenticatedAs(9L, "ROLE_ADMIN"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    public void testSearch_NonAdminWithoutAccount_Forbidden() throws Exception {
+        when(transactionSearchService.search(any(), isNull(), any(), any(), any(), eq(1L), eq(false)))
+                .thenThrow(new AccessDeniedException("Searching across all accounts requires ROLE_ADMIN"));
+
+        mockMvc.perform(get("/v1/transactions/search").param("q", "rent")
+                        .with(authentication(authenticatedAs(1L, "ROLE_USER"))))
+                .andExpect(status().isForbidden());
+    }
+}
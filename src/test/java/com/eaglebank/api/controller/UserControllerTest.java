@@ -4,11 +4,14 @@ import com.eaglebank.api.beans.Address;
 import com.eaglebank.api.beans.User;
 import com.eaglebank.api.exception.UserNotFoundException;
 import com.eaglebank.api.repository.UserRepository;
+import com.eaglebank.api.security.AuthenticatedUser;
 import com.eaglebank.api.service.CustomUserDetailsService;
+import com.eaglebank.api.service.UserListingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.http.MediaType;
@@ -23,13 +26,16 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.core.context.SecurityContextHolder.getContext;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -46,6 +52,9 @@ public class UserControllerTest {
     @MockitoBean
     private CustomUserDetailsService customUserDetailsService;
 
+    @MockitoBean
+    private UserListingService userListingService;
+
     @Autowired MockMvc mockMvc;
 
     @Autowired
@@ -117,13 +126,39 @@ public class UserControllerTest {
 
     }
 
+    @Test
+    void getAllUsers_fullPage_returnsNextLink() throws Exception {
+        when(userListingService.pageSize(2)).thenReturn(2);
+        when(userListingService.findPage(null, 2)).thenReturn(List.of(user1, user2));
+
+        mockMvc.perform(get("/v1/users").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[1].id").value(2L))
+                .andExpect(header().string("Link", "<http://localhost/v1/users?afterId=2&limit=2>; rel=\"next\""));
+
+        // Never falls back to loading the whole table
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    void getAllUsers_lastPage_hasNoNextLink() throws Exception {
+        when(userListingService.pageSize(null)).thenReturn(50);
+        when(userListingService.findPage(1L, null)).thenReturn(List.of(user2));
+
+        mockMvc.perform(get("/v1/users").param("afterId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(2L))
+                .andExpect(header().doesNotExist("Link"));
+    }
+
     @Test
     void getUserById_whenSelfAccessingOwnUser_shouldReturnUser() throws Exception {
         // 1. Setup Self Authentication
         mockAuthUser(user1);
 
         // 2. Setup target user retrieval
-        when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
+        when(userRepository.findReadOnlyById(user1.getId())).thenReturn(Optional.of(user1));
 
         // 3. Perform request as User 1 (ID 1) accessing User 1 (ID 1)
         mockMvc.perform(get("/v1/users/{id}", user1.getId())
@@ -131,24 +166,38 @@ public class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name").value("Sourabh1"));
 
-        verify(userRepository, times(1)).findById(user1.getId());
+        verify(userRepository, times(1)).findReadOnlyById(user1.getId());
         verify(userRepository, times(1)).findByEmail(user1.getEmail());
     }
 
+    @Test
+    void getUserById_whenJwtPrincipalCarriesUserId_shouldSkipUserLookup() throws Exception {
+        AuthenticatedUser principal = new AuthenticatedUser(user1.getId(), user1.getEmail(),
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        when(userRepository.findReadOnlyById(user1.getId())).thenReturn(Optional.of(user1));
+
+        mockMvc.perform(get("/v1/users/{id}", user1.getId())
+                        .with(authentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Sourabh1"));
+
+        verify(userRepository, never()).findByEmail(any());
+    }
+
     @Test
     void getUserById_whenUnauthorizedAccess_shouldReturnForbidden() throws Exception {
         // 1. Setup Unauthorized User (User 2)
         mockAuthUser(user2); // Authenticated user is Sunny (ID 2)
 
         // 2. Setup target user retrieval (User 1)
-        when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
+        when(userRepository.findReadOnlyById(user1.getId())).thenReturn(Optional.of(user1));
 
         // 3. Perform request as User 2 (ID 2) accessing User 1 (ID 1)
         mockMvc.perform(get("/v1/users/{id}", user1.getId())
                         .with(user("user2@example.com").authorities(new SimpleGrantedAuthority("ROLE_USER"))))
                 .andExpect(status().isForbidden()); // Expect HTTP 403
 
-        verify(userRepository, times(1)).findById(user1.getId());
+        verify(userRepository, times(1)).findReadOnlyById(user1.getId());
         verify(userRepository, times(1)).findByEmail(user2.getEmail());
     }
 
@@ -156,12 +205,12 @@ public class UserControllerTest {
     void getUserById_whenUserNotFound_shouldReturnNotFound() throws Exception {
         Long nonExistentId = 999L;
         mockAuthUser(user1);
-        when(userRepository.findById(nonExistentId)).thenReturn(Optional.empty());
+        when(userRepository.findReadOnlyById(nonExistentId)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/v1/users/{id}", nonExistentId))
                 .andExpect(status().isNotFound()); // Expect HTTP 404
 
-        verify(userRepository, times(1)).findById(nonExistentId);
+        verify(userRepository, times(1)).findReadOnlyById(nonExistentId);
     }
 
     @Test
@@ -0,0 +1,48 @@
+package com.eaglebank.api.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ETags.
+ */
+public class ETagsTest {
+
+    @Test
+    void matches_handlesQuotedWeakListedAndWildcardTags() {
+        String etag = ETags.ofAccount(Instant.parse("2025-01-01T10:00:00.123456Z"));
+
+        assertTrue(ETags.matches("\"" + etag + "\"", etag));
+        assertTrue(ETags.matches("W/\"" + etag + "\"", etag));
+        assertTrue(ETags.matches("\"other\", \"" + etag + "\"", etag));
+        assertTrue(ETags.matches("*", etag));
+        assertFalse(ETags.matches("\"other\"", etag));
+        assertFalse(ETags.matches(null, etag));
+    }
+
+    @Test
+    void accountTag_changesWithTheVersionMarker() {
+        Instant updated = Instant.parse("2025-01-01T10:00:00.123456Z");
+
+        assertEquals(ETags.ofAccount(updated), ETags.ofAccount(Instant.parse("2025-01-01T10:00:00.123456Z")));
+        assertNotEquals(ETags.ofAccount(updated), ETags.ofAccount(updated.plusNanos(1_000)));
+    }
+
+    @Test
+    void accountListTag_changesWithCountOrLatestUpdate() {
+        Instant updated = Instant.parse("2025-01-01T10:00:00Z");
+
+        assertNotEquals(ETags.ofAccountList(2, updated), ETags.ofAccountList(1, updated));
+        assertNotEquals(ETags.ofAccountList(2, updated), ETags.ofAccountList(2, updated.plusSeconds(1)));
+        assertEquals(ETags.ofAccountList(0, null), ETags.ofAccountList(0, null));
+    }
+
+    @Test
+    void historyTag_changesWhenARowLands() {
+        assertNotEquals(ETags.ofTransactionHistory(1, "tan-1"), ETags.ofTransactionHistory(2, "tan-2"));
+        assertEquals(ETags.ofTransactionHistory(0, null), ETags.ofTransactionHistory(0, null));
+    }
+}
@@ -0,0 +1,28 @@
+package com.eaglebank.api.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MinorUnits.
+ */
+public class MinorUnitsTest {
+
+    @Test
+    void of_convertsAndRoundsFractionsOfAMinorUnitUp() {
+        assertEquals(1234, MinorUnits.of(new BigDecimal("12.34")));
+        assertEquals(500, MinorUnits.of(BigDecimal.valueOf(5)));
+        assertEquals(1235, MinorUnits.of(new BigDecimal("12.341")));
+        assertEquals(1235, MinorUnits.of(new BigDecimal("12.345")));
+        assertEquals(-1234, MinorUnits.of(new BigDecimal("-12.345")));
+    }
+
+    @Test
+    void toAmount_hasTwoDecimalPlaces() {
+        assertEquals(new BigDecimal("12.34"), MinorUnits.toAmount(1234));
+        assertEquals(new BigDecimal("0.00"), MinorUnits.toAmount(0));
+    }
+}
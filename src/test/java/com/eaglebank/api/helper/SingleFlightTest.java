@@ -0,0 +1,125 @@
+package com.eaglebank.api.helper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SingleFlight.
+ */
+public class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<String, String> singleFlight;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("test", meterRegistry);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private double calls(String result) {
+        return meterRegistry.get("singleflight.calls").tag("name", "test").tag("result", result).counter().count();
+    }
+
+    /**
+     * Starts CALLERS concurrent calls for the key, and releases the lookup once all but the
+     * first have joined it.
+     */
+    private List<Future<String>> callConcurrently(String key, CountDownLatch release, Supplier<String> lookup)
+            throws InterruptedException {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute(key, () -> {
+                await(release);
+                return lookup.get();
+            })));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (calls("coalesced") < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void concurrentCallsForTheSameKey_shareOneLookup() throws Exception {
+        AtomicInteger lookups = new AtomicInteger();
+
+        List<Future<String>> results = callConcurrently("k", new CountDownLatch(1), () -> "value-" + lookups.incrementAndGet());
+
+        for (Future<String> result : results) {
+            assertEquals("value-1", result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, lookups.get());
+        assertEquals(1, calls("executed"));
+        assertEquals(CALLERS - 1, calls("coalesced"));
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void failingLookup_isRethrownToEveryWaitingCaller() throws Exception {
+        List<Future<String>> results = callConcurrently("k", new CountDownLatch(1), () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        for (Future<String> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+            assertEquals("boom", e.getCause().getMessage());
+        }
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void completedLookup_isNotReused() {
+        AtomicInteger lookups = new AtomicInteger();
+
+        assertEquals("value-1", singleFlight.execute("k", () -> "value-" + lookups.incrementAndGet()));
+        assertEquals("value-2", singleFlight.execute("k", () -> "value-" + lookups.incrementAndGet()));
+        assertEquals(2, calls("executed"));
+        assertEquals(0, calls("coalesced"));
+    }
+
+    @Test
+    void differentKeys_areNotCoalesced() {
+        // "b" is looked up while "a" is still in flight
+        String result = singleFlight.execute("a", () -> "a" + singleFlight.execute("b", () -> "b"));
+
+        assertEquals("ab", result);
+        assertEquals(2, calls("executed"));
+        assertEquals(0, calls("coalesced"));
+    }
+}
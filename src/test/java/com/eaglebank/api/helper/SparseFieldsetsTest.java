@@ -0,0 +1,84 @@
+package com.eaglebank.api.helper;
+
+import com.eaglebank.api.beans.AccountDetailsResponse;
+import com.eaglebank.api.beans.Transaction;
+import com.eaglebank.api.beans.TransactionType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SparseFieldsets.
+ */
+public class SparseFieldsetsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final SparseFieldsets sparseFieldsets = new SparseFieldsets(objectMapper);
+
+    private static Transaction transaction() {
+        Transaction transaction = new Transaction();
+        transaction.setId("tan-1");
+        transaction.setAccountId(7L);
+        transaction.setAmount(BigDecimal.TEN);
+        transaction.setCurrency("GBP");
+        transaction.setType(TransactionType.deposit);
+        transaction.setReference("rent");
+        transaction.setCreatedTimestamp(Instant.EPOCH);
+        return transaction;
+    }
+
+    @Test
+    void select_writesOnlyTheRequestedProperties() throws Exception {
+        SparseFieldsets.Selection selection = sparseFieldsets.select(Transaction.class, "id, amount");
+
+        JsonNode json = objectMapper.readTree(selection.write(List.of(transaction())));
+
+        assertEquals(1, json.size());
+        assertEquals(2, json.get(0).size());
+        assertEquals("tan-1", json.get(0).get("id").asText());
+        assertEquals(10, json.get(0).get("amount").asInt());
+    }
+
+    @Test
+    void select_sameFieldsetInAnyOrder_reusesTheWriter() {
+        SparseFieldsets.Selection first = sparseFieldsets.select(AccountDetailsResponse.class, "accountNumber,balance");
+        SparseFieldsets.Selection second = sparseFieldsets.select(AccountDetailsResponse.class, "balance,accountNumber,balance");
+
+        assertEquals(first.mask(), second.mask());
+        assertSame(first.writer(), second.writer());
+        assertEquals(first.eTag("l1-0"), second.eTag("l1-0"));
+        assertNotEquals("l1-0", first.eTag("l1-0"));
+    }
+
+    @Test
+    void select_noFields_meansFullRepresentation() {
+        assertNull(sparseFieldsets.select(Transaction.class, null));
+        assertNull(sparseFieldsets.select(Transaction.class, " "));
+        assertNull(sparseFieldsets.select(Transaction.class, ","));
+    }
+
+    @Test
+    void select_unknownField_isRejected() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> sparseFieldsets.select(AccountDetailsResponse.class, "accountNumber,id"));
+
+        assertEquals(400, e.getStatusCode().value());
+    }
+
+    @Test
+    void fullSerialization_isNotFiltered() throws Exception {
+        // The application's mapper never sees the filter mix-in
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsBytes(transaction()));
+
+        assertEquals("rent", json.get("reference").asText());
+    }
+}
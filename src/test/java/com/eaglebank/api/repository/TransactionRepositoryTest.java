@@ -0,0 +1,273 @@
+package com.eaglebank.api.repository;
+
+import com.eaglebank.api.beans.Transaction;
+import com.eaglebank.api.beans.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the in-memory TransactionRepository.
+ */
+public class TransactionRepositoryTest {
+
+    private final TransactionRepository repository = new TransactionRepository();
+
+    private Transaction save(Long accountId) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setAmount(BigDecimal.ONE);
+        transaction.setType(TransactionType.deposit);
+        transaction.setCreatedTimestamp(Instant.now());
+        return repository.save(transaction);
+    }
+
+    @Test
+    void save_assignsPerAccountSequence() {
+        assertEquals(1L, save(1L).getSequence());
+        assertEquals(1L, save(2L).getSequence());
+        assertEquals(2L, save(1L).getSequence());
+    }
+
+    @Test
+    void save_existingTransaction_keepsItsSequence() {
+        Transaction first = save(1L);
+        save(1L);
+
+        repository.save(first);
+
+        assertEquals(1L, first.getSequence());
+        assertEquals(2, repository.findByAccountIdSince(1L, 0).watermark());
+        assertEquals(2, repository.findByAccountIdSince(1L, 0).transactions().size());
+    }
+
+    @Test
+    void findByAccountIdSince_returnsOnlyNewerRowsAndWatermark() {
+        Transaction first = save(1L);
+        Transaction second = save(1L);
+        save(2L);
+        Transaction third = save(1L);
+
+        TransactionRepository.LedgerDelta delta = repository.findByAccountIdSince(1L, first.getSequence());
+
+        assertEquals(List.of(second, third), delta.transactions());
+        assertEquals(3, delta.watermark());
+    }
+
+    @Test
+    void findByAccountIdSince_upToDateOrAheadOrUnknown() {
+        save(1L);
+        save(1L);
+
+        assertEquals(List.of(), repository.findByAccountIdSince(1L, 2).transactions());
+        assertEquals(2, repository.findByAccountIdSince(1L, 2).watermark());
+        // A watermark beyond the ledger is pulled back to it
+        assertEquals(2, repository.findByAccountIdSince(1L, 99).watermark());
+        assertEquals(new TransactionRepository.LedgerDelta(List.of(), 0), repository.findByAccountIdSince(42L, 0));
+        assertEquals(2, repository.findByAccountIdSince(1L, -5).transactions().size());
+    }
+
+    private Transaction save(Long accountId, TransactionType type, String amount, Instant createdTimestamp) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setType(type);
+        transaction.setCreatedTimestamp(createdTimestamp);
+        return repository.save(transaction);
+    }
+
+    @Test
+    void save_recordsRunningBalancePerAccount() {
+        Instant t0 = Instant.parse("2026-01-31T10:00:00Z");
+
+        assertEquals(new BigDecimal("100.00"), save(1L, TransactionType.deposit, "100.00", t0).getBalanceAfter());
+        assertEquals(new BigDecimal("5.00"), save(2L, TransactionType.deposit, "5.00", t0).getBalanceAfter());
+        assertEquals(new BigDecimal("69.50"), save(1L, TransactionType.withdrawal, "30.50", t0.plusSeconds(1)).getBalanceAfter());
+
+        // A re-save keeps its running balance
+        Transaction first = repository.findByAccountIdSince(1L, 0).transactions().get(0);
+        repository.save(first);
+        assertEquals(new BigDecimal("100.00"), first.getBalanceAfter());
+    }
+
+    private Transaction pending(Long accountId, String amount) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setType(TransactionType.deposit);
+        transaction.setCreatedTimestamp(Instant.now());
+        return transaction;
+    }
+
+    @Test
+    void publish_claimedRow_staysInvisibleUntilPublished() {
+        Transaction first = save(1L);
+        long slot = repository.claimSlot(1L);
+        Transaction claimed = pending(1L, "5.00");
+
+        assertEquals(List.of(first), repository.findAllByAccountId(1L));
+        assertEquals(first.getId(), repository.findVersionByAccountId(1L).latestTransactionId());
+
+        repository.publish(slot, claimed);
+
+        assertEquals(2L, claimed.getSequence());
+        assertEquals(new BigDecimal("6.00"), claimed.getBalanceAfter());
+        assertEquals(List.of(first, claimed), repository.findAllByAccountId(1L));
+    }
+
+    @Test
+    void publish_waitsForEarlierSlots_andSkipsDroppedOnes() throws Exception {
+        save(1L, TransactionType.deposit, "100.00", Instant.now());
+        long rolledBack = repository.claimSlot(1L);
+        long committed = repository.claimSlot(1L);
+        Transaction transaction = pending(1L, "5.00");
+
+        Thread publisher = new Thread(() -> repository.publish(committed, transaction));
+        publisher.start();
+        publisher.join(200);
+        // Still waiting for the earlier slot to resolve
+        assertTrue(publisher.isAlive());
+        assertNull(transaction.getSequence());
+
+        repository.drop(1L, rolledBack);
+        publisher.join();
+
+        // The dropped slot left no gap and no balance behind
+        assertEquals(2L, transaction.getSequence());
+        assertEquals(new BigDecimal("105.00"), transaction.getBalanceAfter());
+        assertEquals(2, repository.findByAccountId(1L).size());
+        assertEquals(3L, save(1L).getSequence());
+    }
+
+    @Test
+    void findLastByAccountIdAt_findsTheLastTransactionAtOrBefore() {
+        Instant t0 = Instant.parse("2026-01-31T10:00:00Z");
+        Transaction first = save(1L, TransactionType.deposit, "100.00", t0);
+        save(1L, TransactionType.withdrawal, "40.00", t0.plusSeconds(60));
+        Transaction third = save(1L, TransactionType.deposit, "15.00", t0.plusSeconds(60));
+        save(2L, TransactionType.deposit, "999.00", t0.plusSeconds(30));
+
+        assertNull(repository.findLastByAccountIdAt(1L, t0.minusNanos(1)));
+        assertEquals(first, repository.findLastByAccountIdAt(1L, t0));
+        assertEquals(first, repository.findLastByAccountIdAt(1L, t0.plusSeconds(59)));
+        // Inclusive, and the last of several at the same instant
+        assertEquals(third, repository.findLastByAccountIdAt(1L, t0.plusSeconds(60)));
+        assertEquals(new BigDecimal("75.00"), repository.findLastByAccountIdAt(1L, Instant.MAX).getBalanceAfter());
+        assertNull(repository.findLastByAccountIdAt(3L, Instant.MAX));
+    }
+
+    @Test
+    void findLastByAccountIdAt_rowSavedAfterALaterTimestamp_takesEffectWithIt() {
+        Instant t0 = Instant.parse("2026-01-31T10:00:00Z");
+        save(1L, TransactionType.deposit, "100.00", t0);
+        Transaction later = save(1L, TransactionType.deposit, "10.00", t0.plusSeconds(2));
+        // Stamped before "later" but applied after it
+        Transaction delayed = save(1L, TransactionType.withdrawal, "50.00", t0.plusSeconds(1));
+
+        // At t0+1s neither had been applied; from t0+2s both had, in ledger order
+        assertEquals(new BigDecimal("100.00"), repository.findLastByAccountIdAt(1L, t0.plusSeconds(1)).getBalanceAfter());
+        assertEquals(delayed, repository.findLastByAccountIdAt(1L, t0.plusSeconds(2)));
+        assertEquals(new BigDecimal("60.00"), delayed.getBalanceAfter());
+        assertEquals(new BigDecimal("110.00"), later.getBalanceAfter());
+    }
+
+    @Test
+    void findLastByAccountIdAt_largeLedger() {
+        Instant t0 = Instant.parse("2026-01-01T00:00:00Z");
+        for (int i = 0; i < 100_000; i++) {
+            save(1L, TransactionType.deposit, "1.00", t0.plusSeconds(i));
+        }
+
+        Transaction transaction = repository.findLastByAccountIdAt(1L, t0.plusSeconds(41_999).plusMillis(500));
+
+        assertEquals(42_000L, transaction.getSequence());
+        assertEquals(new BigDecimal("42000.00"), transaction.getBalanceAfter());
+    }
+
+    @Test
+    void accountReads_areServedFromTheLedger() {
+        Instant t0 = Instant.parse("2026-01-31T10:00:00Z");
+        Transaction older = save(1L, TransactionType.deposit, "1.00", t0);
+        Transaction newer = save(1L, TransactionType.deposit, "2.00", t0.plusSeconds(1));
+        save(2L, TransactionType.deposit, "3.00", t0.plusSeconds(2));
+
+        assertEquals(List.of(newer, older), repository.findByAccountId(1L));
+        assertEquals(List.of(older, newer), repository.findAllByAccountId(1L));
+        assertSame(older, repository.findByIdAndAccountId(older.getId(), 1L));
+        // Another account's transaction, or an unknown account
+        assertNull(repository.findByIdAndAccountId(older.getId(), 2L));
+        assertNull(repository.findByIdAndAccountId(older.getId(), 3L));
+        assertTrue(repository.findByAccountId(3L).isEmpty());
+    }
+
+    @Test
+    void accountReads_duringConcurrentSaves_neverFail() throws Exception {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 5_000; i++) {
+                save(1L);
+            }
+        });
+        Thread reader = new Thread(() -> {
+            try {
+                int seen = 0;
+                while (writer.isAlive()) {
+                    List<Transaction> history = repository.findByAccountId(1L);
+                    // Rows only ever get added
+                    assertTrue(history.size() >= seen);
+                    seen = history.size();
+                    if (!history.isEmpty()) {
+                        assertNotNull(repository.findByIdAndAccountId(history.get(0).getId(), 1L));
+                    }
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+
+        assertNull(failure.get());
+        assertEquals(5_000, repository.findByAccountId(1L).size());
+    }
+
+    @Test
+    void save_concurrentlyOnSeveralAccounts_indexesEveryRow() throws Exception {
+        List<Thread> writers = new ArrayList<>();
+        for (long account = 1; account <= 4; account++) {
+            long accountId = account;
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    Transaction transaction = new Transaction();
+                    transaction.setAccountId(accountId);
+                    transaction.setAmount(BigDecimal.ONE);
+                    transaction.setType(TransactionType.deposit);
+                    transaction.setCreatedTimestamp(Instant.now());
+                    transaction.setReference("batch " + accountId);
+                    repository.save(transaction);
+                }
+            }));
+        }
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        for (long account = 1; account <= 4; account++) {
+            List<Transaction> history = repository.findAllByAccountId(account);
+            assertEquals(1_000, history.size());
+            assertEquals(new BigDecimal("1000"), history.get(999).getBalanceAfter());
+            assertSame(history.get(500), repository.findByIdAndAccountId(history.get(500).getId(), account));
+            assertEquals(1_000, repository.searchByReference("batch", account, null, null, 5_000).size());
+        }
+        assertEquals(4_000, repository.searchByReference("batch", null, null, null, 5_000).size());
+    }
+}
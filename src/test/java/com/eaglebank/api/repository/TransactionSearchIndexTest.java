@@ -0,0 +1,147 @@
+package com.eaglebank.api.repository;
+
+import com.eaglebank.api.beans.Transaction;
+import com.eaglebank.api.beans.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TransactionSearchIndex and its use by TransactionRepository.
+ */
+public class TransactionSearchIndexTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T10:00:00Z");
+
+    private final TransactionRepository repository = new TransactionRepository();
+
+    private Transaction save(Long accountId, String reference, Instant createdTimestamp) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setAmount(BigDecimal.ONE);
+        transaction.setType(TransactionType.deposit);
+        transaction.setReference(reference);
+        transaction.setCreatedTimestamp(createdTimestamp);
+        return repository.save(transaction);
+    }
+
+    private static List<String> ids(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getId).toList();
+    }
+
+    @Test
+    void tokenize_splitsOnNonAlphanumerics_andLowercases() {
+        assertEquals(Set.of("invoice", "4412", "café"), TransactionSearchIndex.tokenize("Invoice #4412 - CAFÉ, invoice"));
+        assertTrue(TransactionSearchIndex.tokenize(null).isEmpty());
+        assertTrue(TransactionSearchIndex.tokenize(" -- ").isEmpty());
+    }
+
+    @Test
+    void search_matchesEveryWord_newestFirst() {
+        Transaction rent1 = save(1L, "Rent January", T0);
+        save(1L, "Invoice 4412", T0.plusSeconds(1));
+        Transaction rent2 = save(2L, "rent february", T0.plusSeconds(2));
+        save(1L, null, T0.plusSeconds(3));
+
+        assertEquals(ids(List.of(rent2, rent1)), ids(repository.searchByReference("RENT", null, null, null, 10)));
+        assertEquals(1, repository.searchByReference("invoice 4412", null, null, null, 10).size());
+        assertTrue(repository.searchByReference("invoice 9999", null, null, null, 10).isEmpty());
+        assertTrue(repository.searchByReference("inv", null, null, null, 10).isEmpty());
+    }
+
+    @Test
+    void search_filtersByAccountAndTime_andAppliesLimit() {
+        List<Transaction> account1 = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            account1.add(save(1L, "payment " + i, T0.plusSeconds(i)));
+            save(2L, "payment " + i, T0.plusSeconds(i));
+        }
+
+        List<Transaction> result = repository.searchByReference("payment", 1L, T0.plusSeconds(2), T0.plusSeconds(8), 3);
+
+        // Seconds 2..7 match; the 3 newest are 7, 6 and 5
+        assertEquals(ids(List.of(account1.get(7), account1.get(6), account1.get(5))), ids(result));
+        assertTrue(repository.searchByReference("payment", 3L, null, null, 10).isEmpty());
+    }
+
+    @Test
+    void search_resavedTransaction_isFoundByItsNewReferenceOnly() {
+        Transaction transaction = save(1L, "old text", T0);
+
+        transaction.setReference("new text");
+        repository.save(transaction);
+
+        assertTrue(repository.searchByReference("old", null, null, null, 10).isEmpty());
+        assertEquals(List.of(transaction.getId()), ids(repository.searchByReference("text", null, null, null, 10)));
+    }
+
+    @Test
+    void search_acrossManyBlocks_usesSkipsAndStaysExact() {
+        // "common" is in every document, "rare" in every 1000th: only a few blocks are decoded
+        for (int i = 0; i < 20_000; i++) {
+            save((long) (i % 7), i % 1000 == 0 ? "common rare " + i : "common " + i, T0.plusSeconds(i));
+        }
+
+        List<Transaction> result = repository.searchByReference("rare common", null, null, null, 100);
+        assertEquals(20, result.size());
+        assertEquals("common rare 19000", result.get(0).getReference());
+
+        // Account 0 holds documents 0, 7, 14...: only multiples of 7000 are also rare
+        List<Transaction> account0 = repository.searchByReference("rare", 0L, null, null, 100);
+        assertEquals(List.of("common rare 14000", "common rare 7000", "common rare 0"),
+                account0.stream().map(Transaction::getReference).toList());
+    }
+
+    @Test
+    void search_timeFilterAcrossManyBlocks_skipsBlocksAndStaysExact() {
+        for (int i = 0; i < 20_000; i++) {
+            save((long) (i % 7), "common " + i, T0.plusSeconds(i));
+        }
+        // A re-saved transaction keeps its old creation time but is indexed under a new document
+        Transaction resaved = repository.searchByReference("common 500", null, null, null, 1).get(0);
+        repository.save(resaved);
+
+        // Only the window from second 400 to 600 matches, far behind the newest blocks
+        List<Transaction> result = repository.searchByReference("common", null, T0.plusSeconds(400), T0.plusSeconds(600), 500);
+        assertEquals(200, result.size());
+        assertTrue(result.stream().allMatch(t -> !t.getCreatedTimestamp().isBefore(T0.plusSeconds(400))
+                && t.getCreatedTimestamp().isBefore(T0.plusSeconds(600))));
+        assertEquals(1, result.stream().filter(t -> t.getId().equals(resaved.getId())).count());
+
+        // Bounds that fall between whole milliseconds
+        List<Transaction> edge = repository.searchByReference("common", 0L,
+                T0.plusSeconds(6_999).plusNanos(1), T0.plusSeconds(7_000).plusNanos(1), 10);
+        assertEquals(List.of("common 7000"), edge.stream().map(Transaction::getReference).toList());
+        assertTrue(repository.searchByReference("common", null, T0.plusSeconds(20_000), null, 10).isEmpty());
+    }
+
+    @Test
+    void postings_areDeltaEncoded_andDecodableByBlock() {
+        TransactionSearchIndex.Postings postings = new TransactionSearchIndex.Postings();
+        for (int docId = 0; docId < 10_000; docId++) {
+            postings.add(docId, T0.toEpochMilli() + docId);
+        }
+
+        // One byte per posting plus the skip entries, instead of 4 bytes per int
+        assertTrue(postings.sizeInBytes() < 12_000, "size " + postings.sizeInBytes());
+        assertEquals(T0.toEpochMilli() + TransactionSearchIndex.SKIP_INTERVAL, postings.oldestIn(1));
+        assertEquals(T0.toEpochMilli() + 2 * TransactionSearchIndex.SKIP_INTERVAL - 1, postings.newestUpTo(1));
+
+        TransactionSearchIndex.Lookup lookup = new TransactionSearchIndex.Lookup();
+        assertTrue(postings.contains(0, lookup));
+        assertTrue(postings.contains(5000, lookup));
+        assertTrue(postings.contains(9999, lookup));
+        assertFalse(postings.contains(10_000, lookup));
+
+        int[] buffer = new int[TransactionSearchIndex.SKIP_INTERVAL];
+        int lastBlock = postings.blocks() - 1;
+        assertEquals(10_000 % TransactionSearchIndex.SKIP_INTERVAL, postings.decodeBlock(lastBlock, buffer));
+        assertEquals(lastBlock * TransactionSearchIndex.SKIP_INTERVAL, buffer[0]);
+    }
+}
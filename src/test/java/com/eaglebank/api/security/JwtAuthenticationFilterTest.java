@@ -2,23 +2,26 @@ package com.eaglebank.api.security;
 
 import com.eaglebank.api.service.CustomUserDetailsService;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import java.io.IOException;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -27,15 +30,19 @@ import static org.mockito.Mockito.*;
  * Unit tests for JwtAuthenticationFilter.
  *
  * These tests verify the filter's behavior for:
- *  - valid bearer token -> sets Authentication in SecurityContext
+ *  - valid bearer token -> sets Authentication in SecurityContext, principal built from claims
  *  - missing Authorization header -> does not set Authentication
- *  - invalid token (validateToken returns false) -> does not set Authentication
+ *  - invalid token (parseClaims returns empty) -> does not set Authentication
  *  - token provider throws -> filter catches and processing continues
+ *  - repeated bearer token -> signature verified only once (served from VerifiedTokenCache)
+ *  - revoked token -> does not set Authentication, even when served from the cache
+ *  - public route -> token is not parsed at all
  */
 public class JwtAuthenticationFilterTest {
 
     private JwtTokenProvider tokenProvider;
     private CustomUserDetailsService userDetailsService;
+    private TokenRevocationList revocationList;
     private JwtAuthenticationFilter filter;
 
     @BeforeEach
@@ -47,6 +54,9 @@ public class JwtAuthenticationFilterTest {
         // inject mocked dependencies into the filter's autowired fields
         ReflectionTestUtils.setField(filter, "tokenProvider", tokenProvider);
         ReflectionTestUtils.setField(filter, "customUserDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "verifiedTokenCache", new VerifiedTokenCache(100, new SimpleMeterRegistry()));
+        revocationList = new TokenRevocationList(100, 0.01, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filter, "tokenRevocationList", revocationList);
     }
 
     @AfterEach
@@ -66,24 +76,120 @@ public class JwtAuthenticationFilterTest {
         MockHttpServletResponse response = new MockHttpServletResponse();
         FilterChain chain = mock(FilterChain.class);
 
-        when(tokenProvider.validateToken(token)).thenReturn(true);
-        when(tokenProvider.getUsernameFromJwt(token)).thenReturn(username);
-
-        UserDetails userDetails = new User(username, "pwd", List.of(new SimpleGrantedAuthority("ROLE_USER")));
-        when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
+        when(tokenProvider.parseClaims(token)).thenReturn(Optional.of(Jwts.claims()
+                .subject(username)
+                .add(JwtTokenProvider.CLAIM_USER_ID, 7L)
+                .add(JwtTokenProvider.CLAIM_ROLES, List.of("ROLE_USER"))
+                .build()));
 
         filter.doFilterInternal(request, response, chain);
 
-        assertNotNull(SecurityContextHolder.getContext().getAuthentication(), "Authentication should be set");
-        assertTrue(SecurityContextHolder.getContext().getAuthentication().isAuthenticated());
-        assertEquals(username, SecurityContextHolder.getContext().getAuthentication().getName());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication, "Authentication should be set");
+        assertTrue(authentication.isAuthenticated());
+        assertEquals(username, authentication.getName());
+        // The principal exposes the user ID and roles from the token without any user lookup
+        assertEquals(7L, AuthenticatedUser.userIdOf(authentication));
+        assertTrue(authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_USER")));
 
-        verify(tokenProvider, times(1)).validateToken(token);
-        verify(tokenProvider, times(1)).getUsernameFromJwt(token);
+        // The token must be parsed and verified exactly once per request
+        verify(tokenProvider, times(1)).parseClaims(token);
+        verify(tokenProvider, never()).validateToken(anyString());
+        verify(tokenProvider, never()).getUsernameFromJwt(anyString());
         verify(userDetailsService, times(1)).loadUserByUsername(username);
         verify(chain, times(1)).doFilter(request, response);
     }
 
+    @Test
+    void doFilterInternal_repeatedToken_verifiesSignatureOnlyOnce() throws ServletException, IOException {
+        String token = "repeated.jwt.token";
+        String username = "user@example.com";
+        Date expiry = new Date(System.currentTimeMillis() + 60_000);
+
+        when(tokenProvider.parseClaims(token))
+                .thenReturn(Optional.of(Jwts.claims().subject(username).expiration(expiry).build()));
+
+        for (int i = 0; i < 3; i++) {
+            SecurityContextHolder.clearContext();
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader("Authorization", "Bearer " + token);
+            filter.doFilterInternal(request, new MockHttpServletResponse(), mock(FilterChain.class));
+
+            assertEquals(username, SecurityContextHolder.getContext().getAuthentication().getName());
+        }
+
+        // First request verifies the signature; the next two are cache hits
+        verify(tokenProvider, times(1)).parseClaims(token);
+    }
+
+    @Test
+    void doFilterInternal_revokedToken_doesNotSetAuthentication() throws ServletException, IOException {
+        String token = "revoked.jwt.token";
+        String username = "user@example.com";
+        Date expiry = new Date(System.currentTimeMillis() + 60_000);
+
+        when(tokenProvider.parseClaims(token))
+                .thenReturn(Optional.of(Jwts.claims().id("jti-1").subject(username).expiration(expiry).build()));
+
+        // First request caches the verified token
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilterInternal(request, new MockHttpServletResponse(), mock(FilterChain.class));
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+
+        // After logout the cached token must no longer authenticate
+        revocationList.revoke("jti-1", expiry.toInstant());
+        SecurityContextHolder.clearContext();
+        FilterChain chain = mock(FilterChain.class);
+        filter.doFilterInternal(request, new MockHttpServletResponse(), chain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication(), "Revoked tokens must not be authenticated");
+        verify(chain, times(1)).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilterInternal_tokenOfDeletedUser_doesNotSetAuthentication() throws ServletException, IOException {
+        String token = "deleted.user.token";
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        FilterChain chain = mock(FilterChain.class);
+
+        when(tokenProvider.parseClaims(token)).thenReturn(Optional.of(Jwts.claims().subject("gone@example.com").build()));
+        when(userDetailsService.loadUserByUsername("gone@example.com"))
+                .thenThrow(new UsernameNotFoundException("User not found with email: gone@example.com"));
+
+        filter.doFilterInternal(request, new MockHttpServletResponse(), chain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication(), "Deleted users must not be authenticated");
+        verify(chain, times(1)).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilter_publicRoute_skipsTokenProcessing() throws ServletException, IOException {
+        for (String[] route : new String[][]{
+                {"POST", "/api/auth/login"}, {"POST", "/api/auth/refresh"}, {"POST", "/v1/users"}, {"GET", "/h2-console/login.jsp"}}) {
+            MockHttpServletRequest request = new MockHttpServletRequest(route[0], route[1]);
+            request.addHeader("Authorization", "Bearer junk.jwt.token");
+            FilterChain chain = mock(FilterChain.class);
+
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+            verify(chain, times(1)).doFilter(any(), any());
+        }
+        verify(tokenProvider, never()).parseClaims(anyString());
+    }
+
+    @Test
+    void doFilter_protectedRoute_processesToken() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/users");
+        request.addHeader("Authorization", "Bearer junk.jwt.token");
+        when(tokenProvider.parseClaims("junk.jwt.token")).thenReturn(Optional.empty());
+
+        filter.doFilter(request, new MockHttpServletResponse(), mock(FilterChain.class));
+
+        verify(tokenProvider, times(1)).parseClaims("junk.jwt.token");
+    }
+
     @Test
     void doFilterInternal_missingAuthorizationHeader_doesNotSetAuthentication() throws ServletException, IOException {
         MockHttpServletRequest request = new MockHttpServletRequest();
@@ -93,26 +199,25 @@ public class JwtAuthenticationFilterTest {
         filter.doFilterInternal(request, response, chain);
 
         assertNull(SecurityContextHolder.getContext().getAuthentication(), "No authentication should be set");
-        verify(tokenProvider, never()).validateToken(anyString());
+        verify(tokenProvider, never()).parseClaims(anyString());
         verify(userDetailsService, never()).loadUserByUsername(anyString());
         verify(chain, times(1)).doFilter(request, response);
     }
 
     @Test
-    void doFilterInternal_invalidToken_validateReturnsFalse_noAuthentication() throws ServletException, IOException {
+    void doFilterInternal_invalidToken_parseClaimsReturnsEmpty_noAuthentication() throws ServletException, IOException {
         String token = "invalid.jwt.token";
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.addHeader("Authorization", "Bearer " + token);
         MockHttpServletResponse response = new MockHttpServletResponse();
         FilterChain chain = mock(FilterChain.class);
 
-        when(tokenProvider.validateToken(token)).thenReturn(false);
+        when(tokenProvider.parseClaims(token)).thenReturn(Optional.empty());
 
         filter.doFilterInternal(request, response, chain);
 
         assertNull(SecurityContextHolder.getContext().getAuthentication(), "Authentication must not be set for invalid token");
-        verify(tokenProvider, times(1)).validateToken(token);
-        verify(tokenProvider, never()).getUsernameFromJwt(anyString());
+        verify(tokenProvider, times(1)).parseClaims(token);
         verify(userDetailsService, never()).loadUserByUsername(anyString());
         verify(chain, times(1)).doFilter(request, response);
     }
@@ -125,13 +230,13 @@ public class JwtAuthenticationFilterTest {
         MockHttpServletResponse response = new MockHttpServletResponse();
         FilterChain chain = mock(FilterChain.class);
 
-        when(tokenProvider.validateToken(token)).thenThrow(new JwtException("boom"));
+        when(tokenProvider.parseClaims(token)).thenThrow(new JwtException("boom"));
 
         // Should not propagate; filter should catch and allow chain to continue
         filter.doFilterInternal(request, response, chain);
 
         assertNull(SecurityContextHolder.getContext().getAuthentication(), "Authentication should not be set when token provider throws");
-        verify(tokenProvider, times(1)).validateToken(token);
+        verify(tokenProvider, times(1)).parseClaims(token);
         verify(chain, times(1)).doFilter(request, response);
     }
 }
\ No newline at end of file
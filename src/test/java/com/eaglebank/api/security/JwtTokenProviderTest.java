@@ -1,5 +1,6 @@
 package com.eaglebank.api.security;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
@@ -7,12 +8,14 @@ import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -42,6 +45,8 @@ public class JwtTokenProviderTest {
 
         ReflectionTestUtils.setField(provider, "jwtSecret", base64Secret);
         ReflectionTestUtils.setField(provider, "jwtExpirationMs", 3600000L); // 1 hour
+        // @PostConstruct is not invoked outside a Spring context, so build the key and parser here
+        provider.init();
     }
 
     @Test
@@ -77,8 +82,10 @@ public class JwtTokenProviderTest {
 
         String token = provider.generateToken(auth);
 
-        // Tamper token by altering a character (simple approach)
-        String tampered = token.substring(0, token.length() - 1) + (token.charAt(token.length()-1) == 'a' ? 'b' : 'a');
+        // Tamper token by altering a character inside the signature. The last Base64URL character only
+        // carries 2 significant bits, so altering it can leave the decoded signature unchanged.
+        int index = token.length() - 10;
+        String tampered = token.substring(0, index) + (token.charAt(index) == 'a' ? 'b' : 'a') + token.substring(index + 1);
 
         // Accept either a boolean false return or a JwtException being thrown depending on provider implementation.
         try {
@@ -90,6 +97,54 @@ public class JwtTokenProviderTest {
         }
     }
 
+    @Test
+    void parseClaims_validToken_returnsSubjectAndExpiration() {
+        User principal = new User("user3@example.com", "password", List.of());
+        Authentication auth = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+
+        String token = provider.generateToken(auth);
+
+        Optional<Claims> claims = provider.parseClaims(token);
+
+        assertTrue(claims.isPresent(), "Generated token should parse into claims");
+        assertEquals("user3@example.com", claims.get().getSubject());
+        assertNotNull(claims.get().getExpiration());
+        assertEquals("user3@example.com", provider.getUsernameFromJwt(token));
+    }
+
+    @Test
+    void generateToken_assignsUniqueTokenId() {
+        User principal = new User("user5@example.com", "password", List.of());
+        Authentication auth = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+
+        String first = provider.parseClaims(provider.generateToken(auth)).orElseThrow().getId();
+        String second = provider.parseClaims(provider.generateToken(auth)).orElseThrow().getId();
+
+        assertNotNull(first, "Every token needs a jti so it can be revoked");
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void generateToken_embedsUserIdAndRoles_readableAsPrincipal() {
+        AuthenticatedUser principal = new AuthenticatedUser(42L, "user4@example.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        Authentication auth = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+
+        String token = provider.generateToken(auth);
+        AuthenticatedUser fromToken = AuthenticatedUser.fromClaims(provider.parseClaims(token).orElseThrow());
+
+        assertEquals(42L, fromToken.getUserId());
+        assertEquals("user4@example.com", fromToken.getUsername());
+        assertNull(fromToken.getPassword(), "Credentials must never be carried in the token");
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER")), List.copyOf(fromToken.getAuthorities()));
+    }
+
+    @Test
+    void parseClaims_invalidToken_returnsEmpty() {
+        assertTrue(provider.parseClaims("not-a-valid-token").isEmpty());
+        assertTrue(provider.parseClaims("").isEmpty());
+    }
+
     @Test
     void parse_invalidToken_throwsException() {
         String base64Secret = (String) ReflectionTestUtils.getField(provider, "jwtSecret");
@@ -0,0 +1,151 @@
+package com.eaglebank.api.security;
+
+import com.eaglebank.api.exception.CapacityExceededException;
+import com.eaglebank.api.exception.PasswordHashingException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PasswordHashingEncoder.
+ */
+public class PasswordHashingEncoderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ThreadPoolExecutor hashPool;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        hashPool = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(4));
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashPool.shutdownNow();
+    }
+
+    @Test
+    void encodeAndMatches_runOnPoolAndRecordLatency() {
+        PasswordHashingEncoder encoder = new PasswordHashingEncoder(new BCryptPasswordEncoder(4), hashPool,
+                Duration.ofSeconds(5), meterRegistry);
+
+        String hash = encoder.encode("guest");
+
+        assertTrue(encoder.matches("guest", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(1, meterRegistry.get(PasswordHashingEncoder.TIMER_NAME).tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get(PasswordHashingEncoder.TIMER_NAME).tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void matches_whenPoolSaturated_failsFast() throws Exception {
+        CountDownLatch hashing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slowDelegate = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                hashing.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        // One hashing thread and no queue: a second concurrent hash is rejected
+        ThreadPoolExecutor saturatedPool = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new SynchronousQueue<>());
+        PasswordHashingEncoder encoder = new PasswordHashingEncoder(slowDelegate, saturatedPool, Duration.ofSeconds(5), meterRegistry);
+
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> first = caller.submit(() -> encoder.matches("a", "a"));
+            assertTrue(hashing.await(5, TimeUnit.SECONDS), "First hash should be running on the pool");
+
+            // The only hashing thread is busy and there is no queue: reject instead of waiting
+            assertThrows(CapacityExceededException.class, () -> encoder.matches("b", "b"));
+
+            release.countDown();
+            assertTrue(first.get(5, TimeUnit.SECONDS));
+        } finally {
+            caller.shutdownNow();
+            saturatedPool.shutdownNow();
+        }
+    }
+
+    @Test
+    void matches_whenHashExceedsTimeout_failsWithCapacityException() {
+        PasswordEncoder stuckDelegate = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        PasswordHashingEncoder encoder = new PasswordHashingEncoder(stuckDelegate, hashPool, Duration.ofMillis(50), meterRegistry);
+
+        assertThrows(CapacityExceededException.class, () -> encoder.matches("a", "a"));
+    }
+
+    @Test
+    void upgradeEncoding_lowerBcryptCost_isUpgraded() {
+        String weakHash = new BCryptPasswordEncoder(4).encode("guest");
+        PasswordHashingEncoder encoder = new PasswordHashingEncoder(new BCryptPasswordEncoder(6), hashPool,
+                Duration.ofSeconds(5), meterRegistry);
+
+        assertTrue(encoder.upgradeEncoding(weakHash), "Hashes below the configured cost should be upgraded");
+        assertFalse(encoder.upgradeEncoding(encoder.encode("guest")));
+    }
+
+    @Test
+    void matches_whenDelegateFailsUnexpectedly_failsWithHashingException() {
+        PasswordEncoder brokenDelegate = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                throw new IllegalStateException("broken");
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                throw new IllegalArgumentException("There is no PasswordEncoder mapped for the id \"null\"");
+            }
+        };
+        PasswordHashingEncoder encoder = new PasswordHashingEncoder(brokenDelegate, hashPool, Duration.ofSeconds(5), meterRegistry);
+
+        // An internal fault is not a client conflict (409): it is reported as a hashing failure (500)
+        PasswordHashingException e = assertThrows(PasswordHashingException.class, () -> encoder.encode("a"));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        // The delegate's contract exception for an unknown hash id is surfaced as is
+        assertThrows(IllegalArgumentException.class, () -> encoder.matches("a", "a"));
+    }
+}
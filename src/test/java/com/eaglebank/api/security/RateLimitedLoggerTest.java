@@ -0,0 +1,31 @@
+package com.eaglebank.api.security;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RateLimitedLogger.
+ */
+public class RateLimitedLoggerTest {
+
+    @Test
+    void warn_beyondBudget_isSuppressedUntilNextWindow() throws InterruptedException {
+        RateLimitedLogger log = new RateLimitedLogger(LoggerFactory.getLogger(RateLimitedLoggerTest.class), 3, Duration.ofMillis(200));
+
+        int logged = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (log.warn("Invalid token {}", i)) {
+                logged++;
+            }
+        }
+        assertEquals(3, logged, "Only the per-window budget may reach the log");
+
+        Thread.sleep(250);
+
+        assertTrue(log.warn("Invalid token after window"), "A new window restores the budget");
+    }
+}
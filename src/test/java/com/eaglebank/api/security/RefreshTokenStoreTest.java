@@ -0,0 +1,53 @@
+package com.eaglebank.api.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RefreshTokenStore.
+ */
+public class RefreshTokenStoreTest {
+
+    private final RefreshTokenStore store = new RefreshTokenStore(Duration.ofMinutes(5), 100, new SimpleMeterRegistry());
+
+    @Test
+    void issue_thenConsume_returnsSessionOnce() {
+        String token = store.issue("user@example.com");
+
+        Optional<RefreshTokenStore.RefreshSession> session = store.consume(token);
+
+        assertTrue(session.isPresent());
+        assertEquals("user@example.com", session.get().username());
+        assertTrue(store.consume(token).isEmpty(), "Refresh tokens are single use");
+    }
+
+    @Test
+    void issue_returnsDistinctOpaqueTokens() {
+        String first = store.issue("user@example.com");
+        String second = store.issue("user@example.com");
+
+        assertNotEquals(first, second);
+        assertFalse(first.contains("user@example.com"), "Tokens must not embed the user");
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void consume_unknownOrBlankToken_returnsEmpty() {
+        assertTrue(store.consume("not-a-token").isEmpty());
+        assertTrue(store.consume("").isEmpty());
+        assertTrue(store.consume(null).isEmpty());
+    }
+
+    @Test
+    void consume_expiredToken_returnsEmpty() {
+        RefreshTokenStore shortLived = new RefreshTokenStore(Duration.ZERO, 100, new SimpleMeterRegistry());
+        String token = shortLived.issue("user@example.com");
+
+        assertTrue(shortLived.consume(token).isEmpty());
+    }
+}
@@ -0,0 +1,89 @@
+package com.eaglebank.api.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TokenRevocationList.
+ */
+public class TokenRevocationListTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        revocationList = new TokenRevocationList(1000, 0.01, meterRegistry);
+    }
+
+    private double checks(String result) {
+        return meterRegistry.get(TokenRevocationList.METRIC_NAME).tag("result", result).counter().count();
+    }
+
+    @Test
+    void revoke_thenIsRevoked_returnsTrue() {
+        revocationList.revoke("jti-1", Instant.now().plusSeconds(60));
+
+        assertTrue(revocationList.isRevoked("jti-1"));
+        assertFalse(revocationList.isRevoked("jti-2"));
+        assertFalse(revocationList.isRevoked(null), "Tokens without a jti cannot be revoked");
+        assertEquals(1, checks("revoked"));
+    }
+
+    @Test
+    void isRevoked_unrevokedTokens_mostlyAnsweredByBloomFilter() {
+        for (int i = 0; i < 500; i++) {
+            revocationList.revoke(UUID.randomUUID().toString(), Instant.now().plusSeconds(60));
+        }
+
+        int probes = 10_000;
+        for (int i = 0; i < probes; i++) {
+            assertFalse(revocationList.isRevoked(UUID.randomUUID().toString()));
+        }
+
+        // Sized for 1000 entries at 1%, so well under 1% of probes should reach the exact set
+        assertTrue(checks("false_positive") < probes * 0.01, "False positives: " + checks("false_positive"));
+        assertEquals(probes, checks("not_revoked") + checks("false_positive"));
+    }
+
+    @Test
+    void revoke_alreadyExpiredToken_isNotStored() {
+        revocationList.revoke("jti-1", Instant.now().minusSeconds(1));
+
+        assertFalse(revocationList.isRevoked("jti-1"));
+        assertEquals(0, revocationList.size());
+    }
+
+    @Test
+    void isRevoked_afterTokenExpiry_returnsFalseAndPrunes() throws InterruptedException {
+        revocationList.revoke("jti-1", Instant.now().plusMillis(50));
+        assertTrue(revocationList.isRevoked("jti-1"));
+
+        Thread.sleep(100);
+
+        assertFalse(revocationList.isRevoked("jti-1"), "Expired tokens are rejected anyway, so stop tracking them");
+        // Expiry is processed on a timer wheel with roughly one-second granularity
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (revocationList.size() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            revocationList.rebuildBloomFilter();
+        }
+        assertEquals(0, revocationList.size());
+    }
+
+    @Test
+    void rebuildBloomFilter_keepsLiveRevocations() {
+        revocationList.revoke("jti-live", Instant.now().plusSeconds(60));
+
+        revocationList.rebuildBloomFilter();
+
+        assertTrue(revocationList.isRevoked("jti-live"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.eaglebank.api.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for VerifiedTokenCache.
+ */
+public class VerifiedTokenCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new VerifiedTokenCache(2, meterRegistry);
+    }
+
+    private Claims claims(String subject, long ttlMs) {
+        return Jwts.claims().subject(subject).expiration(new Date(System.currentTimeMillis() + ttlMs)).build();
+    }
+
+    @Test
+    void put_thenGet_returnsVerifiedPrincipal() {
+        cache.put("token-1", claims("user@example.com", 60_000));
+
+        VerifiedTokenCache.VerifiedToken verified = cache.getIfPresent("token-1");
+
+        assertNotNull(verified);
+        assertEquals("user@example.com", verified.principal().getUsername());
+        assertNull(cache.getIfPresent("token-2"), "Unknown tokens must miss");
+    }
+
+    @Test
+    void getIfPresent_tokensDifferingOnlyInNonAsciiCharacters_doNotShareAnEntry() {
+        cache.put("token-\u00e9", claims("user@example.com", 60_000));
+
+        assertNull(cache.getIfPresent("token-\u00e8"));
+        assertNull(cache.getIfPresent("token-?"));
+    }
+
+    @Test
+    void getIfPresent_expiredToken_returnsNull() {
+        cache.put("token-1", claims("user@example.com", -1_000));
+
+        assertNull(cache.getIfPresent("token-1"), "Expired tokens must never be served from the cache");
+    }
+
+    @Test
+    void put_tokenWithoutExpiration_isNotCached() {
+        VerifiedTokenCache.VerifiedToken verified = cache.put("token-1", Jwts.claims().subject("user@example.com").build());
+
+        assertEquals("user@example.com", verified.principal().getUsername());
+        assertNull(cache.getIfPresent("token-1"));
+    }
+
+    @Test
+    void put_beyondMaxSize_evictsEntries() {
+        for (int i = 0; i < 50; i++) {
+            cache.put("token-" + i, claims("user" + i + "@example.com", 60_000));
+        }
+        // Force Caffeine's asynchronous maintenance so the size cap is applied
+        cache.cleanUp();
+
+        assertTrue(cache.size() <= 2, "Cache must stay within its size cap");
+    }
+
+    @Test
+    void getIfPresent_recordsHitAndMissMetrics() {
+        cache.put("token-1", claims("user@example.com", 60_000));
+        cache.getIfPresent("token-1");
+        cache.getIfPresent("token-1");
+        cache.getIfPresent("unknown");
+
+        double hits = meterRegistry.get("cache.gets").tag("cache", VerifiedTokenCache.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count();
+        double misses = meterRegistry.get("cache.gets").tag("cache", VerifiedTokenCache.CACHE_NAME).tag("result", "miss")
+                .functionCounter().count();
+
+        assertEquals(2, hits);
+        assertEquals(1, misses);
+    }
+}
@@ -0,0 +1,82 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.beans.Account;
+import com.eaglebank.api.beans.AccountType;
+import com.eaglebank.api.repository.AccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AccountMetadataCache.
+ */
+public class AccountMetadataCacheTest {
+
+    private AccountRepository accountRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private AccountMetadataCache cache;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = mock(AccountRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new AccountMetadataCache(accountRepository, 100, Duration.ofMinutes(10), meterRegistry);
+
+        account = new Account();
+        account.setId(10L);
+        account.setUserId(1L);
+        account.setAccountNumber("01234567");
+        account.setAccountType(AccountType.PERSONAL);
+        account.setCurrency("GBP");
+        when(accountRepository.findByAccountNumber("01234567")).thenReturn(Optional.of(account));
+    }
+
+    @Test
+    void get_repeatedLookups_queryOnce() {
+        AccountMetadataCache.AccountMetadata first = cache.get("01234567");
+        AccountMetadataCache.AccountMetadata second = cache.get("01234567");
+
+        assertEquals(new AccountMetadataCache.AccountMetadata(10L, 1L, AccountType.PERSONAL, "GBP"), first);
+        assertSame(first, second);
+        verify(accountRepository, times(1)).findByAccountNumber("01234567");
+    }
+
+    @Test
+    void invalidate_nextLookupReloads() {
+        cache.get("01234567");
+        account.setAccountType(AccountType.BUSINESS);
+
+        cache.invalidate("01234567");
+
+        assertEquals(AccountType.BUSINESS, cache.get("01234567").accountType());
+        verify(accountRepository, times(2)).findByAccountNumber("01234567");
+    }
+
+    @Test
+    void get_unknownAccount_isNotCached() {
+        when(accountRepository.findByAccountNumber("MISSING")).thenReturn(Optional.empty());
+
+        assertNull(cache.get("MISSING"));
+        assertNull(cache.get("MISSING"));
+
+        // A miss must not hide an account created right after it
+        verify(accountRepository, times(2)).findByAccountNumber("MISSING");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void get_publishesHitAndMissMetrics() {
+        cache.get("01234567");
+        cache.get("01234567");
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", AccountMetadataCache.CACHE_NAME).tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", AccountMetadataCache.CACHE_NAME).tag("result", "miss").functionCounter().count());
+    }
+}
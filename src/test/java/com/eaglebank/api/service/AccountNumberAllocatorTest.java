@@ -0,0 +1,131 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.beans.AccountNumberSequence;
+import com.eaglebank.api.exception.AccountNumbersExhaustedException;
+import com.eaglebank.api.repository.AccountNumberSequenceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AccountNumberAllocator.
+ */
+public class AccountNumberAllocatorTest {
+
+    private AccountNumberSequenceRepository sequenceRepository;
+    private PlatformTransactionManager transactionManager;
+    private AccountNumberSequence sequence;
+
+    @BeforeEach
+    void setUp() {
+        sequenceRepository = mock(AccountNumberSequenceRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        sequence = new AccountNumberSequence(AccountNumberAllocator.SEQUENCE_NAME, 0);
+        when(sequenceRepository.findForUpdate(AccountNumberAllocator.SEQUENCE_NAME)).thenAnswer(invocation -> Optional.of(sequence));
+        when(sequenceRepository.saveAndFlush(any(AccountNumberSequence.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private AccountNumberAllocator allocator(boolean checkDigit, boolean scramble, int blockSize) {
+        return new AccountNumberAllocator(sequenceRepository, transactionManager, "01", 8, checkDigit, scramble, 42L, blockSize);
+    }
+
+    @Test
+    void nextAccountNumber_reservesBlocksFromTheDatabase() {
+        AccountNumberAllocator allocator = allocator(false, false, 10);
+
+        List<String> numbers = IntStream.range(0, 25).mapToObj(i -> allocator.nextAccountNumber()).toList();
+
+        assertEquals("01000000", numbers.get(0));
+        assertEquals("01000024", numbers.get(24));
+        // 25 numbers from blocks of 10: three reservations, one database round trip each
+        verify(sequenceRepository, times(3)).findForUpdate(AccountNumberAllocator.SEQUENCE_NAME);
+        assertEquals(30, sequence.getNextValue());
+    }
+
+    @Test
+    void nextAccountNumber_concurrentCallers_neverCollide() throws Exception {
+        AccountNumberAllocator allocator = allocator(false, true, 100);
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        assertTrue(numbers.add(allocator.nextAccountNumber()), "Duplicate account number");
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(40_000, numbers.size());
+        assertTrue(numbers.stream().allMatch(n -> n.matches("^01\\d{6}$")), "Numbers must follow the 01 + 6 digits format");
+        // 400 blocks of 100: no block is reserved twice or skipped under contention
+        assertEquals(40_000, sequence.getNextValue());
+    }
+
+    @Test
+    void scrambledNumbers_areNotSequential() {
+        AccountNumberAllocator allocator = allocator(false, true, 100);
+
+        String first = allocator.nextAccountNumber();
+        String second = allocator.nextAccountNumber();
+
+        assertNotEquals(Long.parseLong(first) + 1, Long.parseLong(second));
+    }
+
+    @Test
+    void permute_isABijectionOnTheDomain() {
+        for (long domain : new long[]{1, 10, 1_000, 100_000}) {
+            Set<Long> seen = new HashSet<>();
+            for (long value = 0; value < domain; value++) {
+                long mapped = AccountNumberAllocator.permute(value, domain, 42L);
+                assertTrue(mapped >= 0 && mapped < domain, "Mapped value must stay inside the domain");
+                assertTrue(seen.add(mapped), "Two values mapped to " + mapped);
+            }
+        }
+    }
+
+    @Test
+    void checkDigit_isValidLuhn() {
+        AccountNumberAllocator allocator = allocator(true, true, 100);
+
+        for (int i = 0; i < 100; i++) {
+            String number = allocator.nextAccountNumber();
+            assertTrue(number.matches("^01\\d{6}$"));
+            String body = number.substring(0, 7);
+            assertEquals(AccountNumberAllocator.luhnCheckDigit(body), number.charAt(7) - '0');
+        }
+        // Known Luhn example: 7992739871 -> 3
+        assertEquals(3, AccountNumberAllocator.luhnCheckDigit("7992739871"));
+    }
+
+    @Test
+    void nextAccountNumber_spaceExhausted_throws() {
+        sequence.setNextValue(1_000_000);
+        AccountNumberAllocator allocator = allocator(false, true, 100);
+
+        assertThrows(AccountNumbersExhaustedException.class, allocator::nextAccountNumber);
+    }
+}
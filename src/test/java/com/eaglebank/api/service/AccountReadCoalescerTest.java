@@ -0,0 +1,168 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.beans.AccountDetailsResponse;
+import com.eaglebank.api.beans.Transaction;
+import com.eaglebank.api.beans.TransactionType;
+import com.eaglebank.api.repository.AccountRepository;
+import com.eaglebank.api.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AccountReadCoalescer.
+ */
+public class AccountReadCoalescerTest {
+
+    private static final int CALLERS = 16;
+
+    private AccountRepository accountRepository;
+    private TransactionRepository transactionRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private AccountReadCoalescer coalescer;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = mock(AccountRepository.class);
+        transactionRepository = mock(TransactionRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new AccountReadCoalescer(accountRepository, transactionRepository, meterRegistry);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private double coalesced(String name) {
+        return meterRegistry.get("singleflight.calls").tag("name", name).tag("result", "coalesced").counter().count();
+    }
+
+    /**
+     * Holds the first query open until every other caller has joined it.
+     */
+    private void awaitCoalesced(String name, CountDownLatch release) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (coalesced(name) < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+    }
+
+    @Test
+    void findAccountDetails_simultaneousCallers_runOneQuery() throws Exception {
+        AccountDetailsResponse details = new AccountDetailsResponse();
+        details.setAccountNumber("01000001");
+        CountDownLatch release = new CountDownLatch(1);
+        when(accountRepository.findDetailsByAccountNumberAndUserId("01000001", 1L)).thenAnswer(invocation -> {
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return Optional.of(details);
+        });
+
+        List<Future<Optional<AccountDetailsResponse>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> coalescer.findAccountDetails("01000001", 1L)));
+        }
+        awaitCoalesced("accountDetails", release);
+
+        for (Future<Optional<AccountDetailsResponse>> result : results) {
+            assertSame(details, result.get(10, TimeUnit.SECONDS).orElseThrow());
+        }
+        verify(accountRepository, times(1)).findDetailsByAccountNumberAndUserId("01000001", 1L);
+        assertEquals(CALLERS - 1, coalesced("accountDetails"));
+    }
+
+    @Test
+    void findTransactionHistory_simultaneousCallers_runOneQuery() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionRepository.findVersionByAccountId(10L)).thenReturn(new TransactionRepository.LedgerVersion(1, "tx-1"));
+        when(transactionRepository.findByAccountId(10L)).thenAnswer(invocation -> {
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return List.of();
+        });
+
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> coalescer.findTransactionHistory(10L)));
+        }
+        awaitCoalesced("transactionHistory", release);
+
+        for (Future<?> result : results) {
+            assertEquals(List.of(), result.get(10, TimeUnit.SECONDS));
+        }
+        verify(transactionRepository, times(1)).findByAccountId(10L);
+    }
+
+    @Test
+    void findTransactionHistory_saveDuringLookup_laterCallerDoesNotJoinStaleLookup() throws Exception {
+        TransactionRepository ledger = spy(new TransactionRepository());
+        coalescer = new AccountReadCoalescer(accountRepository, ledger, meterRegistry);
+        ledger.save(transaction("tx-1", Instant.parse("2026-01-01T10:00:00Z")));
+
+        // The first lookup reads its rows, then stays in flight until released
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            Object rows = invocation.callRealMethod();
+            if (first.getAndSet(false)) {
+                read.countDown();
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            }
+            return rows;
+        }).when(ledger).findByAccountId(10L);
+        Future<List<Transaction>> stale = executor.submit(() -> coalescer.findTransactionHistory(10L));
+        assertTrue(read.await(10, TimeUnit.SECONDS));
+
+        // A save lands, then a caller reads the new version (its ETag) and the history
+        ledger.save(transaction("tx-2", Instant.parse("2026-01-01T10:00:01Z")));
+        TransactionRepository.LedgerVersion version = ledger.findVersionByAccountId(10L);
+        List<Transaction> history = coalescer.findTransactionHistory(10L);
+
+        // It ran its own lookup instead of sharing the one that missed tx-2
+        assertEquals(2, version.sequence());
+        assertEquals(List.of("tx-2", "tx-1"), history.stream().map(Transaction::getId).toList());
+        assertEquals(0, coalesced("transactionHistory"));
+        release.countDown();
+        assertEquals(1, stale.get(10, TimeUnit.SECONDS).size());
+    }
+
+    private static Transaction transaction(String id, Instant createdTimestamp) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAccountId(10L);
+        transaction.setAmount(BigDecimal.ONE);
+        transaction.setType(TransactionType.deposit);
+        transaction.setCreatedTimestamp(createdTimestamp);
+        return transaction;
+    }
+
+    @Test
+    void findAccountDetails_differentUsers_areQueriedSeparately() {
+        when(accountRepository.findDetailsByAccountNumberAndUserId(anyString(), anyLong())).thenReturn(Optional.empty());
+
+        coalescer.findAccountDetails("01000001", 1L);
+        coalescer.findAccountDetails("01000001", 2L);
+
+        verify(accountRepository, times(1)).findDetailsByAccountNumberAndUserId("01000001", 1L);
+        verify(accountRepository, times(1)).findDetailsByAccountNumberAndUserId("01000001", 2L);
+    }
+}
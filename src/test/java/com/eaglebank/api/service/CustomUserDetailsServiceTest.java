@@ -5,15 +5,20 @@ import com.eaglebank.api.beans.User;
 import com.eaglebank.api.exception.ResourceNotFoundException;
 import com.eaglebank.api.repository.AccountRepository;
 import com.eaglebank.api.repository.UserRepository;
+import com.eaglebank.api.security.AuthenticatedUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,53 +37,131 @@ public class CustomUserDetailsServiceTest {
     @Mock
     private AccountRepository accountRepository;
 
-    @InjectMocks
+    private PasswordEncoder passwordEncoder;
+
     private CustomUserDetailsService service;
 
     private User user;
 
     @BeforeEach
     void setUp() {
+        passwordEncoder = PasswordEncoderFactories.createDelegatingPasswordEncoder();
+        service = new CustomUserDetailsService(userRepository, accountRepository, passwordEncoder,
+                100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
         user = new User();
         user.setId(1L);
         user.setEmail("user@example.com");
         user.setName("Test User");
+        user.setPassword(passwordEncoder.encode("guest"));
     }
 
     @Test
-    void loadUserByUsername_knownOtherUser_returnsUserDetails() {
-        // otheruser@example.com is handled by hardcoded logic in service
-        UserDetails details = service.loadUserByUsername("otheruser@example.com");
+    void loadUserByUsername_registeredUser_returnsStoredHashAndRole() {
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+
+        UserDetails details = service.loadUserByUsername("user@example.com");
 
         assertNotNull(details);
-        assertEquals("otheruser@example.com", details.getUsername());
-        assertNotNull(details.getPassword());
-        assertFalse(details.getAuthorities().isEmpty());
+        assertEquals("user@example.com", details.getUsername());
+        assertTrue(passwordEncoder.matches("guest", details.getPassword()), "Stored hash must verify the raw password");
+        assertTrue(details.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_USER")));
     }
 
     @Test
-    void loadUserByUsername_knownUser_returnsUserDetails() {
+    void loadUserByUsername_registeredUser_principalCarriesUserId() {
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+
         UserDetails details = service.loadUserByUsername("user@example.com");
 
-        assertNotNull(details);
-        assertEquals("user@example.com", details.getUsername());
-        assertNotNull(details.getPassword());
-        assertFalse(details.getAuthorities().isEmpty());
+        assertInstanceOf(AuthenticatedUser.class, details);
+        assertEquals(1L, ((AuthenticatedUser) details).getUserId());
     }
 
     @Test
     void loadUserByUsername_unknown_throwsUsernameNotFoundException() {
+        when(userRepository.findByEmail("unknown@example.com")).thenReturn(Optional.empty());
+
         assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("unknown@example.com"));
     }
 
+    @Test
+    void loadUserByUsername_repeatedCalls_queryUserTableOnce() {
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+
+        service.loadUserByUsername("user@example.com");
+        service.loadUserByUsername("user@example.com");
+        service.loadUserByUsername("user@example.com");
+
+        verify(userRepository, times(1)).findByEmail("user@example.com");
+    }
+
+    @Test
+    void loadUserByUsername_unknownUser_isNotCached() {
+        when(userRepository.findByEmail("new@example.com")).thenReturn(Optional.empty());
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("new@example.com"));
+
+        // The user registers afterwards: the next login must see them
+        User registered = new User();
+        registered.setId(2L);
+        registered.setEmail("new@example.com");
+        when(userRepository.findByEmail("new@example.com")).thenReturn(Optional.of(registered));
+
+        assertEquals("new@example.com", service.loadUserByUsername("new@example.com").getUsername());
+    }
+
+    @Test
+    void evictUser_forcesReloadFromDatabase() {
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+        service.loadUserByUsername("user@example.com");
+
+        service.evictUser("user@example.com");
+        service.loadUserByUsername("user@example.com");
+
+        verify(userRepository, times(2)).findByEmail("user@example.com");
+    }
+
+    @Test
+    void encodePassword_replacesRawPasswordWithHash() {
+        User newUser = new User();
+        newUser.setPassword("secret");
+
+        service.encodePassword(newUser);
+
+        assertNotEquals("secret", newUser.getPassword());
+        assertTrue(passwordEncoder.matches("secret", newUser.getPassword()));
+    }
+
+    @Test
+    void updatePassword_storesUpgradedHashAndEvictsCachedPrincipal() {
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+        UserDetails cached = service.loadUserByUsername("user@example.com");
+        String upgradedHash = passwordEncoder.encode("guest");
+
+        UserDetails upgraded = service.updatePassword(cached, upgradedHash);
+
+        assertEquals(upgradedHash, upgraded.getPassword());
+        assertEquals(upgradedHash, user.getPassword());
+        verify(userRepository, times(1)).save(user);
+        // The next load must read the new hash from the database
+        service.loadUserByUsername("user@example.com");
+        verify(userRepository, times(3)).findByEmail("user@example.com");
+    }
+
     @Test
     void deleteUserWithoutBankAccount_userExistsAndNoAccounts_deletesUser() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(accountRepository.findAllByUserId(1L)).thenReturn(List.of());
 
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+        service.loadUserByUsername("user@example.com");
+
         service.deleteUserWithoutBankAccount(1L);
 
         verify(userRepository, times(1)).deleteById(1L);
+        // The deleted user must not be served from the principal cache any more
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.empty());
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("user@example.com"));
     }
 
     @Test
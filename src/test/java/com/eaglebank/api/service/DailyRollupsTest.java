@@ -0,0 +1,96 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.beans.DailyTotals;
+import com.eaglebank.api.beans.Transaction;
+import com.eaglebank.api.beans.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DailyRollups.
+ */
+public class DailyRollupsTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2026, 1, 1);
+
+    private static DailyRollups rollups() {
+        return new DailyRollups(ZoneId.of("Europe/London"), 30, 366, new SimpleMeterRegistry());
+    }
+
+    private static Transaction transaction(Long accountId, TransactionType type, String amount, Instant createdTimestamp) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setType(type);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setCurrency("GBP");
+        transaction.setCreatedTimestamp(createdTimestamp);
+        return transaction;
+    }
+
+    // Noon in London on the given day of January 2026 (GMT)
+    private static Instant jan(int day) {
+        return Instant.parse(String.format("2026-01-%02dT12:00:00Z", day));
+    }
+
+    @Test
+    void range_totalsEachDay_andCarriesClosingBalanceForward() {
+        DailyRollups rollups = rollups();
+        rollups.record(transaction(1L, TransactionType.deposit, "100.00", jan(2)));
+        rollups.record(transaction(1L, TransactionType.deposit, "50.25", jan(2)));
+        rollups.record(transaction(1L, TransactionType.withdrawal, "30.00", jan(4)));
+        rollups.record(transaction(2L, TransactionType.deposit, "999.00", jan(3)));
+
+        List<DailyTotals> days = rollups.range(1L, JAN_1, JAN_1.plusDays(4));
+
+        assertEquals(5, days.size());
+        assertEquals(new DailyTotals(JAN_1, BigDecimal.valueOf(0, 2), BigDecimal.valueOf(0, 2), 0, 0, BigDecimal.valueOf(0, 2)), days.get(0));
+        assertEquals(new DailyTotals(JAN_1.plusDays(1), new BigDecimal("150.25"), BigDecimal.valueOf(0, 2), 2, 0, new BigDecimal("150.25")), days.get(1));
+        assertEquals(new BigDecimal("150.25"), days.get(2).closingBalance());
+        assertEquals(new DailyTotals(JAN_1.plusDays(3), BigDecimal.valueOf(0, 2), new BigDecimal("30.00"), 0, 1, new BigDecimal("120.25")), days.get(3));
+        assertEquals(new BigDecimal("120.25"), days.get(4).closingBalance());
+    }
+
+    @Test
+    void range_startingAfterActivity_opensWithEarlierClosingBalance() {
+        DailyRollups rollups = rollups();
+        rollups.record(transaction(1L, TransactionType.deposit, "10.00", jan(2)));
+
+        List<DailyTotals> days = rollups.range(1L, JAN_1.plusDays(9), JAN_1.plusDays(10));
+
+        assertEquals(List.of(new BigDecimal("10.00"), new BigDecimal("10.00")),
+                days.stream().map(DailyTotals::closingBalance).toList());
+        assertEquals(List.of(), rollups.range(1L, JAN_1, JAN_1.minusDays(1)));
+    }
+
+    @Test
+    void record_lateCommitForEarlierDay_movesLaterClosingBalances() {
+        DailyRollups rollups = rollups();
+        rollups.record(transaction(1L, TransactionType.deposit, "10.00", jan(3)));
+        rollups.record(transaction(1L, TransactionType.deposit, "5.00", jan(2)));
+
+        List<DailyTotals> days = rollups.range(1L, JAN_1.plusDays(1), JAN_1.plusDays(2));
+
+        assertEquals(new BigDecimal("5.00"), days.get(0).closingBalance());
+        assertEquals(new BigDecimal("15.00"), days.get(1).closingBalance());
+    }
+
+    @Test
+    void dayBoundary_followsTheConfiguredZone() {
+        DailyRollups rollups = rollups();
+        // 23:30 UTC on 30 June is 00:30 on 1 July in London (BST)
+        rollups.record(transaction(1L, TransactionType.deposit, "1.00", Instant.parse("2026-06-30T23:30:00Z")));
+
+        List<DailyTotals> days = rollups.range(1L, LocalDate.of(2026, 6, 30), LocalDate.of(2026, 7, 1));
+
+        assertEquals(0, days.get(0).depositCount());
+        assertEquals(1, days.get(1).depositCount());
+    }
+}
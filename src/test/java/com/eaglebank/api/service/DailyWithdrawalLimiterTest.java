@@ -0,0 +1,125 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.exception.DailyLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DailyWithdrawalLimiter.
+ */
+public class DailyWithdrawalLimiterTest {
+
+    // 10:00 in London (GMT in January)
+    private static final Instant T0 = Instant.parse("2026-01-01T10:00:00Z");
+
+    private static DailyWithdrawalLimiter limiter() {
+        return new DailyWithdrawalLimiter(new FxRateTable(new ClassPathResource("fx-rates.properties")), BigDecimal.valueOf(100), ZoneId.of("Europe/London"), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void reserve_withinLimit_accumulatesAndThenBlocks() {
+        DailyWithdrawalLimiter limiter = limiter();
+
+        limiter.reserve(1L, new BigDecimal("60.00"), "GBP", T0);
+        limiter.reserve(1L, new BigDecimal("40.00"), "GBP", T0);
+
+        DailyLimitExceededException e = assertThrows(DailyLimitExceededException.class,
+                () -> limiter.reserve(1L, new BigDecimal("0.01"), "GBP", T0));
+        assertTrue(e.getMessage().contains("Remaining today: 0.00"));
+        assertEquals(new BigDecimal("100.00"), limiter.withdrawnOn(1L, T0));
+        // Other accounts have their own counter
+        limiter.reserve(2L, new BigDecimal("100.00"), "GBP", T0);
+    }
+
+    @Test
+    void reserve_refused_reservesNothing() {
+        DailyWithdrawalLimiter limiter = limiter();
+        limiter.reserve(1L, new BigDecimal("70.00"), "GBP", T0);
+
+        assertThrows(DailyLimitExceededException.class, () -> limiter.reserve(1L, new BigDecimal("40.00"), "GBP", T0));
+
+        limiter.reserve(1L, new BigDecimal("30.00"), "GBP", T0);
+    }
+
+    @Test
+    void reserve_nextDay_startsFromZero() {
+        DailyWithdrawalLimiter limiter = limiter();
+        limiter.reserve(1L, new BigDecimal("100.00"), "GBP", T0);
+
+        // Midnight in London
+        Instant nextDay = Instant.parse("2026-01-02T00:00:00Z");
+        assertEquals(BigDecimal.valueOf(0, 2), limiter.withdrawnOn(1L, nextDay));
+        limiter.reserve(1L, new BigDecimal("100.00"), "GBP", nextDay);
+    }
+
+    @Test
+    void release_givesBackTheReservation_onlyOnTheSameDay() {
+        DailyWithdrawalLimiter limiter = limiter();
+        limiter.reserve(1L, new BigDecimal("80.00"), "GBP", T0);
+
+        limiter.release(1L, new BigDecimal("50.00"), T0);
+        assertEquals(new BigDecimal("30.00"), limiter.withdrawnOn(1L, T0));
+
+        // A reservation from yesterday does not touch today's total
+        Instant nextDay = T0.plusSeconds(86_400);
+        limiter.reserve(1L, new BigDecimal("20.00"), "GBP", nextDay);
+        limiter.release(1L, new BigDecimal("30.00"), T0);
+        assertEquals(new BigDecimal("20.00"), limiter.withdrawnOn(1L, nextDay));
+    }
+
+    @Test
+    void reserve_foreignCurrencyAccount_convertsTheLimitFromTheBaseCurrency() {
+        DailyWithdrawalLimiter limiter = limiter();
+        // 100 GBP is 127.00 USD at 1.27
+        limiter.reserve(1L, new BigDecimal("127.00"), "USD", T0);
+
+        DailyLimitExceededException e = assertThrows(DailyLimitExceededException.class,
+                () -> limiter.reserve(1L, new BigDecimal("0.01"), "USD", T0));
+        assertTrue(e.getMessage().contains("127.00 USD"));
+    }
+
+    @Test
+    void reserve_concurrently_neverOvershootsTheLimit() throws Exception {
+        DailyWithdrawalLimiter limiter = limiter();
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < 100; j++) {
+                        try {
+                            limiter.reserve(1L, BigDecimal.ONE, "GBP", T0);
+                            accepted.incrementAndGet();
+                        } catch (DailyLimitExceededException ignored) {
+                            // Expected once the limit is used up
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(100, accepted.get());
+        assertEquals(new BigDecimal("100.00"), limiter.withdrawnOn(1L, T0));
+    }
+}
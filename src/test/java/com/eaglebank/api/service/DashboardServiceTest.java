@@ -0,0 +1,157 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.beans.Account;
+import com.eaglebank.api.beans.AccountDetailsResponse;
+import com.eaglebank.api.beans.Address;
+import com.eaglebank.api.beans.DashboardResponse;
+import com.eaglebank.api.beans.Transaction;
+import com.eaglebank.api.beans.User;
+import com.eaglebank.api.repository.AccountRepository;
+import com.eaglebank.api.repository.TransactionRepository;
+import com.eaglebank.api.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DashboardService.
+ */
+public class DashboardServiceTest {
+
+    private UserRepository userRepository;
+    private AccountRepository accountRepository;
+    private TransactionRepository transactionRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executor;
+    private DashboardService dashboardService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        accountRepository = mock(AccountRepository.class);
+        transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.findVersionByAccountId(anyLong())).thenReturn(new TransactionRepository.LedgerVersion(0, null));
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(4);
+        AccountMetadataCache accountMetadataCache = new AccountMetadataCache(accountRepository, 100, Duration.ofMinutes(10), meterRegistry);
+        dashboardService = new DashboardService(userRepository, accountRepository, accountMetadataCache,
+                new AccountReadCoalescer(accountRepository, transactionRepository, meterRegistry),
+                executor, Duration.ofMillis(300), 2, 10, meterRegistry);
+
+        user = new User("User 1", new Address("1 High St", "London", "ss", "dd", "gg", "hh"), "1234567890", "user1@example.com");
+        user.setId(1L);
+        when(userRepository.findReadOnlyById(1L)).thenReturn(Optional.of(user));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private void givenAccounts(String... accountNumbers) {
+        List<AccountDetailsResponse> details = new ArrayList<>();
+        for (int i = 0; i < accountNumbers.length; i++) {
+            Account account = new Account();
+            account.setId(100L + i);
+            account.setUserId(1L);
+            account.setAccountNumber(accountNumbers[i]);
+            when(accountRepository.findByAccountNumber(accountNumbers[i])).thenReturn(Optional.of(account));
+            details.add(AccountDetailsResponse.fromEntity(account));
+        }
+        when(accountRepository.findDetailsByUserId(1L)).thenReturn(details);
+    }
+
+    private static List<Transaction> history(int size) {
+        List<Transaction> history = new ArrayList<>();
+        for (int i = size; i > 0; i--) {
+            Transaction transaction = new Transaction();
+            transaction.setId("tan-" + i);
+            transaction.setCreatedTimestamp(Instant.EPOCH.plusSeconds(i));
+            history.add(transaction);
+        }
+        return history;
+    }
+
+    private double responses(String result) {
+        return meterRegistry.get("dashboard.responses").tag("result", result).counter().count();
+    }
+
+    @Test
+    void getDashboard_returnsUserAccountsAndLatestTransactions() {
+        givenAccounts("01000001", "01000002");
+        when(transactionRepository.findByAccountId(100L)).thenReturn(history(5));
+        when(transactionRepository.findByAccountId(101L)).thenReturn(List.of());
+
+        DashboardResponse dashboard = dashboardService.getDashboard(1L, null);
+
+        assertFalse(dashboard.partial());
+        assertSame(user, dashboard.user());
+        assertEquals(2, dashboard.accounts().size());
+        // Default of 2 per account, newest first
+        assertEquals(List.of("tan-5", "tan-4"), dashboard.accounts().get(0).recentTransactions().stream().map(Transaction::getId).toList());
+        assertEquals(List.of(), dashboard.accounts().get(1).recentTransactions());
+        assertEquals(1, responses("complete"));
+    }
+
+    @Test
+    void getDashboard_historiesAreLoadedInParallel() {
+        givenAccounts("01000001", "01000002", "01000003");
+        // Each lookup only returns once all three are running at the same time
+        CountDownLatch running = new CountDownLatch(3);
+        when(transactionRepository.findByAccountId(anyLong())).thenAnswer(invocation -> {
+            running.countDown();
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            return history(1);
+        });
+
+        DashboardResponse dashboard = dashboardService.getDashboard(1L, 5);
+
+        assertFalse(dashboard.partial());
+        dashboard.accounts().forEach(summary -> assertEquals(1, summary.recentTransactions().size()));
+    }
+
+    @Test
+    void getDashboard_slowHistory_returnsPartialResultWithinBudget() {
+        givenAccounts("01000001", "01000002");
+        CountDownLatch never = new CountDownLatch(1);
+        when(transactionRepository.findByAccountId(100L)).thenReturn(history(1));
+        when(transactionRepository.findByAccountId(101L)).thenAnswer(invocation -> {
+            never.await(5, TimeUnit.SECONDS);
+            return history(1);
+        });
+
+        long start = System.nanoTime();
+        DashboardResponse dashboard = dashboardService.getDashboard(1L, null);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        never.countDown();
+
+        assertTrue(dashboard.partial());
+        assertTrue(elapsedMillis < 2000, "Budget not enforced: " + elapsedMillis + " ms");
+        assertSame(user, dashboard.user());
+        assertEquals(1, dashboard.accounts().get(0).recentTransactions().size());
+        assertNull(dashboard.accounts().get(1).recentTransactions());
+        assertEquals(1, responses("partial"));
+    }
+
+    @Test
+    void transactionLimit_isCapped() {
+        assertEquals(2, dashboardService.transactionLimit(null));
+        assertEquals(10, dashboardService.transactionLimit(1000));
+        assertEquals(0, dashboardService.transactionLimit(-1));
+    }
+}
@@ -0,0 +1,98 @@
+package com.eaglebank.api.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FxRateTable.
+ */
+public class FxRateTableTest {
+
+    private static FxRateTable table(String rates) {
+        return new FxRateTable(new ByteArrayResource(rates.getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    @Test
+    void convert_sameCurrency_isUnchanged() {
+        FxRateTable table = table("base=GBP\nUSD=1.25\n");
+
+        FxRateTable.Conversion conversion = table.convert(new BigDecimal("10"), "GBP", "GBP");
+
+        assertEquals(new BigDecimal("10"), conversion.amount());
+        assertEquals(BigDecimal.ONE, conversion.rate());
+    }
+
+    @Test
+    void convert_fromAndToBase_andAcrossCurrencies() {
+        FxRateTable table = table("base=GBP\nUSD=1.25\nEUR=1.15\n");
+
+        assertEquals(new BigDecimal("80.00"), table.convert(new BigDecimal("100"), "USD", "GBP").amount());
+        assertEquals(new BigDecimal("125.00"), table.convert(new BigDecimal("100"), "GBP", "USD").amount());
+
+        // EUR -> USD through the base: 1.25 / 1.15
+        FxRateTable.Conversion crossed = table.convert(new BigDecimal("100"), "EUR", "USD");
+        assertEquals(new BigDecimal("1.08695652"), crossed.rate());
+        assertEquals(new BigDecimal("108.70"), crossed.amount());
+    }
+
+    @Test
+    void convert_unsupportedCurrency_isBadRequest() {
+        FxRateTable table = table("base=GBP\nUSD=1.25\n");
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> table.convert(BigDecimal.ONE, "XYZ", "GBP"));
+        assertEquals(400, e.getStatusCode().value());
+        assertFalse(table.supports("XYZ"));
+        assertTrue(table.supports("GBP"));
+    }
+
+    @Test
+    void convert_amountRoundingToNothing_isBadRequest() {
+        FxRateTable table = table("base=GBP\nJPY=190.50\n");
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> table.convert(new BigDecimal("0.01"), "JPY", "GBP"));
+        assertEquals(400, e.getStatusCode().value());
+        // 1 JPY is 0.0052 GBP, rounded to 0.01
+        assertEquals(new BigDecimal("0.01"), table.convert(BigDecimal.ONE, "JPY", "GBP").amount());
+    }
+
+    @Test
+    void replace_swapsTheWholeSnapshot() {
+        FxRateTable table = table("base=GBP\nUSD=1.25\nEUR=1.15\n");
+        FxRateTable.Snapshot before = table.getSnapshot();
+
+        table.replace("GBP", Map.of("USD", new BigDecimal("2")));
+
+        assertEquals(new BigDecimal("1.25000000"), before.rates().get("GBP").get("USD"));
+        assertEquals(new BigDecimal("200.00"), table.convert(new BigDecimal("100"), "GBP", "USD").amount());
+        assertFalse(table.supports("EUR"));
+    }
+
+    @Test
+    void replace_invalidRates_keepsTheCurrentSnapshot() {
+        FxRateTable table = table("base=GBP\nUSD=1.25\n");
+        FxRateTable.Snapshot before = table.getSnapshot();
+
+        assertThrows(IllegalArgumentException.class, () -> table.replace("GBP", Map.of("USD", BigDecimal.ZERO)));
+
+        assertSame(before, table.getSnapshot());
+    }
+
+    @Test
+    void defaultRatesFile_isValid() {
+        FxRateTable table = new FxRateTable(new ClassPathResource("fx-rates.properties"));
+
+        assertEquals("GBP", table.getSnapshot().base());
+        assertTrue(table.supports("USD"));
+        assertTrue(table.supports("EUR"));
+    }
+}
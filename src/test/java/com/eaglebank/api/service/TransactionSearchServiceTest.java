@@ -0,0 +1,100 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.beans.Account;
+import com.eaglebank.api.exception.ExceptionControllerAdvice;
+import com.eaglebank.api.exception.ResourceNotFoundException;
+import com.eaglebank.api.repository.AccountRepository;
+import com.eaglebank.api.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TransactionSearchService.
+ */
+@ExtendWith(MockitoExtension.class)
+public class TransactionSearchServiceTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private TransactionSearchService transactionSearchService;
+
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        AccountMetadataCache accountMetadataCache = new AccountMetadataCache(accountRepository, 100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        transactionSearchService = new TransactionSearchService(transactionRepository,
+                new AccountAccessResolver(accountRepository, accountMetadataCache), accountMetadataCache, 50, 500);
+
+        account = new Account();
+        account.setId(10L);
+        account.setUserId(1L);
+        account.setAccountNumber("ACC123");
+    }
+
+    @Test
+    void search_ownAccount_isRestrictedToIt() {
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+
+        transactionSearchService.search("rent", "ACC123", null, null, 1000, 1L, false);
+
+        verify(transactionRepository).searchByReference("rent", 10L, null, null, 500);
+    }
+
+    @Test
+    void search_anotherUsersAccount_isForbiddenUnlessAdmin() {
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+
+        assertThrows(ExceptionControllerAdvice.ForbiddenOperationException.class,
+                () -> transactionSearchService.search("rent", "ACC123", null, null, null, 2L, false));
+
+        transactionSearchService.search("rent", "ACC123", null, null, null, 2L, true);
+        verify(transactionRepository).searchByReference("rent", 10L, null, null, 50);
+    }
+
+    @Test
+    void search_allAccounts_requiresAdmin() {
+        assertThrows(AccessDeniedException.class,
+                () -> transactionSearchService.search("rent", null, null, null, null, 1L, false));
+
+        when(transactionRepository.searchByReference("rent", null, null, null, 50)).thenReturn(List.of());
+        assertTrue(transactionSearchService.search("rent", null, null, null, null, 9L, true).isEmpty());
+    }
+
+    @Test
+    void search_unknownAccount_throwsNotFound() {
+        when(accountRepository.findByAccountNumber("NOPE")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> transactionSearchService.search("rent", "NOPE", null, null, null, 9L, true));
+    }
+
+    @Test
+    void search_blankQueryOrInvertedRange_isBadRequest() {
+        Instant now = Instant.now();
+
+        assertThrows(ResponseStatusException.class,
+                () -> transactionSearchService.search(" ", null, null, null, null, 9L, true));
+        assertThrows(ResponseStatusException.class,
+                () -> transactionSearchService.search("rent", null, now, now.minusSeconds(1), null, 9L, true));
+        verifyNoInteractions(transactionRepository);
+    }
+}
@@ -1,24 +1,38 @@
 package com.eaglebank.api.service;
 
 import com.eaglebank.api.beans.Account;
+import com.eaglebank.api.beans.BalanceAtResponse;
+import com.eaglebank.api.beans.DailyTotals;
 import com.eaglebank.api.beans.Transaction;
 import com.eaglebank.api.beans.TransactionRequest;
+import com.eaglebank.api.beans.TransactionSyncResponse;
 import com.eaglebank.api.beans.TransactionType;
+import com.eaglebank.api.exception.DailyLimitExceededException;
 import com.eaglebank.api.exception.ExceptionControllerAdvice;
 import com.eaglebank.api.exception.ResourceNotFoundException;
+import com.eaglebank.api.exception.VelocityLimitExceededException;
 import com.eaglebank.api.repository.AccountRepository;
 import com.eaglebank.api.repository.TransactionRepository;
 import com.eaglebank.api.service.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,13 +51,23 @@ public class TransactionServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
-    @InjectMocks
     private TransactionService transactionService;
 
     private Account account;
 
     @BeforeEach
     void setUp() {
+        FxRateTable fxRateTable = new FxRateTable(new ClassPathResource("fx-rates.properties"));
+        AccountMetadataCache accountMetadataCache = new AccountMetadataCache(accountRepository, 100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        transactionService = new TransactionService(accountRepository, transactionRepository,
+                new AccountAccessResolver(accountRepository, accountMetadataCache), accountMetadataCache,
+                new TransactionDetailsCache(new ObjectMapper().findAndRegisterModules(), 1 << 20, new SimpleMeterRegistry()),
+                new AccountReadCoalescer(accountRepository, transactionRepository, new SimpleMeterRegistry()),
+                new VelocityEngine(List.of("withdrawal:count:2:PT10M"), 60, Duration.ofHours(1), 1000, fxRateTable, new SimpleMeterRegistry()),
+                new DailyWithdrawalLimiter(fxRateTable, BigDecimal.valueOf(1000), ZoneId.of("Europe/London"), new SimpleMeterRegistry()),
+                fxRateTable,
+                new DailyRollups(ZoneId.of("Europe/London"), 30, 366, new SimpleMeterRegistry()));
+
         account = new Account();
         account.setId(10L);
         account.setUserId(1L);
@@ -62,6 +86,7 @@ public class TransactionServiceTest {
         tx.setAccountId(account.getId());
 
         when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+        when(transactionRepository.findVersionByAccountId(account.getId())).thenReturn(new TransactionRepository.LedgerVersion(1, "tx-1"));
         when(transactionRepository.findByAccountId(account.getId())).thenReturn(List.of(tx));
 
         List<Transaction> history = transactionService.getTransactionHistory("ACC123", 1L);
@@ -71,6 +96,32 @@ public class TransactionServiceTest {
         assertEquals("tx-1", history.get(0).getId());
     }
 
+    @Test
+    void getTransactionHistory_repeatedReads_resolveAccountFromCache() {
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+        when(transactionRepository.findVersionByAccountId(account.getId())).thenReturn(new TransactionRepository.LedgerVersion(0, null));
+        when(transactionRepository.findByAccountId(account.getId())).thenReturn(List.of());
+
+        transactionService.getTransactionHistory("ACC123", 1L);
+        transactionService.getTransactionHistory("ACC123", 1L);
+
+        // The second read is authorized from the metadata cache
+        verify(accountRepository, times(1)).findByAccountNumber("ACC123");
+    }
+
+    @Test
+    void getTransactionHistoryVersion_returnsLedgerVersionWithoutReadingRows() {
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+        when(transactionRepository.findVersionByAccountId(account.getId()))
+                .thenReturn(new TransactionRepository.LedgerVersion(3, "tx-3"));
+
+        TransactionRepository.LedgerVersion version = transactionService.getTransactionHistoryVersion("ACC123", 1L);
+
+        assertEquals(3, version.sequence());
+        assertEquals("tx-3", version.latestTransactionId());
+        verify(transactionRepository, never()).findByAccountId(any());
+    }
+
     @Test
     void getTransactionHistory_accountExistsButNotOwned_throwsForbidden() {
         Account other = new Account();
@@ -100,21 +151,21 @@ public class TransactionServiceTest {
         when(request.getCurrency()).thenReturn("GBP");
         when(request.getReference()).thenReturn("ref-1");
 
-        when(accountRepository.findByAccountNumberAndUserId("ACC123", 1L)).thenReturn(Optional.of(account));
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+        when(accountRepository.adjustBalance(eq(account.getId()), eq(BigDecimal.valueOf(-100)), any(Instant.class))).thenReturn(1);
 
-        Transaction saved = new Transaction();
-        saved.setId("tx-100");
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(saved);
+        when(transactionRepository.publish(anyLong(), any(Transaction.class))).thenAnswer(publishedAs("tx-100"));
 
         Transaction result = transactionService.processTransaction("ACC123", 1L, request);
 
         assertNotNull(result);
         assertEquals("tx-100", result.getId());
 
-        // verify updateBalance called with new balance = 100 (200 - 100)
+        // verify the balance is adjusted by -100 in a single conditional update, with no balance read
         ArgumentCaptor<BigDecimal> captor = ArgumentCaptor.forClass(BigDecimal.class);
-        verify(accountRepository, times(1)).updateBalance(eq(account.getId()), captor.capture());
-        assertEquals(0, BigDecimal.valueOf(100).compareTo(captor.getValue()));
+        verify(accountRepository, times(1)).adjustBalance(eq(account.getId()), captor.capture(), any(Instant.class));
+        assertEquals(0, BigDecimal.valueOf(-100).compareTo(captor.getValue()));
+        verify(accountRepository, never()).findById(any());
     }
 
     @Test
@@ -122,11 +173,172 @@ public class TransactionServiceTest {
         TransactionRequest request = mock(TransactionRequest.class);
         when(request.getAmount()).thenReturn(BigDecimal.valueOf(500)); // more than balance
         when(request.toTransactionType()).thenReturn(TransactionType.withdrawal);
+        when(request.getCurrency()).thenReturn("GBP");
+
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+        // The conditional update refuses to take the balance below zero
+        when(accountRepository.adjustBalance(eq(account.getId()), eq(BigDecimal.valueOf(-500)), any(Instant.class))).thenReturn(0);
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> transactionService.processTransaction("ACC123", 1L, request));
+        assertTrue(ex.getMessage().startsWith("Insufficient funds"));
+        verify(transactionRepository, never()).publish(anyLong(), any());
+    }
+
+    @Test
+    void processTransaction_velocityLimitReached_blocksBeforeBalanceUpdate() {
+        TransactionRequest request = mock(TransactionRequest.class);
+        when(request.getAmount()).thenReturn(BigDecimal.TEN);
+        when(request.toTransactionType()).thenReturn(TransactionType.withdrawal);
+        when(request.getCurrency()).thenReturn("GBP");
+
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+        when(accountRepository.adjustBalance(eq(account.getId()), any(BigDecimal.class), any(Instant.class))).thenReturn(1);
+
+        // The rule allows 2 withdrawals per 10 minutes
+        transactionService.processTransaction("ACC123", 1L, request);
+        transactionService.processTransaction("ACC123", 1L, request);
+
+        assertThrows(VelocityLimitExceededException.class,
+                () -> transactionService.processTransaction("ACC123", 1L, request));
+        verify(accountRepository, times(2)).adjustBalance(any(), any(), any());
+        verify(transactionRepository, times(2)).publish(anyLong(), any());
+    }
 
-        when(accountRepository.findByAccountNumberAndUserId("ACC123", 1L)).thenReturn(Optional.of(account));
+    @Test
+    void processTransaction_failedWithdrawal_doesNotCountTowardsVelocity() {
+        TransactionRequest request = mock(TransactionRequest.class);
+        when(request.getAmount()).thenReturn(BigDecimal.TEN);
+        when(request.toTransactionType()).thenReturn(TransactionType.withdrawal);
+        when(request.getCurrency()).thenReturn("GBP");
+
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
+        when(accountRepository.adjustBalance(eq(account.getId()), any(BigDecimal.class), any(Instant.class))).thenReturn(0, 0, 1);
 
         assertThrows(RuntimeException.class, () -> transactionService.processTransaction("ACC123", 1L, request));
-        verify(transactionRepository, never()).save(any());
+        assertThrows(RuntimeException.class, () -> transactionService.processTransaction("ACC123", 1L, request));
+
+        // Two refused withdrawals were not recorded, so this one is still within the limit
+        transactionService.processTransaction("ACC123", 1L, request);
+        verify(transactionRepository, times(1)).publish(anyLong(), any());
+    }
+
+    @Test
+    void processTransaction_dailyLimitReached_blocksBeforeBalanceUpdate() {
+        TransactionRequest request = mock(TransactionRequest.class);
+        when(request.getAmount()).thenReturn(BigDecimal.valueOf(600));
+        when(request.toTransactionType()).thenReturn(TransactionType.withdrawal);
+        when(request.getCurrency()).thenReturn("GBP");
+
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+        when(accountRepository.adjustBalance(eq(account.getId()), any(BigDecimal.class), any(Instant.class))).thenReturn(1);
+
+        // The daily limit is 1000
+        transactionService.processTransaction("ACC123", 1L, request);
+
+        assertThrows(DailyLimitExceededException.class,
+                () -> transactionService.processTransaction("ACC123", 1L, request));
+        verify(accountRepository, times(1)).adjustBalance(any(), any(), any());
+    }
+
+    @Test
+    void processTransaction_failedWithdrawal_releasesDailyLimit() {
+        TransactionRequest request = mock(TransactionRequest.class);
+        when(request.getAmount()).thenReturn(BigDecimal.valueOf(600));
+        when(request.toTransactionType()).thenReturn(TransactionType.withdrawal);
+        when(request.getCurrency()).thenReturn("GBP");
+
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
+        when(accountRepository.adjustBalance(eq(account.getId()), any(BigDecimal.class), any(Instant.class))).thenReturn(0, 1);
+
+        assertThrows(RuntimeException.class, () -> transactionService.processTransaction("ACC123", 1L, request));
+
+        // The refused withdrawal gave its reservation back
+        transactionService.processTransaction("ACC123", 1L, request);
+        verify(transactionRepository, times(1)).publish(anyLong(), any());
+    }
+
+    @Test
+    void processTransaction_rolledBackWithdrawal_releasesItsLimits() {
+        TransactionRequest request = mock(TransactionRequest.class);
+        when(request.getAmount()).thenReturn(BigDecimal.valueOf(600));
+        when(request.toTransactionType()).thenReturn(TransactionType.withdrawal);
+        when(request.getCurrency()).thenReturn("GBP");
+
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+        when(accountRepository.adjustBalance(eq(account.getId()), any(BigDecimal.class), any(Instant.class))).thenReturn(1);
+
+        // The balance update applied, but the commit failed
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> transactionService.processTransaction("ACC123", 1L, request));
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> transactionService.processTransaction("ACC123", 1L, request));
+
+        // Within the daily limit (1000) and the velocity rule (2 per 10 minutes) only if both were given back
+        assertNotNull(transactionService.processTransaction("ACC123", 1L, request));
+    }
+
+    @Test
+    void processTransaction_publishesTheLedgerRowOnlyOnceCommitted() {
+        TransactionRequest request = mock(TransactionRequest.class);
+        when(request.getAmount()).thenReturn(BigDecimal.TEN);
+        when(request.toTransactionType()).thenReturn(TransactionType.deposit);
+        when(request.getCurrency()).thenReturn("GBP");
+
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+        when(accountRepository.adjustBalance(eq(account.getId()), any(BigDecimal.class), any(Instant.class))).thenReturn(1);
+        when(transactionRepository.claimSlot(account.getId())).thenReturn(4L, 5L);
+
+        // Rolled back: the slot is given up and no row is ever published
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> {
+            transactionService.processTransaction("ACC123", 1L, request);
+            verify(transactionRepository).claimSlot(account.getId());
+            verifyNoMoreInteractions(transactionRepository);
+        });
+        verify(transactionRepository).drop(account.getId(), 4L);
+
+        // Committed: published in its slot only after the commit
+        Transaction[] result = new Transaction[1];
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> {
+            result[0] = transactionService.processTransaction("ACC123", 1L, request);
+            verify(transactionRepository, never()).publish(anyLong(), any());
+        });
+        verify(transactionRepository).publish(5L, result[0]);
+    }
+
+    // Publishes like the repository would, assigning the given ID
+    private static Answer<Transaction> publishedAs(String id) {
+        return invocation -> {
+            Transaction transaction = invocation.getArgument(1);
+            transaction.setId(id);
+            return transaction;
+        };
+    }
+
+    // Runs a call inside a transaction, then completes the transaction with the given status
+    private static void completeTransaction(int status, Runnable call) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            call.run();
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(status));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void processTransaction_accountNotOwned_throwsForbiddenAfterSingleLookup() {
+        TransactionRequest request = mock(TransactionRequest.class);
+        account.setUserId(999L);
+
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+
+        assertThrows(ExceptionControllerAdvice.ForbiddenOperationException.class,
+                () -> transactionService.processTransaction("ACC123", 1L, request));
+        verify(accountRepository, times(1)).findByAccountNumber("ACC123");
+        verify(accountRepository, never()).findByAccountNumberAndUserId(any(), any());
+        verify(accountRepository, never()).adjustBalance(any(), any(), any());
     }
 
     @Test
@@ -137,65 +349,227 @@ public class TransactionServiceTest {
         when(request.getCurrency()).thenReturn("GBP");
         when(request.getReference()).thenReturn("dep-1");
 
-        when(accountRepository.findByAccountNumberAndUserId("ACC123", 1L)).thenReturn(Optional.of(account));
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+        when(accountRepository.adjustBalance(eq(account.getId()), eq(BigDecimal.valueOf(50)), any(Instant.class))).thenReturn(1);
 
-        Transaction saved = new Transaction();
-        saved.setId("tx-dep");
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(saved);
+        when(transactionRepository.publish(anyLong(), any(Transaction.class))).thenAnswer(publishedAs("tx-dep"));
 
         Transaction result = transactionService.processTransaction("ACC123", 1L, request);
 
         assertNotNull(result);
         assertEquals("tx-dep", result.getId());
 
-        // verify updateBalance called with new balance = 250 (200 + 50)
+        // verify the balance is adjusted by +50 (200 -> 250)
         ArgumentCaptor<BigDecimal> captor = ArgumentCaptor.forClass(BigDecimal.class);
-        verify(accountRepository, times(1)).updateBalance(eq(account.getId()), captor.capture());
-        assertEquals(0, BigDecimal.valueOf(250).compareTo(captor.getValue()));
+        verify(accountRepository, times(1)).adjustBalance(eq(account.getId()), captor.capture(), any(Instant.class));
+        assertEquals(0, BigDecimal.valueOf(50).compareTo(captor.getValue()));
     }
 
     @Test
-    void getTransactionDetails_success_returnsTransaction() {
+    void processTransaction_foreignCurrencyDeposit_isConvertedIntoAccountCurrency() {
+        TransactionRequest request = mock(TransactionRequest.class);
+        when(request.getAmount()).thenReturn(new BigDecimal("127.00"));
+        when(request.toTransactionType()).thenReturn(TransactionType.deposit);
+        when(request.getCurrency()).thenReturn("USD");
+
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+        when(accountRepository.adjustBalance(eq(account.getId()), any(BigDecimal.class), any(Instant.class))).thenReturn(1);
+
+        Transaction result = transactionService.processTransaction("ACC123", 1L, request);
+
+        // 127 USD at 1.27 USD per GBP
+        verify(accountRepository).adjustBalance(eq(account.getId()), eq(new BigDecimal("100.00")), any(Instant.class));
+        assertEquals(new BigDecimal("100.00"), result.getAmount());
+        assertEquals("GBP", result.getCurrency());
+        assertEquals(new BigDecimal("127.00"), result.getOriginalAmount());
+        assertEquals("USD", result.getOriginalCurrency());
+        assertEquals(new BigDecimal("0.78740157"), result.getFxRate());
+    }
+
+    @Test
+    void processTransaction_unsupportedCurrency_isRejectedBeforeBalanceUpdate() {
+        TransactionRequest request = mock(TransactionRequest.class);
+        when(request.getAmount()).thenReturn(BigDecimal.TEN);
+        when(request.getCurrency()).thenReturn("XYZ");
+
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> transactionService.processTransaction("ACC123", 1L, request));
+        assertEquals(400, e.getStatusCode().value());
+        verify(accountRepository, never()).adjustBalance(any(), any(), any());
+    }
+
+    @Test
+    void getTransactionDetailsJson_accountNotFound_throwsNotFound() {
+        when(accountRepository.findByAccountNumber("MISSING")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> transactionService.getTransactionDetailsJson("MISSING", "tx-1", 1L));
+    }
+
+    @Test
+    void getTransactionDetailsJson_transactionMissing_throwsNotFound() {
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+        when(transactionRepository.findByIdAndAccountId("missing-tx", account.getId())).thenReturn(null);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> transactionService.getTransactionDetailsJson("ACC123", "missing-tx", 1L));
+    }
+
+    @Test
+    void getTransactionDetailsJson_repeatViewIsServedFromCache() throws Exception {
         Transaction tx = new Transaction();
         tx.setId("tx-42");
         tx.setAccountId(account.getId());
+        tx.setAmount(BigDecimal.TEN);
+        tx.setType(TransactionType.deposit);
 
-        when(accountRepository.findByAccountNumberAndUserId("ACC123", 1L)).thenReturn(Optional.of(account));
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
         when(transactionRepository.findByIdAndAccountId("tx-42", account.getId())).thenReturn(tx);
 
-        Transaction result = transactionService.getTransactionDetails("ACC123", "tx-42", 1L);
+        byte[] first = transactionService.getTransactionDetailsJson("ACC123", "tx-42", 1L);
+        byte[] second = transactionService.getTransactionDetailsJson("ACC123", "tx-42", 1L);
 
-        assertNotNull(result);
-        assertEquals("tx-42", result.getId());
+        assertSame(first, second);
+        assertEquals("tx-42", new ObjectMapper().readTree(first).get("id").asText());
+        // The ledger is only read on the first view
+        verify(transactionRepository, times(1)).findByIdAndAccountId("tx-42", account.getId());
+    }
+
+    @Test
+    void getTransactionDetailsJson_cachedUnderAnotherAccount_throwsNotFound() {
+        Transaction tx = new Transaction();
+        tx.setId("tx-42");
+        tx.setAccountId(account.getId());
+        Account second = new Account();
+        second.setId(11L);
+        second.setUserId(1L);
+        second.setAccountNumber("ACC456");
+
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+        when(accountRepository.findByAccountNumber("ACC456")).thenReturn(Optional.of(second));
+        when(transactionRepository.findByIdAndAccountId("tx-42", account.getId())).thenReturn(tx);
+        transactionService.getTransactionDetailsJson("ACC123", "tx-42", 1L);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> transactionService.getTransactionDetailsJson("ACC456", "tx-42", 1L));
     }
 
     @Test
-    void getTransactionDetails_accountExistsButNotOwned_throwsForbidden() {
-        when(accountRepository.findByAccountNumberAndUserId("ACC123", 1L)).thenReturn(Optional.empty());
+    void getTransactionDetailsJson_notOwned_throwsForbiddenBeforeCacheLookup() {
         Account other = new Account();
+        other.setId(12L);
         other.setAccountNumber("ACC123");
         other.setUserId(999L);
         when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(other));
 
         assertThrows(ExceptionControllerAdvice.ForbiddenOperationException.class,
-                () -> transactionService.getTransactionDetails("ACC123", "tx-1", 1L));
+                () -> transactionService.getTransactionDetailsJson("ACC123", "tx-1", 1L));
+        verifyNoInteractions(transactionRepository);
     }
 
     @Test
-    void getTransactionDetails_accountNotFound_throwsNotFound() {
-        when(accountRepository.findByAccountNumberAndUserId("MISSING", 1L)).thenReturn(Optional.empty());
-        when(accountRepository.findByAccountNumber("MISSING")).thenReturn(Optional.empty());
+    void getTransactionsSince_returnsDeltaFromLedgerIndex() {
+        Transaction tx = new Transaction();
+        tx.setId("tx-3");
+        tx.setSequence(3L);
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+        when(transactionRepository.findByAccountIdSince(account.getId(), 2L))
+                .thenReturn(new TransactionRepository.LedgerDelta(List.of(tx), 3L));
 
-        assertThrows(ResourceNotFoundException.class,
-                () -> transactionService.getTransactionDetails("MISSING", "tx-1", 1L));
+        TransactionSyncResponse delta = transactionService.getTransactionsSince("ACC123", 1L, 2L);
+
+        assertEquals(List.of(tx), delta.transactions());
+        assertEquals(3L, delta.watermark());
+        verify(transactionRepository, never()).findByAccountId(any());
     }
 
     @Test
-    void getTransactionDetails_transactionMissing_throwsNotFound() {
-        when(accountRepository.findByAccountNumberAndUserId("ACC123", 1L)).thenReturn(Optional.of(account));
-        when(transactionRepository.findByIdAndAccountId("missing-tx", account.getId())).thenReturn(null);
+    void getTransactionsSince_accountNotOwned_throwsForbidden() {
+        Account other = new Account();
+        other.setId(12L);
+        other.setAccountNumber("ACC123");
+        other.setUserId(999L);
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(other));
 
-        assertThrows(ResourceNotFoundException.class,
-                () -> transactionService.getTransactionDetails("ACC123", "missing-tx", 1L));
+        assertThrows(ExceptionControllerAdvice.ForbiddenOperationException.class,
+                () -> transactionService.getTransactionsSince("ACC123", 1L, 0L));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void processTransaction_updatesTodaysRollup() {
+        TransactionRequest request = mock(TransactionRequest.class);
+        when(request.getAmount()).thenReturn(new BigDecimal("25.50"));
+        when(request.toTransactionType()).thenReturn(TransactionType.deposit);
+        when(request.getCurrency()).thenReturn("GBP");
+
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+        when(accountRepository.adjustBalance(eq(account.getId()), any(BigDecimal.class), any(Instant.class))).thenReturn(1);
+
+        transactionService.processTransaction("ACC123", 1L, request);
+
+        List<DailyTotals> days = transactionService.getDailyTotals("ACC123", 1L, null, null);
+        assertEquals(30, days.size());
+        DailyTotals today = days.get(days.size() - 1);
+        assertEquals(new BigDecimal("25.50"), today.deposits());
+        assertEquals(1, today.depositCount());
+        assertEquals(new BigDecimal("25.50"), today.closingBalance());
+    }
+
+    @Test
+    void getDailyTotals_invalidRange_isBadRequest() {
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+        LocalDate day = LocalDate.of(2026, 1, 31);
+
+        assertThrows(ResponseStatusException.class,
+                () -> transactionService.getDailyTotals("ACC123", 1L, day, day.minusDays(1)));
+        assertThrows(ResponseStatusException.class,
+                () -> transactionService.getDailyTotals("ACC123", 1L, day.minusDays(366), day));
+        assertEquals(366, transactionService.getDailyTotals("ACC123", 1L, day.minusDays(365), day).size());
+    }
+
+    @Test
+    void getBalanceAt_returnsRunningBalanceOfLastTransaction() {
+        Instant at = Instant.parse("2026-01-31T23:59:00Z");
+        Transaction tx = new Transaction();
+        tx.setId("tx-7");
+        tx.setSequence(7L);
+        tx.setBalanceAfter(new BigDecimal("120.25"));
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+        when(transactionRepository.findLastByAccountIdAt(account.getId(), at)).thenReturn(tx);
+
+        BalanceAtResponse balance = transactionService.getBalanceAt("ACC123", 1L, at);
+
+        assertEquals(new BigDecimal("120.25"), balance.balance());
+        assertEquals("tx-7", balance.transactionId());
+        assertEquals(7L, balance.sequence());
+        assertEquals(at, balance.at());
+        verify(transactionRepository, never()).findByAccountId(any());
+    }
+
+    @Test
+    void getBalanceAt_beforeFirstTransaction_isZero() {
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(account));
+
+        BalanceAtResponse balance = transactionService.getBalanceAt("ACC123", 1L, Instant.EPOCH);
+
+        assertEquals(BigDecimal.valueOf(0, 2), balance.balance());
+        assertNull(balance.transactionId());
+        assertEquals(0L, balance.sequence());
+    }
+
+    @Test
+    void getBalanceAt_accountNotOwned_throwsForbidden() {
+        Account other = new Account();
+        other.setId(12L);
+        other.setAccountNumber("ACC123");
+        other.setUserId(999L);
+        when(accountRepository.findByAccountNumber("ACC123")).thenReturn(Optional.of(other));
+
+        assertThrows(ExceptionControllerAdvice.ForbiddenOperationException.class,
+                () -> transactionService.getBalanceAt("ACC123", 1L, Instant.now()));
+        verifyNoInteractions(transactionRepository);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.beans.Address;
+import com.eaglebank.api.beans.User;
+import com.eaglebank.api.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UserListingService.
+ */
+public class UserListingServiceTest {
+
+    private UserRepository userRepository;
+    private EntityManager entityManager;
+    private PlatformTransactionManager transactionManager;
+    private UserListingService service;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        entityManager = mock(EntityManager.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        service = new UserListingService(userRepository, entityManager, transactionManager, new ObjectMapper(), 50, 500);
+    }
+
+    private static User user(long id) {
+        User user = new User("User " + id, new Address("1 High St", "London", "ss", "dd", "gg", "hh"), "1234567890", "user" + id + "@example.com");
+        user.setId(id);
+        user.setPassword("{bcrypt}secret");
+        return user;
+    }
+
+    @Test
+    void findPage_seeksAfterTheGivenId() {
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(10L, Limit.of(20))).thenReturn(List.of(user(11)));
+
+        assertEquals(1, service.findPage(10L, 20).size());
+        verify(userRepository, times(1)).findByIdGreaterThanOrderByIdAsc(10L, Limit.of(20));
+    }
+
+    @Test
+    void findPage_firstPageAndDefaultLimit() {
+        service.findPage(null, null);
+
+        verify(userRepository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(50));
+    }
+
+    @Test
+    void pageSize_isCappedAndAtLeastOne() {
+        assertEquals(50, service.pageSize(null));
+        assertEquals(500, service.pageSize(100_000));
+        assertEquals(1, service.pageSize(0));
+        assertEquals(7, service.pageSize(7));
+    }
+
+    @Test
+    void writeAll_streamsEveryUserAsJsonArrayAndDetachesEach() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(userRepository.streamAll()).thenReturn(Stream.of(user(1), user(2), user(3)).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.writeAll(out);
+
+        JsonNode json = new ObjectMapper().readTree(out.toByteArray());
+        assertTrue(json.isArray());
+        assertEquals(3, json.size());
+        assertEquals(3, json.get(2).get("id").asLong());
+        assertFalse(json.get(0).has("password"), "Password hashes must never be streamed");
+        // The cursor is closed and each entity is released once written
+        assertTrue(closed.get());
+        verify(entityManager, times(3)).detach(any(User.class));
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void writeAll_noUsers_writesEmptyArray() throws Exception {
+        when(userRepository.streamAll()).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.writeAll(out);
+
+        assertEquals("[]", out.toString());
+    }
+}
@@ -0,0 +1,209 @@
+package com.eaglebank.api.service;
+
+import com.eaglebank.api.beans.TransactionType;
+import com.eaglebank.api.exception.TransactionTooLargeException;
+import com.eaglebank.api.exception.VelocityLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for VelocityEngine.
+ */
+public class VelocityEngineTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T10:00:00Z");
+
+    private static VelocityEngine engine(String... rules) {
+        return new VelocityEngine(List.of(rules), 60, Duration.ofHours(1), 1000, new FxRateTable(new ClassPathResource("fx-rates.properties")), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void parse_readsCountAndAmountRules() {
+        VelocityEngine.VelocityRule count = VelocityEngine.VelocityRule.parse("withdrawal:count:20:PT10M");
+        VelocityEngine.VelocityRule amount = VelocityEngine.VelocityRule.parse(" Withdrawal : amount : 5000.50 : PT1H ");
+
+        assertEquals(new VelocityEngine.VelocityRule(TransactionType.withdrawal, VelocityEngine.Measure.count, 20, Duration.ofMinutes(10)), count);
+        assertEquals(500050, amount.limit());
+        assertThrows(IllegalArgumentException.class, () -> VelocityEngine.VelocityRule.parse("withdrawal:count:20"));
+    }
+
+    @Test
+    void countRule_blocksTheBurstAndOnlyItsType() {
+        VelocityEngine engine = engine("withdrawal:count:3:PT10M");
+        for (int i = 0; i < 3; i++) {
+            engine.reserve(1L, TransactionType.withdrawal, BigDecimal.ONE, "GBP", T0.plusSeconds(i));
+        }
+
+        VelocityLimitExceededException e = assertThrows(VelocityLimitExceededException.class,
+                () -> engine.reserve(1L, TransactionType.withdrawal, BigDecimal.ONE, "GBP", T0.plusSeconds(5)));
+        assertTrue(e.getRetryAfter().compareTo(Duration.ofMinutes(10)) <= 0);
+        assertTrue(e.getRetryAfter().compareTo(Duration.ofMinutes(9)) > 0);
+        // Deposits and other accounts are unaffected
+        engine.reserve(1L, TransactionType.deposit, BigDecimal.ONE, "GBP", T0.plusSeconds(5));
+        engine.reserve(2L, TransactionType.withdrawal, BigDecimal.ONE, "GBP", T0.plusSeconds(5));
+    }
+
+    @Test
+    void amountRule_countsTheNewTransaction() {
+        VelocityEngine engine = engine("withdrawal:amount:100:PT10M");
+        engine.reserve(1L, TransactionType.withdrawal, new BigDecimal("60.00"), "GBP", T0);
+
+        assertThrows(VelocityLimitExceededException.class,
+                () -> engine.reserve(1L, TransactionType.withdrawal, new BigDecimal("40.01"), "GBP", T0.plusSeconds(1)));
+        engine.reserve(1L, TransactionType.withdrawal, new BigDecimal("40.00"), "GBP", T0.plusSeconds(1));
+    }
+
+    @Test
+    void amountRule_transactionLargerThanTheLimit_isRefusedOutright() {
+        VelocityEngine engine = engine("withdrawal:count:5:PT10M", "withdrawal:amount:100:PT10M");
+
+        // Not a 429: an idle account could never take it either
+        TransactionTooLargeException e = assertThrows(TransactionTooLargeException.class,
+                () -> engine.reserve(1L, TransactionType.withdrawal, new BigDecimal("100.01"), "GBP", T0));
+        assertTrue(e.getMessage().contains("100.00 GBP"));
+        // Nothing was reserved by the count rule
+        for (int i = 0; i < 5; i++) {
+            engine.reserve(1L, TransactionType.withdrawal, new BigDecimal("1.00"), "GBP", T0);
+        }
+    }
+
+    @Test
+    void amountRule_foreignCurrencyAccount_convertsTheLimitFromTheBaseCurrency() {
+        VelocityEngine engine = engine("withdrawal:amount:100:PT10M");
+        // 100 GBP is 19050.00 JPY at 190.50
+        engine.reserve(1L, TransactionType.withdrawal, new BigDecimal("19000.00"), "JPY", T0);
+
+        VelocityLimitExceededException e = assertThrows(VelocityLimitExceededException.class,
+                () -> engine.reserve(1L, TransactionType.withdrawal, new BigDecimal("50.01"), "JPY", T0.plusSeconds(1)));
+        assertTrue(e.getMessage().contains("19050.00 JPY"));
+        engine.reserve(1L, TransactionType.withdrawal, new BigDecimal("50.00"), "JPY", T0.plusSeconds(1));
+    }
+
+    @Test
+    void reserve_refusedByALaterRule_givesBackTheEarlierRules() {
+        VelocityEngine engine = engine("withdrawal:count:2:PT10M", "withdrawal:amount:100:PT10M");
+        engine.reserve(1L, TransactionType.withdrawal, new BigDecimal("60.00"), "GBP", T0);
+
+        // Fits the count rule but not the amount rule: nothing of it may stay reserved
+        assertThrows(VelocityLimitExceededException.class,
+                () -> engine.reserve(1L, TransactionType.withdrawal, new BigDecimal("50.00"), "GBP", T0.plusSeconds(1)));
+        engine.reserve(1L, TransactionType.withdrawal, new BigDecimal("10.00"), "GBP", T0.plusSeconds(2));
+        assertThrows(VelocityLimitExceededException.class,
+                () -> engine.reserve(1L, TransactionType.withdrawal, new BigDecimal("1.00"), "GBP", T0.plusSeconds(3)));
+    }
+
+    @Test
+    void release_givesTheReservationBack() {
+        VelocityEngine engine = engine("withdrawal:count:1:PT10M", "withdrawal:amount:100:PT10M");
+        engine.reserve(1L, TransactionType.withdrawal, new BigDecimal("100.00"), "GBP", T0);
+        engine.release(1L, TransactionType.withdrawal, new BigDecimal("100.00"), T0);
+
+        engine.reserve(1L, TransactionType.withdrawal, new BigDecimal("100.00"), "GBP", T0.plusSeconds(1));
+        // Releasing an untracked account or a slot that has left the window is a no-op
+        engine.release(2L, TransactionType.withdrawal, BigDecimal.ONE, T0);
+        engine.release(1L, TransactionType.withdrawal, new BigDecimal("100.00"), T0.minus(Duration.ofHours(1)));
+        assertThrows(VelocityLimitExceededException.class,
+                () -> engine.reserve(1L, TransactionType.withdrawal, BigDecimal.ONE, "GBP", T0.plusSeconds(2)));
+    }
+
+    @Test
+    void window_slidesOldActivityOut() {
+        VelocityEngine engine = engine("withdrawal:count:1:PT10M");
+        engine.reserve(1L, TransactionType.withdrawal, BigDecimal.ONE, "GBP", T0);
+
+        assertThrows(VelocityLimitExceededException.class,
+                () -> engine.reserve(1L, TransactionType.withdrawal, BigDecimal.ONE, "GBP", T0.plus(Duration.ofMinutes(9))));
+        engine.reserve(1L, TransactionType.withdrawal, BigDecimal.ONE, "GBP", T0.plus(Duration.ofMinutes(10)));
+        // The slot is reused on the next lap of the ring
+        engine.reserve(1L, TransactionType.withdrawal, BigDecimal.ONE, "GBP", T0.plus(Duration.ofMinutes(20)));
+        assertThrows(VelocityLimitExceededException.class,
+                () -> engine.reserve(1L, TransactionType.withdrawal, BigDecimal.ONE, "GBP", T0.plus(Duration.ofMinutes(21))));
+    }
+
+    @Test
+    void slidingWindow_concurrentUpdatesAreNotLost() throws Exception {
+        VelocityEngine.SlidingWindow window = new VelocityEngine.SlidingWindow(Duration.ofMinutes(10), 60);
+        int threads = 8;
+        int perThread = 1000;
+        long now = T0.toEpochMilli();
+        runConcurrently(threads, () -> {
+            for (int i = 0; i < perThread; i++) {
+                window.tryAdd(now, VelocityEngine.Measure.count, Long.MAX_VALUE, 5);
+            }
+        });
+
+        assertEquals(threads * perThread, window.total(now, VelocityEngine.Measure.count));
+        assertEquals(threads * perThread * 5L, window.total(now, VelocityEngine.Measure.amount));
+    }
+
+    @Test
+    void slidingWindow_staleTimeOnALaterLap_isCountedInThatLap() {
+        VelocityEngine.SlidingWindow window = new VelocityEngine.SlidingWindow(Duration.ofMinutes(10), 60);
+        long now = T0.toEpochMilli();
+        long stale = now - Duration.ofMinutes(10).toMillis();
+        assertTrue(window.tryAdd(now, VelocityEngine.Measure.count, 2, 0));
+
+        // Same slot position one lap earlier: recorded now, and checked against the current window
+        assertTrue(window.tryAdd(stale, VelocityEngine.Measure.count, 2, 0));
+        assertEquals(2, window.total(now, VelocityEngine.Measure.count));
+        assertFalse(window.tryAdd(stale, VelocityEngine.Measure.count, 2, 0));
+    }
+
+    @Test
+    void reserve_concurrentBurst_neverOvershootsTheLimit() throws Exception {
+        VelocityEngine engine = engine("withdrawal:count:100:PT10M");
+        AtomicInteger allowed = new AtomicInteger();
+        runConcurrently(8, () -> {
+            for (int i = 0; i < 100; i++) {
+                try {
+                    engine.reserve(1L, TransactionType.withdrawal, BigDecimal.ONE, "GBP", T0);
+                    allowed.incrementAndGet();
+                } catch (VelocityLimitExceededException e) {
+                    // expected once the limit is reached
+                }
+            }
+        });
+
+        assertEquals(100, allowed.get());
+    }
+
+    @Test
+    void noRules_neverBlocksOrTracks() {
+        VelocityEngine engine = engine();
+        engine.reserve(1L, TransactionType.withdrawal, BigDecimal.TEN, "GBP", T0);
+        engine.release(1L, TransactionType.withdrawal, BigDecimal.TEN, T0);
+        assertEquals(0, engine.trackedAccounts());
+    }
+
+    private static void runConcurrently(int threads, Runnable task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                task.run();
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+}